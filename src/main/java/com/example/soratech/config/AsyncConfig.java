@@ -1,29 +1,59 @@
 package com.example.soratech.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
-
 @Configuration
 @EnableAsync  // Включение асинхронности
 public class AsyncConfig {
 
+    /**
+     * Пул для @Async("taskExecutor"). Режим выбирается тем же флагом, что и обработка запросов Tomcat:
+     * spring.threads.virtual.enabled=true - каждая задача в своем виртуальном потоке (блокирующее ожидание
+     * не занимает поток ОС, очереди и отказов нет, параллельность ограничивает DownstreamLimiter);
+     * иначе - пул платформенных потоков с размерами из spring.task.execution.pool.*.
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public AsyncTaskExecutor taskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                          @Value("${spring.task.execution.pool.core-size:5}") int coreSize,
+                                          @Value("${spring.task.execution.pool.max-size:10}") int maxSize,
+                                          @Value("${spring.task.execution.pool.queue-capacity:100}") int queueCapacity,
+                                          @Value("${spring.task.execution.thread-name-prefix:async-task-}") String threadNamePrefix) {
+        if (virtualThreads) {
+            return virtualThreadExecutor(threadNamePrefix);
+        }
+        return platformThreadPool(coreSize, maxSize, queueCapacity, threadNamePrefix);
+    }
+
+    static ThreadPoolTaskExecutor platformThreadPool(int coreSize, int maxSize, int queueCapacity, String threadNamePrefix) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         
         // Настройка пула потоков
-        executor.setCorePoolSize(5);        // Минимум 5 потоков
-        executor.setMaxPoolSize(10);        // Максимум 10 потоков
-        executor.setQueueCapacity(100);     // Очередь на 100 задач
-        executor.setThreadNamePrefix("async-task-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);  // при заполненной очереди задача отклоняется
+        executor.setThreadNamePrefix(threadNamePrefix);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         
         executor.initialize();
         return executor;
     }
+
+    static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        // Spring Boot на JDK ниже 21 молча не включает виртуальные потоки Tomcat; здесь лучше упасть при старте
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true требует Java 21+, текущая версия: "
+                    + Runtime.version());
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(60_000);  // как ожидание задач при остановке у пула
+        return executor;
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.soratech.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики регионов второго уровня кэша Hibernate в тех же именах, что и у Caffeine-кэшей:
+ * cache.gets (result=hit/miss), cache.puts, cache.size с тегом cache=имя региона.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        Set<String> regions = new LinkedHashSet<>(List.of(statistics.getSecondLevelCacheRegionNames()));
+        regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+        for (String region : regions) {
+            counter(registry, statistics, region, "cache.gets", "hit", CacheRegionStatistics::getHitCount);
+            counter(registry, statistics, region, "cache.gets", "miss", CacheRegionStatistics::getMissCount);
+            counter(registry, statistics, region, "cache.puts", null, CacheRegionStatistics::getPutCount);
+            Gauge.builder("cache.size", statistics, s -> value(s, region, CacheRegionStatistics::getElementCountInMemory))
+                    .tag("cache", region)
+                    .tag("cacheManager", "hibernate")
+                    .register(registry);
+        }
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String region, String name,
+                                String result, ToDoubleFunction<CacheRegionStatistics> getter) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter
+                .builder(name, statistics, s -> value(s, region, getter))
+                .tag("cache", region)
+                .tag("cacheManager", "hibernate");
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+
+    private static double value(Statistics statistics, String region, ToDoubleFunction<CacheRegionStatistics> getter) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics != null ? getter.applyAsDouble(regionStatistics) : 0;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.soratech.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling  // Фоновые задачи по расписанию (очистка просроченных резервов товара)
+public class SchedulingConfig {
+}
@@ -1,9 +1,13 @@
 package com.example.soratech.config;
 
+import com.example.soratech.security.BoundedPasswordEncoder;
 import com.example.soratech.security.CustomUserDetailsService;
 import com.example.soratech.security.JwtAuthenticationEntryPoint;
 import com.example.soratech.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,13 +16,14 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -32,13 +37,32 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password.pool-size:4}")
+    private int passwordPoolSize;
+
+    @Value("${app.security.password.queue-capacity:50}")
+    private int passwordQueueCapacity;
+
+    @Value("${app.security.password.timeout:5s}")
+    private Duration passwordTimeout;
+
     public SecurityConfig(CustomUserDetailsService userDetailsService) {
         this.userDetailsService = userDetailsService;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // BCrypt выполняется на отдельном ограниченном пуле, а не на потоках Tomcat
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                bcryptStrength, passwordPoolSize, passwordQueueCapacity, passwordTimeout);
+        ExecutorServiceMetrics.monitor(meterRegistry, encoder.getExecutor(), "passwordHashing");
+        return encoder;
     }
 
     @Bean
@@ -46,6 +70,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Пересчет хеша при входе, если изменилась стоимость BCrypt
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -79,6 +105,9 @@ public class SecurityConfig {
                 .requestMatchers("/admin/**", "/api/admin/**").hasRole("Администратор")
                 .requestMatchers("/manager/**", "/api/manager/**").hasAnyRole("Администратор", "Менеджер")
                 .requestMatchers("/client/**", "/api/client/**").hasAnyRole("Администратор", "Менеджер", "Клиент")
+                // Actuator: health публичный, метрики только для администратора
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("Администратор")
                 // Профиль доступен всем авторизованным
                 .requestMatchers("/profile", "/profile/**").authenticated()
                 // Остальные требуют авторизации
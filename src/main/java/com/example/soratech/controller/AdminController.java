@@ -29,8 +29,7 @@ public class AdminController {
         }
 
         // Получаем текущего пользователя
-        User user = userRepository.findByEmail(principal.getName())
-                .orElseGet(() -> userRepository.findByPhone(principal.getName()).orElse(null));
+        User user = userRepository.findByLogin(principal.getName()).orElse(null);
 
         model.addAttribute("user", user);
 
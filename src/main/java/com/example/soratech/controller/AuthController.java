@@ -1,10 +1,9 @@
 package com.example.soratech.controller;
 
 import com.example.soratech.dto.RegisterRequest;
-import com.example.soratech.model.Role;
 import com.example.soratech.model.User;
-import com.example.soratech.repository.RoleRepository;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,7 +13,6 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,14 +20,14 @@ import java.util.Map;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final UserService userService;
     private final PasswordEncoder passwordEncoder;
 
     public AuthController(UserRepository userRepository, 
-                         RoleRepository roleRepository,
+                         UserService userService,
                          PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.userService = userService;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -69,15 +67,9 @@ public class AuthController {
             user.setAddress(registerRequest.getAddress());
             user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
             user.setActive(true);
-            user.setDeleted(false);
-            user.setCreatedAt(LocalDateTime.now());
 
-            // Назначение роли "Клиент" по умолчанию
-            Role clientRole = roleRepository.findByName("Клиент")
-                    .orElseThrow(() -> new RuntimeException("Роль 'Клиент' не найдена"));
-            user.setRole(clientRole);
-
-            userRepository.save(user);
+            // Роль "Клиент" по умолчанию; приветственное письмо - через outbox
+            userService.register(user);
 
             // Успешная регистрация - возвращаем успешный ответ
             model.addAttribute("success", "Регистрация успешна! Теперь вы можете войти.");
@@ -28,8 +28,7 @@ public class ManagerController {
             return "redirect:/";
         }
 
-        User user = userRepository.findByEmail(principal.getName())
-                .orElseGet(() -> userRepository.findByPhone(principal.getName()).orElse(null));
+        User user = userRepository.findByLogin(principal.getName()).orElse(null);
 
         model.addAttribute("user", user);
 
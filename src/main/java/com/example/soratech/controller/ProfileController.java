@@ -2,6 +2,8 @@ package com.example.soratech.controller;
 
 import com.example.soratech.model.User;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.security.CustomUserDetailsService;
+import com.example.soratech.security.TokenVersionService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
@@ -21,10 +23,17 @@ public class ProfileController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
+    private final CustomUserDetailsService userDetailsService;
 
-    public ProfileController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public ProfileController(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             TokenVersionService tokenVersionService,
+                             CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionService = tokenVersionService;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping
@@ -33,7 +42,7 @@ public class ProfileController {
             return "redirect:/";
         }
 
-        User user = userRepository.findByEmail(principal.getName())
+        User user = userRepository.findProfileByEmail(principal.getName())
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
         model.addAttribute("user", user);
@@ -77,11 +86,14 @@ public class ProfileController {
                     return "redirect:/profile";
                 }
 
-                // Обновление пароля
+                // Обновление пароля и отзыв ранее выданных JWT
                 user.setPassword(passwordEncoder.encode(newPassword));
+                user.setTokenVersion(user.getTokenVersion() + 1);
             }
 
             userRepository.save(user);
+            tokenVersionService.evict(user.getId());
+            userDetailsService.evict(user.getId());
             redirectAttributes.addFlashAttribute("success", "Профиль успешно обновлен");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Ошибка при обновлении профиля: " + e.getMessage());
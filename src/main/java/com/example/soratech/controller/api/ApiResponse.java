@@ -1,5 +1,8 @@
 package com.example.soratech.controller.api;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
+
 import java.util.List;
 
 public class ApiResponse<T> {
@@ -9,6 +12,9 @@ public class ApiResponse<T> {
     private long totalElements;
     private boolean success;
     private String message;
+    private String nextCursor;
+    private Boolean hasNext;
+    private Object facets;
 
     public ApiResponse() {
     }
@@ -25,6 +31,27 @@ public class ApiResponse<T> {
         return new ApiResponse<>(content, currentPage, totalPages, totalElements);
     }
 
+    /**
+     * Ответ для keyset-пагинации: общее количество не считается (-1),
+     * вместо номера страницы клиент получает курсор следующей страницы.
+     */
+    public static <T> ApiResponse<T> scroll(Window<T> window) {
+        ApiResponse<T> response = new ApiResponse<>(window.getContent(), 0, -1, -1);
+        response.setHasNext(window.hasNext());
+        response.setNextCursor(KeysetCursor.nextCursor(window));
+        return response;
+    }
+
+    /**
+     * Страница результатов вместе со счетчиками фасетов каталога.
+     */
+    public static <T> ApiResponse<T> faceted(Page<T> page, Object facets) {
+        ApiResponse<T> response = new ApiResponse<>(page.getContent(), page.getNumber(),
+                page.getTotalPages(), page.getTotalElements());
+        response.setFacets(facets);
+        return response;
+    }
+
     public static <T> ApiResponse<T> success(T data) {
         ApiResponse<T> response = new ApiResponse<>();
         response.setSuccess(true);
@@ -94,12 +121,28 @@ public class ApiResponse<T> {
     public void setMessage(String message) {
         this.message = message;
     }
-}
-
-
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
 
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 
+    public Boolean getHasNext() {
+        return hasNext;
+    }
 
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
 
+    public Object getFacets() {
+        return facets;
+    }
 
+    public void setFacets(Object facets) {
+        this.facets = facets;
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.soratech.controller.api;
 
 import com.example.soratech.service.AsyncService;
+import com.example.soratech.task.TaskRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +20,9 @@ public class AsyncController {
     @Autowired
     private AsyncService asyncService;
 
+    @Autowired
+    private TaskRegistry taskRegistry;
+
     @Operation(
         summary = "Отправить email асинхронно",
         description = "Запускает отправку email в фоновом режиме. " +
@@ -30,14 +35,15 @@ public class AsyncController {
         String subject = emailData.get("subject");
         String body = emailData.get("body");
         
-        // Запускаем асинхронную операцию (результат не ждем)
-        asyncService.sendEmailAsync(to, subject, body);
+        // Запускаем асинхронную операцию (результат не ждем, его состояние - по taskId)
+        String taskId = taskRegistry.launch("email", id -> asyncService.sendEmailAsync(id, to, subject, body));
         
         // Сразу возвращаем ответ (не ждем завершения)
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Email отправляется в фоновом режиме");
         response.put("status", "processing");
+        response.put("taskId", taskId);
         response.put("to", to);
         
         return ResponseEntity.accepted().body(response);
@@ -51,8 +57,8 @@ public class AsyncController {
     @PostMapping("/process-order/{orderId}")
     public ResponseEntity<?> processOrder(@PathVariable Long orderId) {
         
-        // Запускаем асинхронную обработку (результат не ждем)
-        asyncService.processOrderAsync(orderId);
+        // Запускаем асинхронную обработку (результат не ждем, его состояние - по taskId)
+        String taskId = taskRegistry.launch("order", id -> asyncService.processOrderAsync(id, orderId));
         
         // Сразу возвращаем ответ
         Map<String, Object> response = new HashMap<>();
@@ -60,6 +66,7 @@ public class AsyncController {
         response.put("message", "Заказ принят в обработку");
         response.put("orderId", orderId);
         response.put("status", "processing");
+        response.put("taskId", taskId);
         
         return ResponseEntity.accepted().body(response);
     }
@@ -67,13 +74,15 @@ public class AsyncController {
     @Operation(
         summary = "Сгенерировать отчет асинхронно",
         description = "Запускает генерацию отчета в фоновом режиме. " +
-                     "Метод возвращает ответ немедленно, генерация происходит в отдельном потоке."
+                     "Метод возвращает ответ немедленно, генерация происходит в отдельном потоке. " +
+                     "reportType: day, week, month, year - сводка продаж за период; " +
+                     "rebuild - пересчет сводных таблиц продаж по всем заказам."
     )
     @GetMapping("/generate-report")
     public ResponseEntity<?> generateReport(@RequestParam String reportType) {
         
-        // Запускаем асинхронную генерацию (результат не ждем)
-        asyncService.generateReportAsync(reportType);
+        // Запускаем асинхронную генерацию (результат не ждем, прогресс - по taskId)
+        String taskId = taskRegistry.launch("report", id -> asyncService.generateReportAsync(id, reportType));
         
         // Сразу возвращаем ответ
         Map<String, Object> response = new HashMap<>();
@@ -81,25 +90,25 @@ public class AsyncController {
         response.put("message", "Отчет генерируется в фоновом режиме");
         response.put("reportType", reportType);
         response.put("status", "processing");
+        response.put("taskId", taskId);
         
         return ResponseEntity.accepted().body(response);
     }
     
     @Operation(
         summary = "Проверить статус асинхронной операции",
-        description = "В реальном проекте здесь была бы проверка статуса из Redis или БД"
+        description = "Состояние задачи по taskId из ответа запуска: QUEUED, RUNNING, DONE или FAILED, " +
+                     "процент выполнения и результат (или текст ошибки). 404 - задача неизвестна или уже удалена"
     )
     @GetMapping("/status/{taskId}")
     public ResponseEntity<?> checkStatus(@PathVariable String taskId) {
-        // В реальном проекте здесь была бы проверка статуса
-        // из Redis, БД или другого хранилища
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("taskId", taskId);
-        response.put("status", "completed");
-        response.put("result", "Операция успешно завершена");
-        
-        return ResponseEntity.ok(response);
+        return taskRegistry.find(taskId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "Задача не найдена: " + taskId);
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                });
     }
 }
-
@@ -0,0 +1,126 @@
+package com.example.soratech.controller.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Непрозрачный курсор для keyset-пагинации списков API.
+ * Токен хранит значения ключа сортировки и id последней записи страницы,
+ * поэтому следующая страница выбирается через WHERE (sortKey, id) > (...) без OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, List<String>>> KEYS_TYPE = new TypeReference<>() {};
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Преобразует параметр after в позицию прокрутки.
+     * Пустое значение означает первую страницу.
+     */
+    public static ScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            Map<String, List<String>> encoded = MAPPER.readValue(json, KEYS_TYPE);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            encoded.forEach((property, typed) -> keys.put(property, fromTyped(typed)));
+            return ScrollPosition.forward(keys);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор пагинации", e);
+        }
+    }
+
+    /**
+     * Кодирует позицию последнего элемента окна в токен для параметра after.
+     * Возвращает null, если следующей страницы нет.
+     */
+    public static String nextCursor(Window<?> window) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+        ScrollPosition position = window.positionAt(window.size() - 1);
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalStateException("Ожидалась keyset-позиция, получено: " + position);
+        }
+        return encode(keyset.getKeys());
+    }
+
+    static String encode(Map<String, ?> keys) {
+        Map<String, List<String>> encoded = new LinkedHashMap<>();
+        keys.forEach((property, value) -> encoded.put(property, toTyped(value)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MAPPER.writeValueAsString(encoded).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сформировать курсор", e);
+        }
+    }
+
+    /**
+     * Сортировка для keyset-режима: только прямые поля сущности,
+     * id добавляется последним ключом для однозначного порядка.
+     */
+    public static Sort sort(String sortBy, String sortDir) {
+        if (sortBy.contains(".")) {
+            throw new IllegalArgumentException("Сортировка по вложенному полю не поддерживается в режиме курсора: " + sortBy);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    private static List<String> toTyped(Object value) {
+        if (value == null) {
+            return List.of("N", "");
+        } else if (value instanceof Long l) {
+            return List.of("L", l.toString());
+        } else if (value instanceof Integer i) {
+            return List.of("I", i.toString());
+        } else if (value instanceof BigDecimal d) {
+            return List.of("D", d.toPlainString());
+        } else if (value instanceof LocalDateTime t) {
+            return List.of("T", t.toString());
+        } else if (value instanceof Boolean b) {
+            return List.of("B", b.toString());
+        } else if (value instanceof String s) {
+            return List.of("S", s);
+        }
+        throw new IllegalArgumentException("Неподдерживаемый тип ключа курсора: " + value.getClass().getSimpleName());
+    }
+
+    private static Object fromTyped(List<String> typed) {
+        if (typed == null || typed.size() != 2) {
+            throw new IllegalArgumentException("Некорректный ключ курсора");
+        }
+        String value = typed.get(1);
+        return switch (typed.get(0)) {
+            case "N" -> null;
+            case "L" -> Long.valueOf(value);
+            case "I" -> Integer.valueOf(value);
+            case "D" -> new BigDecimal(value);
+            case "T" -> LocalDateTime.parse(value);
+            case "B" -> Boolean.valueOf(value);
+            case "S" -> value;
+            default -> throw new IllegalArgumentException("Неизвестный тип ключа курсора: " + typed.get(0));
+        };
+    }
+}
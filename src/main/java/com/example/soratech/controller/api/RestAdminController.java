@@ -1,17 +1,27 @@
 package com.example.soratech.controller.api;
 
+import com.example.soratech.repository.projection.ProductRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.search.FacetedPage;
+import com.example.soratech.search.ProductFilter;
 import com.example.soratech.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Admin API", description = "REST API для панели администратора (требуется роль Администратор)")
 @SecurityRequirement(name = "bearerAuth")
@@ -28,6 +38,7 @@ public class RestAdminController {
     private final ProductService productService;
     private final OrderService orderService;
     private final ReviewService reviewService;
+    private final InventoryService inventoryService;
 
     public RestAdminController(UserService userService,
                                RoleService roleService,
@@ -37,7 +48,8 @@ public class RestAdminController {
                                ProductDetailsService productDetailsService,
                                ProductService productService,
                                OrderService orderService,
-                               ReviewService reviewService) {
+                               ReviewService reviewService,
+                               InventoryService inventoryService) {
         this.userService = userService;
         this.roleService = roleService;
         this.categoryService = categoryService;
@@ -47,6 +59,7 @@ public class RestAdminController {
         this.productService = productService;
         this.orderService = orderService;
         this.reviewService = reviewService;
+        this.inventoryService = inventoryService;
     }
 
     // Get single item by ID
@@ -54,15 +67,15 @@ public class RestAdminController {
     public ResponseEntity<?> getById(@PathVariable String entity, @PathVariable Long id) {
         try {
             Object result = switch (entity) {
-                case "users" -> userService.findById(id);
+                case "users" -> userService.findDetailedById(id);
                 case "roles" -> roleService.findById(id);
                 case "categories" -> categoryService.findById(id);
                 case "manufacturers" -> manufacturerService.findById(id);
                 case "suppliers" -> supplierService.findById(id);
-                case "productdetails" -> productDetailsService.findById(id);
-                case "products" -> productService.findById(id);
-                case "orders" -> orderService.findById(id);
-                case "reviews" -> reviewService.findById(id);
+                case "productdetails" -> productDetailsService.findDetailedById(id);
+                case "products" -> productService.findDetailedById(id);
+                case "orders" -> orderService.findDetailedById(id);
+                case "reviews" -> reviewService.findDetailedById(id);
                 default -> throw new IllegalArgumentException("Unknown entity: " + entity);
             };
             return ResponseEntity.ok(result);
@@ -76,29 +89,27 @@ public class RestAdminController {
     public ResponseEntity<?> getUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) String searchType,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String searchType,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = userService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = "email".equals(searchType) ? 
-                    userService.searchByEmail(query, pageable) : 
-                    userService.searchByName(query, pageable);
-            } else {
-                result = userService.findAllActive(pageable);
+            // Строка поиска панели: по email или по имени в зависимости от searchType
+            MultiValueMap<String, String> criteria = new LinkedMultiValueMap<>(filters);
+            if (query != null && !query.isEmpty()) {
+                criteria.add("email".equals(searchType) ? "email" : "name", query);
+            }
+            GridQuery grid = new GridQuery(criteria, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    userService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = userService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -115,26 +126,20 @@ public class RestAdminController {
     public ResponseEntity<?> getRoles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = roleService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = roleService.searchByName(query, pageable);
-            } else {
-                result = roleService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    roleService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = roleService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -151,26 +156,20 @@ public class RestAdminController {
     public ResponseEntity<?> getCategories(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = categoryService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = categoryService.searchByName(query, pageable);
-            } else {
-                result = categoryService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    categoryService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = categoryService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -187,29 +186,20 @@ public class RestAdminController {
     public ResponseEntity<?> getManufacturers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) String country,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = manufacturerService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = manufacturerService.searchByName(query, pageable);
-            } else if (country != null && !country.isEmpty()) {
-                result = manufacturerService.filterByCountry(country, pageable);
-            } else {
-                result = manufacturerService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    manufacturerService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = manufacturerService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -226,26 +216,20 @@ public class RestAdminController {
     public ResponseEntity<?> getSuppliers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = supplierService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = supplierService.searchByName(query, pageable);
-            } else {
-                result = supplierService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    supplierService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = supplierService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -262,29 +246,20 @@ public class RestAdminController {
     public ResponseEntity<?> getProductDetails(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) Long productId,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = productDetailsService.findAllDeleted(pageable);
-            } else if (productId != null) {
-                result = productDetailsService.findByProductId(productId, pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = productDetailsService.searchByCharacteristicName(query, pageable);
-            } else {
-                result = productDetailsService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    productDetailsService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = productDetailsService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -301,36 +276,30 @@ public class RestAdminController {
     public ResponseEntity<?> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long manufacturerId,
-            @RequestParam(required = false) BigDecimal minPrice,
-            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String query,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = productService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = productService.searchByName(query, pageable);
-            } else if (categoryId != null) {
-                result = productService.filterByCategory(categoryId, pageable);
-            } else if (manufacturerId != null) {
-                result = productService.filterByManufacturer(manufacturerId, pageable);
-            } else if (minPrice != null || maxPrice != null) {
-                result = productService.filterByPriceRange(minPrice, maxPrice, pageable);
-            } else {
-                result = productService.findAllActive(pageable);
+            // Строка поиска идет в полнотекстовый индекс с ранжированием по релевантности;
+            // сортировка из запроса применяется (и проверяется) только в запасном LIKE-запросе
+            boolean search = !deleted && query != null && !query.isEmpty();
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                ScrollPosition position = KeysetCursor.decode(after);
+                Limit limit = Limit.of(size);
+                Window<?> window = search
+                    ? productService.searchByName(query, grid, position, limit)
+                    : productService.findAll(grid, position, limit);
+                return ResponseEntity.ok(ApiResponse.scroll(window));
             }
             
+            Page<?> result = search
+                ? productService.searchByName(query, grid, PageRequest.of(page, size))
+                : productService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -342,34 +311,75 @@ public class RestAdminController {
         }
     }
 
+    /**
+     * Комбинированный фильтр каталога со счетчиками фасетов.
+     * Значения внутри измерения объединяются (ИЛИ), измерения пересекаются (И).
+     */
+    @GetMapping("/products/filter")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> manufacturerId,
+            @RequestParam(required = false) List<Long> supplierId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock) {
+
+        try {
+            ProductFilter filter = ProductFilter.of(categoryId, manufacturerId, supplierId, minPrice, maxPrice, inStock);
+            FacetedPage<ProductRow> result = productService.filter(filter, PageRequest.of(page, size));
+            return ResponseEntity.ok(ApiResponse.faceted(result.page(), result.facets()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/products/{id}/stock")
+    public ResponseEntity<?> getProductStock(@PathVariable Long id) {
+        try {
+            Map<String, Object> stock = new LinkedHashMap<>();
+            stock.put("productId", id);
+            stock.put("available", inventoryService.getAvailableStock(id));
+            stock.put("stripes", productService.findById(id).getStockStripes());
+            return ResponseEntity.ok(ApiResponse.success(stock));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Режим полос остатка для популярного товара",
+               description = "Делит остаток товара на stripes строк, чтобы одновременные заказы (распродажа) "
+                       + "не ждали блокировку одной строки; 0 - собрать остаток обратно")
+    @PutMapping("/products/{id}/stock-stripes")
+    public ResponseEntity<?> setStockStripes(@PathVariable Long id, @RequestParam int stripes) {
+        try {
+            inventoryService.setStockStripes(id, stripes);
+            return ResponseEntity.ok(ApiResponse.success("Режим остатка изменен"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // Orders
     @GetMapping("/orders")
     public ResponseEntity<?> getOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = orderService.findAllDeleted(pageable);
-            } else if (userId != null) {
-                result = orderService.findByUserId(userId, pageable);
-            } else if (status != null && !status.isEmpty()) {
-                result = orderService.findByStatus(status, pageable);
-            } else {
-                result = orderService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    orderService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = orderService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -386,32 +396,20 @@ public class RestAdminController {
     public ResponseEntity<?> getReviews(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Long productId,
-            @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) Integer rating,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = reviewService.findAllDeleted(pageable);
-            } else if (productId != null) {
-                result = reviewService.findByProductId(productId, pageable);
-            } else if (userId != null) {
-                result = reviewService.findByUserId(userId, pageable);
-            } else if (rating != null) {
-                result = reviewService.findByRating(rating, pageable);
-            } else {
-                result = reviewService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    reviewService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = reviewService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -559,6 +557,71 @@ public class RestAdminController {
         }
     }
     
+    // ==================== BULK (множественный выбор в таблице) ====================
+
+    @Operation(summary = "Массовое логическое удаление",
+               description = "Помечает удаленными записи из списка id (users, products, orders, reviews) " +
+                             "и возвращает число измененных записей")
+    @PostMapping("/{entity}/bulk/logic-delete")
+    public ResponseEntity<?> bulkLogicDelete(@PathVariable String entity, @RequestBody List<Long> ids) {
+        try {
+            int affected = switch (entity) {
+                case "users" -> userService.logicDeleteAllByIds(ids);
+                case "products" -> productService.logicDeleteAllByIds(ids);
+                case "orders" -> orderService.logicDeleteAllByIds(ids);
+                case "reviews" -> reviewService.logicDeleteAllByIds(ids);
+                default -> throw new IllegalArgumentException("Массовое удаление недоступно для: " + entity);
+            };
+            return ResponseEntity.ok(ApiResponse.success(bulkResult(ids, affected)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Массовое восстановление",
+               description = "Восстанавливает логически удаленные записи из списка id (users, products, orders, reviews)")
+    @PostMapping("/{entity}/bulk/restore")
+    public ResponseEntity<?> bulkRestore(@PathVariable String entity, @RequestBody List<Long> ids) {
+        try {
+            int affected = switch (entity) {
+                case "users" -> userService.restoreAllByIds(ids);
+                case "products" -> productService.restoreAllByIds(ids);
+                case "orders" -> orderService.restoreAllByIds(ids);
+                case "reviews" -> reviewService.restoreAllByIds(ids);
+                default -> throw new IllegalArgumentException("Массовое восстановление недоступно для: " + entity);
+            };
+            return ResponseEntity.ok(ApiResponse.success(bulkResult(ids, affected)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Массовое физическое удаление",
+               description = "Безвозвратно удаляет записи из списка id вместе с зависимыми, как при удалении по одной " +
+                             "(users, products, orders, reviews). Выполняется одной транзакцией")
+    @PostMapping("/{entity}/bulk/delete")
+    public ResponseEntity<?> bulkDelete(@PathVariable String entity, @RequestBody List<Long> ids) {
+        try {
+            int affected = switch (entity) {
+                case "users" -> userService.deleteAllByIds(ids);
+                case "products" -> productService.deleteAllByIds(ids);
+                case "orders" -> orderService.deleteAllByIds(ids);
+                case "reviews" -> reviewService.deleteAllByIds(ids);
+                default -> throw new IllegalArgumentException("Массовое удаление недоступно для: " + entity);
+            };
+            return ResponseEntity.ok(ApiResponse.success(bulkResult(ids, affected)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> bulkResult(List<Long> ids, int affected) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requested", ids.stream().distinct().count());
+        result.put("affected", affected);
+        return result;
+    }
+
     // ==================== Helper methods for CREATE ====================
     
     private Object createUser(java.util.Map<String, Object> data) {
@@ -671,7 +734,11 @@ public class RestAdminController {
     // ==================== Helper methods for UPDATE ====================
     
     private Object updateUser(Long id, java.util.Map<String, Object> data) {
-        com.example.soratech.model.User user = userService.findById(id);
+        // Изменения собираются в отдельном объекте: сервис сравнивает их с текущими значениями,
+        // чтобы отзывать JWT только при смене учётных данных
+        com.example.soratech.model.User current = userService.findById(id);
+        com.example.soratech.model.User user = new com.example.soratech.model.User();
+        user.setActive(current.isActive());
         user.setName((String) data.get("name"));
         user.setEmail((String) data.get("email"));
         user.setPhone((String) data.get("phone"));
@@ -689,7 +756,7 @@ public class RestAdminController {
         
         Long roleId = Long.valueOf(data.get("roleId").toString());
         userService.update(id, user, roleId);
-        return user;
+        return current;
     }
     
     private Object updateRole(Long id, java.util.Map<String, Object> data) {
@@ -731,7 +798,9 @@ public class RestAdminController {
     }
     
     private Object updateProduct(Long id, java.util.Map<String, Object> data) {
-        com.example.soratech.model.Product product = productService.findById(id);
+        // Новые значения - отдельным объектом: сервис применяет их к свежей версии записи
+        com.example.soratech.model.Product product = new com.example.soratech.model.Product();
+        product.setVersion(versionOf(data));
         product.setName((String) data.get("name"));
         product.setPrice(new BigDecimal(data.get("price").toString()));
         product.setStockQuantity(Integer.valueOf(data.get("stockQuantity").toString()));
@@ -742,7 +811,7 @@ public class RestAdminController {
             (java.util.List<Long>) data.get("supplierIds") : java.util.Collections.emptyList();
         
         productService.update(id, product, manufacturerId, categoryId, supplierIds);
-        return product;
+        return productService.findById(id);
     }
     
     private Object updateProductDetails(Long id, java.util.Map<String, Object> data) {
@@ -758,7 +827,8 @@ public class RestAdminController {
     }
     
     private Object updateOrder(Long id, java.util.Map<String, Object> data) {
-        com.example.soratech.model.Order order = orderService.findById(id);
+        com.example.soratech.model.Order order = new com.example.soratech.model.Order();
+        order.setVersion(versionOf(data));
         order.setStatus((String) data.get("status"));
         order.setTotalAmount(new BigDecimal(data.get("totalAmount").toString()));
         order.setDeliveryAddress((String) data.get("deliveryAddress"));
@@ -767,7 +837,7 @@ public class RestAdminController {
         order.setUser(userService.findById(userId));
         
         orderService.update(id, order);
-        return order;
+        return orderService.findById(id);
     }
     
     private Object updateReview(Long id, java.util.Map<String, Object> data) {
@@ -784,5 +854,9 @@ public class RestAdminController {
         reviewService.update(id, review);
         return review;
     }
-}
 
+    // Версия записи, которую видел клиент (необязательна): с ней параллельная правка дает конфликт
+    private static Long versionOf(java.util.Map<String, Object> data) {
+        return data.get("version") != null ? Long.valueOf(data.get("version").toString()) : null;
+    }
+}
@@ -4,16 +4,19 @@ import com.example.soratech.dto.JwtAuthenticationResponse;
 import com.example.soratech.dto.LoginRequest;
 import com.example.soratech.dto.RegisterRequest;
 import com.example.soratech.model.User;
-import com.example.soratech.model.Role;
-import com.example.soratech.repository.RoleRepository;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.security.AuthRateLimiter;
 import com.example.soratech.security.JwtTokenProvider;
+import com.example.soratech.security.JwtUserPrincipal;
+import com.example.soratech.security.TokenVersionService;
+import com.example.soratech.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -40,7 +43,7 @@ public class RestAuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private UserService userService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -48,14 +51,24 @@ public class RestAuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
     @Operation(summary = "Вход в систему", description = "Аутентификация пользователя и получение JWT токена")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Успешная аутентификация",
                     content = @Content(schema = @Schema(implementation = JwtAuthenticationResponse.class))),
-            @ApiResponse(responseCode = "401", description = "Неверные учетные данные")
+            @ApiResponse(responseCode = "401", description = "Неверные учетные данные"),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток входа")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
+        authRateLimiter.check(AuthRateLimiter.ACTION_LOGIN, request.getRemoteAddr(), loginRequest.getUsername());
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getUsername(),
@@ -64,11 +77,13 @@ public class RestAuthController {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
 
-        User user = userRepository.findByEmail(loginRequest.getUsername())
-                .orElseGet(() -> userRepository.findByPhone(loginRequest.getUsername())
-                        .orElse(null));
+        User user = userRepository.findByLogin(loginRequest.getUsername()).orElse(null);
+
+        // id и версия токенов в claims позволяют не загружать пользователя на каждый запрос
+        String jwt = user != null
+                ? tokenProvider.generateToken(authentication, user.getId(), user.getTokenVersion())
+                : tokenProvider.generateToken(authentication);
 
         String role = user != null && user.getRole() != null ? user.getRole().getName() : "Клиент";
 
@@ -78,10 +93,14 @@ public class RestAuthController {
     @Operation(summary = "Регистрация", description = "Регистрация нового пользователя")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Пользователь успешно зарегистрирован"),
-            @ApiResponse(responseCode = "400", description = "Некорректные данные или пользователь уже существует")
+            @ApiResponse(responseCode = "400", description = "Некорректные данные или пользователь уже существует"),
+            @ApiResponse(responseCode = "429", description = "Слишком много попыток регистрации")
     })
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest,
+                                          HttpServletRequest request) {
+        authRateLimiter.check(AuthRateLimiter.ACTION_REGISTER, request.getRemoteAddr(), registerRequest.getEmail());
+
         // Проверка существования пользователя
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             Map<String, String> error = new HashMap<>();
@@ -104,12 +123,8 @@ public class RestAuthController {
         user.setAddress(registerRequest.getAddress());
         user.setActive(true);
 
-        // Назначение роли "Клиент" по умолчанию
-        Role clientRole = roleRepository.findByName("Клиент")
-                .orElseThrow(() -> new RuntimeException("Роль 'Клиент' не найдена"));
-        user.setRole(clientRole);
-
-        userRepository.save(user);
+        // Роль "Клиент" по умолчанию; приветственное письмо - через outbox
+        userService.register(user);
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "Пользователь успешно зарегистрирован");
@@ -154,6 +169,11 @@ public class RestAuthController {
     })
     @PostMapping("/logout")
     public ResponseEntity<?> logout() {
+        // Выход по JWT отзывает все выданные пользователю токены
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            tokenVersionService.revokeAll(principal.getId());
+        }
         SecurityContextHolder.clearContext();
         Map<String, String> response = new HashMap<>();
         response.put("message", "Успешный выход из системы");
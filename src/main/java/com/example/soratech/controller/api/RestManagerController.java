@@ -1,18 +1,41 @@
 package com.example.soratech.controller.api;
 
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.exception.InsufficientStockException;
+import com.example.soratech.report.SalesReportService;
+import com.example.soratech.repository.projection.ProductRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.search.FacetedPage;
+import com.example.soratech.search.ProductFilter;
 import com.example.soratech.service.*;
+import com.example.soratech.transfer.ProductExportService;
+import com.example.soratech.transfer.ProductImportService;
+import com.example.soratech.transfer.ProductTransferFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Manager API", description = "REST API для панели менеджера (требуется роль Менеджер или Администратор)")
 @SecurityRequirement(name = "bearerAuth")
@@ -28,6 +51,9 @@ public class RestManagerController {
     private final CategoryService categoryService;
     private final ManufacturerService manufacturerService;
     private final UserService userService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final SalesReportService salesReportService;
 
     public RestManagerController(ProductDetailsService productDetailsService,
                                  ProductService productService,
@@ -35,7 +61,10 @@ public class RestManagerController {
                                  ReviewService reviewService,
                                  CategoryService categoryService,
                                  ManufacturerService manufacturerService,
-                                 UserService userService) {
+                                 UserService userService,
+                                 ProductImportService productImportService,
+                                 ProductExportService productExportService,
+                                 SalesReportService salesReportService) {
         this.productDetailsService = productDetailsService;
         this.productService = productService;
         this.orderService = orderService;
@@ -43,6 +72,9 @@ public class RestManagerController {
         this.categoryService = categoryService;
         this.manufacturerService = manufacturerService;
         this.userService = userService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.salesReportService = salesReportService;
     }
 
     // Get single item by ID
@@ -50,10 +82,10 @@ public class RestManagerController {
     public ResponseEntity<?> getById(@PathVariable String entity, @PathVariable Long id) {
         try {
             Object result = switch (entity) {
-                case "productdetails" -> productDetailsService.findById(id);
-                case "products" -> productService.findById(id);
-                case "orders" -> orderService.findById(id);
-                case "reviews" -> reviewService.findById(id);
+                case "productdetails" -> productDetailsService.findDetailedById(id);
+                case "products" -> productService.findDetailedById(id);
+                case "orders" -> orderService.findDetailedById(id);
+                case "reviews" -> reviewService.findDetailedById(id);
                 default -> throw new IllegalArgumentException("Unknown entity: " + entity);
             };
             return ResponseEntity.ok(result);
@@ -67,29 +99,20 @@ public class RestManagerController {
     public ResponseEntity<?> getProductDetails(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) Long productId,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = productDetailsService.findAllDeleted(pageable);
-            } else if (productId != null) {
-                result = productDetailsService.findByProductId(productId, pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = productDetailsService.searchByCharacteristicName(query, pageable);
-            } else {
-                result = productDetailsService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    productDetailsService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = productDetailsService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -106,30 +129,30 @@ public class RestManagerController {
     public ResponseEntity<?> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long manufacturerId,
-            @RequestParam(required = false) BigDecimal minPrice,
-            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String query,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = productService.findAllDeleted(pageable);
-            } else if (query != null && !query.isEmpty()) {
-                result = productService.searchByName(query, pageable);
-            } else {
-                result = productService.findAllActive(pageable);
+            // Строка поиска идет в полнотекстовый индекс с ранжированием по релевантности;
+            // сортировка из запроса применяется (и проверяется) только в запасном LIKE-запросе
+            boolean search = !deleted && query != null && !query.isEmpty();
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                ScrollPosition position = KeysetCursor.decode(after);
+                Limit limit = Limit.of(size);
+                Window<?> window = search
+                    ? productService.searchByName(query, grid, position, limit)
+                    : productService.findAll(grid, position, limit);
+                return ResponseEntity.ok(ApiResponse.scroll(window));
             }
             
+            Page<?> result = search
+                ? productService.searchByName(query, grid, PageRequest.of(page, size))
+                : productService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -141,34 +164,78 @@ public class RestManagerController {
         }
     }
 
+    /**
+     * Комбинированный фильтр каталога со счетчиками фасетов.
+     * Значения внутри измерения объединяются (ИЛИ), измерения пересекаются (И).
+     */
+    @GetMapping("/products/filter")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> manufacturerId,
+            @RequestParam(required = false) List<Long> supplierId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock) {
+
+        try {
+            ProductFilter filter = ProductFilter.of(categoryId, manufacturerId, supplierId, minPrice, maxPrice, inStock);
+            FacetedPage<ProductRow> result = productService.filter(filter, PageRequest.of(page, size));
+            return ResponseEntity.ok(ApiResponse.faceted(result.page(), result.facets()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Импорт прайс-листа",
+               description = "Тело запроса - CSV с заголовком (text/csv) или NDJSON (application/x-ndjson), " +
+                             "колонки/поля: id, name, price, stockQuantity, manufacturer, category, suppliers " +
+                             "(в CSV поставщики через |). Производитель, категория и поставщики задаются названиями. " +
+                             "Товар обновляется по id или по паре название + производитель, иначе создается. " +
+                             "Ответ - счетчики и ошибки по номерам записей")
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            InputStream body) {
+        try {
+            ProductTransferFormat format = ProductTransferFormat.of(contentType);
+            return ResponseEntity.ok(ApiResponse.success(productImportService.importProducts(body, format)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Выгрузка прайс-листа",
+               description = "Все неудаленные товары в формате импорта (csv или ndjson); ответ пишется потоком по мере чтения из БД")
+    @GetMapping("/products/export")
+    public void exportProducts(@RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        ProductTransferFormat transferFormat = ProductTransferFormat.of(format);
+        response.setContentType(transferFormat.mediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + transferFormat.extension() + "\"");
+        productExportService.exportProducts(transferFormat, response.getOutputStream());
+    }
+
     // Orders
     @GetMapping("/orders")
     public ResponseEntity<?> getOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = orderService.findAllDeleted(pageable);
-            } else if (userId != null) {
-                result = orderService.findByUserId(userId, pageable);
-            } else if (status != null && !status.isEmpty()) {
-                result = orderService.findByStatus(status, pageable);
-            } else {
-                result = orderService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    orderService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = orderService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -180,37 +247,43 @@ public class RestManagerController {
         }
     }
 
+    // Reports
+    @Operation(summary = "Отчет о продажах",
+               description = "Выручка по дням, категориям и производителям, лидеры продаж с оценками за период [from, to] " +
+                             "(по умолчанию последние 30 дней). Строится по сводным таблицам, а не по позициям заказов")
+    @GetMapping("/reports/sales")
+    public ResponseEntity<?> getSalesReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int top) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(29);
+            return ResponseEntity.ok(ApiResponse.success(salesReportService.build(start, end, top)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // Reviews
     @GetMapping("/reviews")
     public ResponseEntity<?> getReviews(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) Long productId,
-            @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) Integer rating,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(defaultValue = "false") boolean deleted) {
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) String after,
+            @RequestParam MultiValueMap<String, String> filters) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-                Sort.by(sortBy).descending() : 
-                Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
-            Page<?> result;
-            if (deleted) {
-                result = reviewService.findAllDeleted(pageable);
-            } else if (productId != null) {
-                result = reviewService.findByProductId(productId, pageable);
-            } else if (userId != null) {
-                result = reviewService.findByUserId(userId, pageable);
-            } else if (rating != null) {
-                result = reviewService.findByRating(rating, pageable);
-            } else {
-                result = reviewService.findAllActive(pageable);
+            GridQuery grid = new GridQuery(filters, deleted, sortBy, sortDir);
+            if (after != null) {
+                return ResponseEntity.ok(ApiResponse.scroll(
+                    reviewService.findAll(grid, KeysetCursor.decode(after), Limit.of(size))));
             }
             
+            Page<?> result = reviewService.findAll(grid, PageRequest.of(page, size));
             return ResponseEntity.ok(ApiResponse.success(
                 result.getContent(),
                 result.getNumber(),
@@ -293,6 +366,20 @@ public class RestManagerController {
         }
     }
     
+    @Operation(summary = "Оформить заказ из корзины",
+               description = "Цены позиций и сумма заказа считаются на сервере по текущим ценам, товар резервируется. " +
+                             "При нехватке товара - 409 Conflict, заказ не создается")
+    @PostMapping("/orders/checkout")
+    public ResponseEntity<?> checkout(@Valid @RequestBody CheckoutRequest request) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(orderService.checkout(request)));
+        } catch (InsufficientStockException e) {
+            throw e; // 409 из GlobalExceptionHandler
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     // ==================== UPDATE (PUT) ====================
     
     @Operation(summary = "Обновить запись",
@@ -338,6 +425,27 @@ public class RestManagerController {
         }
     }
     
+    @Operation(summary = "Массовое логическое удаление",
+               description = "Помечает удаленными товары, заказы или отзывы из списка id (множественный выбор в таблице) " +
+                             "и возвращает число измененных записей")
+    @PostMapping("/{entity}/bulk/logic-delete")
+    public ResponseEntity<?> bulkLogicDelete(@PathVariable String entity, @RequestBody List<Long> ids) {
+        try {
+            int affected = switch (entity) {
+                case "products" -> productService.logicDeleteAllByIds(ids);
+                case "orders" -> orderService.logicDeleteAllByIds(ids);
+                case "reviews" -> reviewService.logicDeleteAllByIds(ids);
+                default -> throw new IllegalArgumentException("Массовое удаление недоступно для: " + entity);
+            };
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requested", ids.stream().distinct().count());
+            result.put("affected", affected);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     // ==================== DELETE (Physical) ====================
     
     @Operation(summary = "Физическое удаление",
@@ -438,7 +546,9 @@ public class RestManagerController {
     // ==================== Helper methods for UPDATE ====================
     
     private Object updateProduct(Long id, java.util.Map<String, Object> data) {
-        com.example.soratech.model.Product product = productService.findById(id);
+        // Новые значения - отдельным объектом: сервис применяет их к свежей версии записи
+        com.example.soratech.model.Product product = new com.example.soratech.model.Product();
+        product.setVersion(versionOf(data));
         product.setName((String) data.get("name"));
         product.setPrice(new BigDecimal(data.get("price").toString()));
         product.setStockQuantity(Integer.valueOf(data.get("stockQuantity").toString()));
@@ -449,7 +559,7 @@ public class RestManagerController {
             (java.util.List<Long>) data.get("supplierIds") : java.util.Collections.emptyList();
         
         productService.update(id, product, manufacturerId, categoryId, supplierIds);
-        return product;
+        return productService.findById(id);
     }
     
     private Object updateProductDetails(Long id, java.util.Map<String, Object> data) {
@@ -465,7 +575,8 @@ public class RestManagerController {
     }
     
     private Object updateOrder(Long id, java.util.Map<String, Object> data) {
-        com.example.soratech.model.Order order = orderService.findById(id);
+        com.example.soratech.model.Order order = new com.example.soratech.model.Order();
+        order.setVersion(versionOf(data));
         order.setStatus((String) data.get("status"));
         order.setTotalAmount(new BigDecimal(data.get("totalAmount").toString()));
         order.setDeliveryAddress((String) data.get("deliveryAddress"));
@@ -474,7 +585,7 @@ public class RestManagerController {
         order.setUser(userService.findById(userId));
         
         orderService.update(id, order);
-        return order;
+        return orderService.findById(id);
     }
     
     private Object updateReview(Long id, java.util.Map<String, Object> data) {
@@ -491,5 +602,9 @@ public class RestManagerController {
         reviewService.update(id, review);
         return review;
     }
-}
 
+    // Версия записи, которую видел клиент (необязательна): с ней параллельная правка дает конфликт
+    private static Long versionOf(java.util.Map<String, Object> data) {
+        return data.get("version") != null ? Long.valueOf(data.get("version").toString()) : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.soratech.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Корзина для оформления заказа: цены и сумма считаются на сервере")
+public class CheckoutRequest {
+
+    @Schema(description = "ID покупателя", example = "1", required = true)
+    @NotNull(message = "Покупатель обязателен")
+    private Long userId;
+
+    @Schema(description = "Адрес доставки", example = "Москва, ул. Ленина, д. 1", required = true)
+    @NotBlank(message = "Адрес доставки не может быть пустым")
+    @Size(max = 500, message = "Адрес доставки не должен превышать 500 символов")
+    private String deliveryAddress;
+
+    @Schema(description = "Комментарий к заказу")
+    @Size(max = 1000, message = "Комментарий не должен превышать 1000 символов")
+    private String comment;
+
+    @Schema(description = "Позиции корзины", required = true)
+    @NotEmpty(message = "Корзина пуста")
+    @Valid
+    private List<Item> items = new ArrayList<>();
+
+    @Schema(description = "Позиция корзины")
+    public static class Item {
+
+        @Schema(description = "ID товара", example = "1", required = true)
+        @NotNull(message = "Товар обязателен")
+        private Long productId;
+
+        @Schema(description = "Количество", example = "2", required = true)
+        @NotNull(message = "Количество не может быть null")
+        @Positive(message = "Количество должно быть положительным числом")
+        private Integer quantity;
+
+        public Item() {
+        }
+
+        public Item(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+}
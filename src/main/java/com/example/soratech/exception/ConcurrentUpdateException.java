@@ -0,0 +1,12 @@
+package com.example.soratech.exception;
+
+/**
+ * Запись изменена параллельным запросом: версия, с которой работал клиент, устарела,
+ * или конфликт не удалось разрешить повторами.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.soratech.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final int requested;
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Недостаточно товара с ID " + productId + " на складе: запрошено " + requested);
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
@@ -14,13 +14,29 @@ import java.util.Set;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(name = "Order.detail",
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "items")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("role")),
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = {
+                        @NamedAttributeNode("manufacturer"),
+                        @NamedAttributeNode("category")
+                })
+        })
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
 
+    // Последовательность вместо IDENTITY: id известен до INSERT, и вставки идут пакетами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 20)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnoreProperties({"orders", "reviews", "roles", "password"})
     private User user;
@@ -57,6 +73,11 @@ public class Order {
     @Column(nullable = false)
     private boolean deleted = false;
 
+    // Оптимистическая блокировка: параллельное изменение той же записи не затирается молча
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Order() {
     }
 
@@ -140,5 +161,12 @@ public class Order {
     public void setDeleted(boolean deleted) {
         this.deleted = deleted;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -14,10 +14,18 @@ import java.util.Set;
 
 @Entity
 @Table(name = "product")
+@NamedEntityGraph(name = "Product.detail", attributeNodes = {
+        @NamedAttributeNode("manufacturer"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("details"),
+        @NamedAttributeNode("suppliers")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 20)
     private Long id;
 
     @NotBlank(message = "Название продукта не может быть пустым")
@@ -32,15 +40,22 @@ public class Product {
 
     @NotNull(message = "Количество на складе не может быть null")
     @PositiveOrZero(message = "Количество на складе не может быть отрицательным")
-    @Column(nullable = false)
+    // Свободный остаток. После создания товара меняется только атомарными UPDATE через InventoryService,
+    // поэтому при сохранении сущности не перезаписывается (иначе затирались бы параллельные резервы)
+    @Column(nullable = false, updatable = false)
     private Integer stockQuantity;
 
-    @ManyToOne
+    // Число полос остатка (0 - остаток в stockQuantity); у товара с полосами stockQuantity - периодически
+    // пересчитываемая сумма по product_stock_stripe, см. InventoryService
+    @Column(nullable = false, updatable = false)
+    private int stockStripes = 0;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manufacturer_id", nullable = false)
     @JsonIgnoreProperties({"products"})
     private Manufacturer manufacturer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     @JsonIgnoreProperties({"products"})
     private Category category;
@@ -69,6 +84,11 @@ public class Product {
     @Column(nullable = false)
     private boolean deleted = false;
 
+    // Оптимистическая блокировка: параллельное изменение той же записи не затирается молча
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Product() {
     }
 
@@ -105,6 +125,14 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    public int getStockStripes() {
+        return stockStripes;
+    }
+
+    public void setStockStripes(int stockStripes) {
+        this.stockStripes = stockStripes;
+    }
+
     public Manufacturer getManufacturer() {
         return manufacturer;
     }
@@ -160,5 +188,12 @@ public class Product {
     public void setDeleted(boolean deleted) {
         this.deleted = deleted;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
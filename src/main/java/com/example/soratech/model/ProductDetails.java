@@ -10,10 +10,11 @@ import jakarta.validation.constraints.Size;
 public class ProductDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_details_seq")
+    @SequenceGenerator(name = "product_details_seq", sequenceName = "product_details_seq", allocationSize = 20)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @JsonIgnoreProperties({"details", "category", "manufacturer", "suppliers", "orderItems", "reviews"})
     private Product product;
@@ -0,0 +1,67 @@
+package com.example.soratech.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Часть остатка популярного товара. Резерв списывает количество из одной случайной полосы,
+ * поэтому одновременные заказы одного товара блокируют разные строки.
+ */
+@Entity
+@Table(name = "product_stock_stripe")
+public class ProductStockStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_stock_stripe_seq")
+    @SequenceGenerator(name = "product_stock_stripe_seq", sequenceName = "product_stock_stripe_seq", allocationSize = 20)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer stripe;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    public ProductStockStripe() {
+    }
+
+    public ProductStockStripe(Long productId, Integer stripe, Integer quantity) {
+        this.productId = productId;
+        this.stripe = stripe;
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStripe() {
+        return stripe;
+    }
+
+    public void setStripe(Integer stripe) {
+        this.stripe = stripe;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -7,17 +7,30 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "review")
+@NamedEntityGraph(name = "Review.detail",
+        attributeNodes = {
+                @NamedAttributeNode(value = "product", subgraph = "product"),
+                @NamedAttributeNode(value = "user", subgraph = "user")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "product", attributeNodes = {
+                        @NamedAttributeNode("manufacturer"),
+                        @NamedAttributeNode("category")
+                }),
+                @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("role"))
+        })
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "review_seq", allocationSize = 20)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
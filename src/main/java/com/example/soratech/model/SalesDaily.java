@@ -0,0 +1,47 @@
+package com.example.soratech.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Итоги продаж за день. Строку меняет только SalesRollupService атомарными приращениями.
+ */
+@Entity
+@Table(name = "sales_daily")
+public class SalesDaily {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private int orderCount;
+
+    // Продано единиц товара
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    public SalesDaily() {
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
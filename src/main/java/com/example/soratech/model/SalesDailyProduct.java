@@ -0,0 +1,81 @@
+package com.example.soratech.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Продажи товара за день; категория и производитель берутся из товара при построении отчета.
+ */
+@Entity
+@Table(name = "sales_daily_product")
+@IdClass(SalesDailyProduct.Key.class)
+public class SalesDailyProduct {
+
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long productId;
+
+        public Key() {
+        }
+
+        public Key(LocalDate salesDate, Long productId) {
+            this.salesDate = salesDate;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(salesDate, key.salesDate) && Objects.equals(productId, key.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, productId);
+        }
+    }
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Заказов, в которых был товар
+    @Column(nullable = false)
+    private int orderCount;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    public SalesDailyProduct() {
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.soratech.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Вклад заказа в сводные таблицы продаж по одному товару - то, что уже учтено в sales_daily
+ * и sales_daily_product. Строки всегда создаются заново, поэтому новизна задается явно.
+ */
+@Entity
+@Table(name = "sales_rollup_line")
+@IdClass(SalesRollupLine.Key.class)
+public class SalesRollupLine implements Persistable<SalesRollupLine.Key> {
+
+    public static class Key implements Serializable {
+        private Long orderId;
+        private Long productId;
+
+        public Key() {
+        }
+
+        public Key(Long orderId, Long productId) {
+            this.orderId = orderId;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(orderId, key.orderId) && Objects.equals(productId, key.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderId, productId);
+        }
+    }
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Transient
+    private boolean isNew;
+
+    public SalesRollupLine() {
+    }
+
+    public SalesRollupLine(Long orderId, Long productId, LocalDate salesDate, long quantity, BigDecimal revenue) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.salesDate = salesDate;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(orderId, productId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,10 +14,18 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = "User.profile",
+        attributeNodes = {
+                @NamedAttributeNode("role"),
+                @NamedAttributeNode(value = "reviews", subgraph = "reviews")
+        },
+        subgraphs = @NamedSubgraph(name = "reviews", attributeNodes = @NamedAttributeNode("product")))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 20)
     private Long id;
 
     @NotBlank(message = "Email не может быть пустым")
@@ -31,7 +40,7 @@ public class User {
 
     @NotBlank(message = "Телефон не может быть пустым")
     @Pattern(regexp = "^\\+?[0-9]{10,15}$", message = "Некорректный формат телефона")
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String phone;
 
     @Column(nullable = false)
@@ -40,7 +49,7 @@ public class User {
     @Column(length = 500)
     private String address;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "role_id")
     @JsonIgnoreProperties({"users"})
     private Role role;
@@ -65,6 +74,11 @@ public class User {
     @Column(nullable = false)
     private boolean deleted = false;
 
+    // Версия токенов: увеличение отзывает все ранее выданные JWT пользователя
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int tokenVersion = 0;
+
     public User() {
     }
 
@@ -165,6 +179,14 @@ public class User {
         this.deleted = deleted;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public String getAddress() {
         return address;
     }
@@ -0,0 +1,41 @@
+package com.example.soratech.notification;
+
+import com.example.soratech.service.DownstreamLimiter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Заглушка провайдера: уведомления выводятся в консоль, задержка ответа провайдера имитируется
+ * паузой на пачку (а не на каждое сообщение). Замените реализацией NotificationTransport
+ * для реального почтового/SMS-шлюза.
+ */
+@Component
+public class LoggingNotificationTransport implements NotificationTransport {
+
+    private final DownstreamLimiter downstreamLimiter;
+
+    public LoggingNotificationTransport(DownstreamLimiter downstreamLimiter) {
+        this.downstreamLimiter = downstreamLimiter;
+    }
+
+    @Override
+    public void send(Notification.Channel channel, List<Notification> batch) {
+        System.out.println("Отправка пачки " + channel + " из " + batch.size() + " уведомлений");
+        for (Notification notification : batch) {
+            System.out.println("  -> " + notification.recipient()
+                    + (notification.subject() != null ? " [" + notification.subject() + "]" : "")
+                    + ": " + notification.message());
+        }
+        try {
+            if (channel == Notification.Channel.EMAIL) {
+                downstreamLimiter.run(DownstreamLimiter.Downstream.EMAIL, () -> Thread.sleep(2000));
+            } else {
+                downstreamLimiter.run(DownstreamLimiter.Downstream.SMS, () -> Thread.sleep(1500));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Отправка прервана");
+        }
+    }
+}
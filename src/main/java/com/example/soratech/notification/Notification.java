@@ -0,0 +1,11 @@
+package com.example.soratech.notification;
+
+/**
+ * Уведомление получателю: email (subject - тема письма) или SMS (subject не используется).
+ */
+public record Notification(Channel channel, String recipient, String subject, String message) {
+
+    public enum Channel {
+        EMAIL, SMS
+    }
+}
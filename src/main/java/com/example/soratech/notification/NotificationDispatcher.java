@@ -0,0 +1,247 @@
+package com.example.soratech.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь исходящих уведомлений с пакетной отправкой.
+ * <p>
+ * Отправители (любые потоки) только кладут уведомление в ограниченную очередь; один поток-диспетчер
+ * собирает пачку - до app.notifications.batch-size уведомлений или пока не истечет app.notifications.window
+ * с первого из них, - объединяет уведомления одному получателю по одному каналу в одно сообщение
+ * и передает пачку NotificationTransport. Неудачная отправка повторяется с экспоненциальной паузой
+ * (app.notifications.initial-backoff, удваивается до max-backoff), всего max-attempts попыток.
+ * <p>
+ * Метрики: notifications.queue.depth, notifications.flush (время отправки пачки с повторами, теги
+ * channel и outcome), notifications.sent, notifications.coalesced, notifications.rejected.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationTransport transport;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration window;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Notification.Channel, Counter> sent = new EnumMap<>(Notification.Channel.class);
+    private final Counter coalesced;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationDispatcher(NotificationTransport transport,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.notifications.batch-size:100}") int batchSize,
+                                  @Value("${app.notifications.window:200ms}") Duration window,
+                                  @Value("${app.notifications.max-attempts:5}") int maxAttempts,
+                                  @Value("${app.notifications.initial-backoff:200ms}") Duration initialBackoff,
+                                  @Value("${app.notifications.max-backoff:10s}") Duration maxBackoff) {
+        this.transport = transport;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.window = window;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.meterRegistry = meterRegistry;
+        for (Notification.Channel channel : Notification.Channel.values()) {
+            sent.put(channel, Counter.builder("notifications.sent")
+                    .tag("channel", channel.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.coalesced = Counter.builder("notifications.coalesced").register(meterRegistry);
+        this.rejected = Counter.builder("notifications.rejected").register(meterRegistry);
+        Gauge.builder("notifications.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Ставит уведомление в очередь и сразу возвращает управление.
+     *
+     * @return future с true после доставки, false - если очередь переполнена или все попытки неудачны
+     */
+    public CompletableFuture<Boolean> enqueue(Notification notification) {
+        Pending pending = new Pending(notification);
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        return pending.futures.get(0);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::dispatchLoop, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Останавливает прием и отправляет то, что уже в очереди (не дольше 30 секунд).
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        if (worker.isAlive()) {
+            worker.interrupt();
+            worker.join();
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Pending> buffer = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                buffer.add(first);
+                collectWindow(buffer);
+                dispatch(buffer);
+                buffer.clear();
+            }
+        } catch (InterruptedException e) {
+            // Остановка не дождалась отправки: недоставленные уведомления завершаются неудачей
+            buffer.forEach(pending -> pending.complete(false));
+            for (Pending pending; (pending = queue.poll()) != null; ) {
+                pending.complete(false);
+            }
+        }
+    }
+
+    private void collectWindow(List<Pending> buffer) throws InterruptedException {
+        long deadline = System.nanoTime() + window.toNanos();
+        while (buffer.size() < batchSize) {
+            queue.drainTo(buffer, batchSize - buffer.size());
+            long remaining = deadline - System.nanoTime();
+            if (buffer.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            buffer.add(next);
+        }
+    }
+
+    private void dispatch(List<Pending> buffer) throws InterruptedException {
+        // Уведомления одному получателю по одному каналу за окно уходят одним сообщением
+        Map<Key, Pending> merged = new LinkedHashMap<>();
+        for (Pending pending : buffer) {
+            merged.merge(new Key(pending.notification), pending, Pending::merge);
+        }
+        coalesced.increment(buffer.size() - merged.size());
+
+        Map<Notification.Channel, List<Pending>> byChannel = new EnumMap<>(Notification.Channel.class);
+        for (Pending pending : merged.values()) {
+            byChannel.computeIfAbsent(pending.notification.channel(), channel -> new ArrayList<>()).add(pending);
+        }
+        for (Map.Entry<Notification.Channel, List<Pending>> entry : byChannel.entrySet()) {
+            deliver(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void deliver(Notification.Channel channel, List<Pending> batch) throws InterruptedException {
+        List<Notification> notifications = batch.stream().map(pending -> pending.notification).toList();
+        long start = System.nanoTime();
+        Duration backoff = initialBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transport.send(channel, notifications);
+                record(channel, "success", start);
+                sent.get(channel).increment(notifications.size());
+                batch.forEach(pending -> pending.complete(true));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    System.err.println("Пачка " + channel + " из " + notifications.size()
+                            + " уведомлений не отправлена после " + attempt + " попыток: " + e.getMessage());
+                    record(channel, "failure", start);
+                    batch.forEach(pending -> pending.complete(false));
+                    return;
+                }
+            }
+            Thread.sleep(backoff.toMillis());
+            Duration doubled = backoff.multipliedBy(2);
+            backoff = doubled.compareTo(maxBackoff) > 0 ? maxBackoff : doubled;
+        }
+    }
+
+    private void record(Notification.Channel channel, String outcome, long start) {
+        Timer.builder("notifications.flush")
+                .tag("channel", channel.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private record Key(Notification.Channel channel, String recipient) {
+        Key(Notification notification) {
+            this(notification.channel(), notification.recipient());
+        }
+    }
+
+    /**
+     * Уведомление в очереди и ожидающие его отправители (после объединения - несколько).
+     */
+    private static final class Pending {
+        private Notification notification;
+        private final List<CompletableFuture<Boolean>> futures = new ArrayList<>(1);
+
+        Pending(Notification notification) {
+            this.notification = notification;
+            this.futures.add(new CompletableFuture<>());
+        }
+
+        Pending merge(Pending other) {
+            Notification first = notification;
+            Notification second = other.notification;
+            String subject = Objects.equals(first.subject(), second.subject()) ? first.subject() : "Уведомления";
+            notification = new Notification(first.channel(), first.recipient(), subject,
+                    first.message() + "\n\n" + second.message());
+            futures.addAll(other.futures);
+            return this;
+        }
+
+        void complete(boolean delivered) {
+            futures.forEach(future -> future.complete(delivered));
+        }
+    }
+}
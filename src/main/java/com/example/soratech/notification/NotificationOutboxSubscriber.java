@@ -0,0 +1,78 @@
+package com.example.soratech.notification;
+
+import com.example.soratech.model.OutboxEvent;
+import com.example.soratech.outbox.OutboxService;
+import com.example.soratech.outbox.OutboxSubscriber;
+import com.example.soratech.repository.OrderRepository;
+import com.example.soratech.service.NotificationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Письма покупателю по событиям заказа и регистрации. Письма ставятся в очередь NotificationDispatcher
+ * сразу для всей пачки событий релея, а событие считается обработанным только после того, как транспорт
+ * принял письмо. Переполненная очередь и исчерпанные попытки отправки оставляют событие для повтора.
+ */
+@Component
+public class NotificationOutboxSubscriber implements OutboxSubscriber {
+
+    private static final CompletableFuture<Void> NOTHING = CompletableFuture.completedFuture(null);
+
+    private final NotificationService notificationService;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public NotificationOutboxSubscriber(NotificationService notificationService,
+                                        OrderRepository orderRepository,
+                                        ObjectMapper objectMapper) {
+        this.notificationService = notificationService;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        handleAsync(event).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> handleAsync(OutboxEvent event) {
+        JsonNode payload = read(event);
+        return switch (event.getEventType()) {
+            case OutboxService.ORDER_CREATED -> orderRepository.findUserEmailById(event.getAggregateId())
+                    .map(email -> send(email, "Заказ #" + event.getAggregateId() + " оформлен",
+                            "Ваш заказ #" + event.getAggregateId() + " на сумму " + payload.path("totalAmount").asText()
+                                    + " принят и ожидает подтверждения."))
+                    .orElse(NOTHING);
+            case OutboxService.ORDER_STATUS_CHANGED -> orderRepository.findUserEmailById(event.getAggregateId())
+                    .map(email -> send(email, "Заказ #" + event.getAggregateId(),
+                            "Статус заказа изменен: " + payload.path("status").asText()))
+                    .orElse(NOTHING);
+            case OutboxService.USER_REGISTERED -> send(payload.path("email").asText(), "Добро пожаловать в SoraTech",
+                    "Здравствуйте, " + payload.path("name").asText() + "! Регистрация прошла успешно.");
+            // Событие не для уведомлений
+            default -> NOTHING;
+        };
+    }
+
+    private CompletableFuture<Void> send(String email, String subject, String message) {
+        return notificationService.sendEmailNotification(email, subject, message).thenAccept(delivered -> {
+            if (!delivered) {
+                throw new IllegalStateException("Письмо " + email + " не отправлено: очередь уведомлений "
+                        + "переполнена или исчерпаны попытки отправки");
+            }
+        });
+    }
+
+    private JsonNode read(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Некорректные данные события " + event.getId(), e);
+        }
+    }
+}
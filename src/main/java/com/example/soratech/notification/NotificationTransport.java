@@ -0,0 +1,12 @@
+package com.example.soratech.notification;
+
+import java.util.List;
+
+/**
+ * Доставка пачки уведомлений одного канала одним обращением к провайдеру (пакетный API почты/SMS).
+ * Исключение означает, что пачка не доставлена: NotificationDispatcher повторит ее целиком.
+ */
+public interface NotificationTransport {
+
+    void send(Notification.Channel channel, List<Notification> batch);
+}
@@ -0,0 +1,164 @@
+package com.example.soratech.outbox;
+
+import com.example.soratech.model.OutboxEvent;
+import com.example.soratech.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Доставка событий outbox подписчикам по расписанию (app.outbox.poll-interval), не в потоке запроса.
+ * <p>
+ * Пачка из app.outbox.batch-size событий забирается короткой транзакцией: строки блокируются
+ * с SKIP LOCKED и сдвигаются на время аренды (app.outbox.lease), поэтому параллельный релей их
+ * не возьмет, а после падения приложения они вернутся в очередь сами. Подписчики вызываются вне
+ * транзакции, итог (доставлено или пауза до следующей попытки) записывается второй транзакцией.
+ * Асинхронные подписчики запускаются для всей пачки сразу, затем релей ждет их результатов
+ * не дольше app.outbox.handler-timeout; не завершившиеся за это время события повторяются.
+ * После app.outbox.max-attempts неудачных попыток событие получает статус FAILED.
+ */
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final Duration handlerTimeout;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.lease:1m}") Duration lease,
+                       @Value("${app.outbox.initial-backoff:1s}") Duration initialBackoff,
+                       @Value("${app.outbox.max-backoff:5m}") Duration maxBackoff,
+                       @Value("${app.outbox.retention:7d}") Duration retention,
+                       @Value("${app.outbox.handler-timeout:30s}") Duration handlerTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.handlerTimeout = handlerTimeout;
+    }
+
+    /**
+     * Доставляет готовые события пачками, пока они есть.
+     *
+     * @return число обработанных событий (доставленных и неудачных)
+     */
+    @Scheduled(initialDelayString = "${app.outbox.poll-interval:1s}", fixedDelayString = "${app.outbox.poll-interval:1s}")
+    public int relay() {
+        int total = 0;
+        while (true) {
+            int relayed = relayBatch();
+            total += relayed;
+            if (relayed < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Удаляет доставленные события старше app.outbox.retention.
+     */
+    @Scheduled(initialDelayString = "${app.outbox.sweep-interval:1h}", fixedDelayString = "${app.outbox.sweep-interval:1h}")
+    public int purgeProcessed() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        return transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(before));
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> locked = outboxEventRepository.lockPending(now, batchSize);
+            locked.forEach(event -> event.setNextAttemptAt(now.plus(lease)));
+            return locked;
+        });
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> delivered = new ArrayList<>(events.size());
+        List<OutboxEvent> failed = new ArrayList<>();
+        Map<OutboxEvent, CompletableFuture<Void>> handling = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            try {
+                List<CompletableFuture<Void>> results = new ArrayList<>(subscribers.size());
+                for (OutboxSubscriber subscriber : subscribers) {
+                    results.add(subscriber.handleAsync(event));
+                }
+                handling.put(event, CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)));
+            } catch (RuntimeException e) {
+                failed.add(withError(event, e));
+            }
+        }
+
+        long deadline = System.nanoTime() + handlerTimeout.toNanos();
+        for (Map.Entry<OutboxEvent, CompletableFuture<Void>> entry : handling.entrySet()) {
+            OutboxEvent event = entry.getKey();
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(event.getId());
+            } catch (ExecutionException e) {
+                failed.add(withError(event, e.getCause()));
+            } catch (TimeoutException e) {
+                failed.add(withError(event, new IllegalStateException(
+                        "Обработка не завершилась за " + handlerTimeout.toMillis() + " мс")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.add(withError(event, e));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markProcessed(delivered, now);
+            }
+            for (OutboxEvent event : failed) {
+                int attempts = event.getAttempts() + 1;
+                OutboxEvent.Status next = attempts >= maxAttempts ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING;
+                outboxEventRepository.markFailedAttempt(event.getId(), next, attempts,
+                        now.plus(backoff(attempts)), event.getLastError());
+            }
+        });
+        return events.size();
+    }
+
+    private static OutboxEvent withError(OutboxEvent event, Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        return event;
+    }
+
+    // Пауза перед повтором: initial-backoff, затем вдвое больше после каждой неудачи, не больше max-backoff
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 || backoff.isNegative() ? maxBackoff : backoff;
+    }
+}
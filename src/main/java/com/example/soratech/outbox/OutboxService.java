@@ -0,0 +1,46 @@
+package com.example.soratech.outbox;
+
+import com.example.soratech.model.OutboxEvent;
+import com.example.soratech.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Запись событий в outbox. Только внутри транзакции бизнес-операции: событие сохраняется
+ * вместе с изменением или откатывается вместе с ним.
+ */
+@Service
+public class OutboxService {
+
+    public static final String ORDER = "order";
+    public static final String USER = "user";
+
+    public static final String ORDER_CREATED = "OrderCreated";
+    public static final String ORDER_STATUS_CHANGED = "OrderStatusChanged";
+    // Изменились позиции заказа, заказ удален или восстановлен (без данных: подписчик читает заказ сам)
+    public static final String ORDER_CHANGED = "OrderChanged";
+    public static final String USER_REGISTERED = "UserRegistered";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, String eventType, Map<String, ?> payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Данные события " + eventType + " не сериализуются в JSON", e);
+        }
+    }
+}
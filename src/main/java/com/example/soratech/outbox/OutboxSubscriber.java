@@ -0,0 +1,26 @@
+package com.example.soratech.outbox;
+
+import com.example.soratech.model.OutboxEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Получатель событий outbox внутри приложения. Вызывается после коммита изменения в потоке OutboxRelay,
+ * вне транзакции релея. Доставка - не менее одного раза: после ошибки любого подписчика или сбоя
+ * приложения событие повторяется для всех подписчиков, поэтому обработка должна переносить повтор.
+ * Исключение означает, что событие не обработано.
+ */
+public interface OutboxSubscriber {
+
+    void handle(OutboxEvent event);
+
+    /**
+     * Обработка, завершение которой наступает позже вызова (например, доставка письма очередью).
+     * Релей сначала вызывает этот метод для всей пачки, затем ждет результатов не дольше
+     * app.outbox.handler-timeout; событие обработано, только если future завершился успешно.
+     */
+    default CompletableFuture<Void> handleAsync(OutboxEvent event) {
+        handle(event);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.soratech.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отчет о продажах за период [from, to] включительно.
+ *
+ * @param averageOrderValue средний чек; 0, если заказов не было
+ */
+public record SalesReport(LocalDate from, LocalDate to, long orderCount, long quantity, BigDecimal revenue,
+                          BigDecimal averageOrderValue, List<Day> byDay, List<Group> byCategory,
+                          List<Group> byManufacturer, List<TopProduct> topProducts) {
+
+    public record Day(LocalDate date, int orderCount, long quantity, BigDecimal revenue) {
+    }
+
+    public record Group(Long id, String name, long quantity, BigDecimal revenue) {
+    }
+
+    /**
+     * @param averageRating средняя оценка по отзывам; null - отзывов нет
+     */
+    public record TopProduct(Long productId, String name, long quantity, BigDecimal revenue,
+                             Double averageRating, long reviewCount) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.soratech.report;
+
+import com.example.soratech.repository.ReviewRepository;
+import com.example.soratech.repository.SalesDailyProductRepository;
+import com.example.soratech.repository.SalesDailyRepository;
+import com.example.soratech.repository.projection.ProductRatingRow;
+import com.example.soratech.repository.projection.SalesGroupRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Отчеты о продажах строятся только по сводным таблицам (SalesRollupService): число читаемых строк
+ * зависит от длины периода и числа проданных товаров, а не от числа позиций заказов.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SalesReportService {
+
+    static final int MAX_TOP = 100;
+
+    private final SalesDailyRepository dailyRepository;
+    private final SalesDailyProductRepository dailyProductRepository;
+    private final ReviewRepository reviewRepository;
+    private final int defaultTop;
+
+    public SalesReportService(SalesDailyRepository dailyRepository,
+                              SalesDailyProductRepository dailyProductRepository,
+                              ReviewRepository reviewRepository,
+                              @Value("${app.reports.top:10}") int defaultTop) {
+        this.dailyRepository = dailyRepository;
+        this.dailyProductRepository = dailyProductRepository;
+        this.reviewRepository = reviewRepository;
+        this.defaultTop = defaultTop;
+    }
+
+    public SalesReport build(LocalDate from, LocalDate to, int top) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Некорректный период отчета: " + from + " - " + to);
+        }
+        if (top < 1 || top > MAX_TOP) {
+            throw new IllegalArgumentException("Число товаров в отчете должно быть от 1 до " + MAX_TOP);
+        }
+
+        List<SalesReport.Day> days = dailyRepository
+                .findBySalesDateBetweenAndOrderCountGreaterThanOrderBySalesDate(from, to, 0).stream()
+                .map(d -> new SalesReport.Day(d.getSalesDate(), d.getOrderCount(), d.getQuantity(), d.getRevenue()))
+                .toList();
+        long orderCount = days.stream().mapToLong(SalesReport.Day::orderCount).sum();
+        long quantity = days.stream().mapToLong(SalesReport.Day::quantity).sum();
+        BigDecimal revenue = days.stream().map(SalesReport.Day::revenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal averageOrderValue = orderCount == 0 ? BigDecimal.ZERO
+                : revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+
+        List<SalesGroupRow> topRows = dailyProductRepository.findTopProducts(from, to, PageRequest.of(0, top));
+        Map<Long, ProductRatingRow> ratings = topRows.isEmpty() ? Map.of()
+                : reviewRepository.findRatingsByProductIdIn(topRows.stream().map(SalesGroupRow::getId).toList()).stream()
+                        .collect(Collectors.toMap(ProductRatingRow::getProductId, Function.identity()));
+        List<SalesReport.TopProduct> topProducts = topRows.stream()
+                .map(row -> {
+                    ProductRatingRow rating = ratings.get(row.getId());
+                    return new SalesReport.TopProduct(row.getId(), row.getName(), row.getQuantity(), row.getRevenue(),
+                            rating != null ? rating.getAverageRating() : null,
+                            rating != null ? rating.getReviewCount() : 0);
+                })
+                .toList();
+
+        return new SalesReport(from, to, orderCount, quantity, revenue, averageOrderValue, days,
+                groups(dailyProductRepository.sumByCategory(from, to)),
+                groups(dailyProductRepository.sumByManufacturer(from, to)),
+                topProducts);
+    }
+
+    /**
+     * Отчет за последние дни, включая сегодняшний: day, week (7 дней), month (30) или year (365).
+     */
+    public SalesReport buildForPeriod(String period) {
+        LocalDate today = LocalDate.now();
+        return build(today.minusDays(periodDays(period) - 1), today, defaultTop);
+    }
+
+    /**
+     * Краткое содержание отчета для результата фоновой задачи.
+     */
+    public String summarize(SalesReport report) {
+        StringBuilder summary = new StringBuilder()
+                .append("Продажи ").append(report.from()).append(" - ").append(report.to())
+                .append(": заказов ").append(report.orderCount())
+                .append(", товаров ").append(report.quantity())
+                .append(", выручка ").append(report.revenue())
+                .append(", средний чек ").append(report.averageOrderValue());
+        if (!report.topProducts().isEmpty()) {
+            SalesReport.TopProduct leader = report.topProducts().get(0);
+            summary.append(", лидер продаж: ").append(leader.name())
+                    .append(" (").append(leader.revenue()).append(")");
+        }
+        return summary.toString();
+    }
+
+    static int periodDays(String period) {
+        return switch (period == null ? "" : period.trim().toLowerCase()) {
+            case "day" -> 1;
+            case "week" -> 7;
+            case "month" -> 30;
+            case "year" -> 365;
+            default -> throw new IllegalArgumentException("Неизвестный период отчета: " + period
+                    + " (допустимо day, week, month, year)");
+        };
+    }
+
+    private static List<SalesReport.Group> groups(List<SalesGroupRow> rows) {
+        return rows.stream()
+                .map(row -> new SalesReport.Group(row.getId(), row.getName(), row.getQuantity(), row.getRevenue()))
+                .toList();
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.soratech.report;
+
+import com.example.soratech.model.Order;
+import com.example.soratech.model.SalesRollupLine;
+import com.example.soratech.repository.OrderItemRepository;
+import com.example.soratech.repository.OrderRepository;
+import com.example.soratech.repository.SalesDailyProductRepository;
+import com.example.soratech.repository.SalesDailyRepository;
+import com.example.soratech.repository.SalesRollupLineRepository;
+import com.example.soratech.repository.projection.OrderItemSalesRow;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Сводные таблицы продаж (sales_daily, sales_daily_product). Заказ учитывается в день создания,
+ * если он не удален и не отменен. Пересчет заказа сравнивает его текущие позиции с уже учтенным
+ * вкладом (sales_rollup_line) и вносит в сводные таблицы только разницу, поэтому повторный
+ * пересчет того же заказа ничего не меняет.
+ */
+@Service
+public class SalesRollupService {
+
+    // Отмененный заказ в продажи не входит (тот же статус, что у InventoryServiceImpl)
+    static final String STATUS_CANCELLED = "CANCELLED";
+    private static final int MERGE_ATTEMPTS = 3;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final SalesRollupLineRepository lineRepository;
+    private final SalesDailyRepository dailyRepository;
+    private final SalesDailyProductRepository dailyProductRepository;
+    private final TransactionTemplate transactionTemplate;
+    // H2 (тесты) не поддерживает ON CONFLICT ... DO UPDATE, для него приращения идут через MERGE
+    private final boolean merge;
+    private final int batchSize;
+
+    public SalesRollupService(OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              SalesRollupLineRepository lineRepository,
+                              SalesDailyRepository dailyRepository,
+                              SalesDailyProductRepository dailyProductRepository,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              @Value("${app.reports.rebuild-batch-size:200}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.lineRepository = lineRepository;
+        this.dailyRepository = dailyRepository;
+        this.dailyProductRepository = dailyProductRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.merge = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof H2Dialect;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Приводит вклад заказа в сводные таблицы к его текущему состоянию.
+     *
+     * @return true, если сводные таблицы изменились
+     */
+    public boolean refreshOrder(Long orderId) {
+        return Boolean.TRUE.equals(inTransaction(() -> applyOrder(orderId)));
+    }
+
+    /**
+     * Пересчитывает все заказы порциями по app.reports.rebuild-batch-size, каждая порция - своя транзакция.
+     * Нужен один раз для заказов, созданных до появления сводных таблиц; на учтенных заказах ничего не меняет.
+     *
+     * @param progress получает процент пройденных заказов
+     * @return число заказов, вклад которых изменился
+     */
+    public int rebuild(IntConsumer progress) {
+        long total = Math.max(1, orderRepository.count());
+        long seen = 0;
+        int changed = 0;
+        Long after = 0L;
+        while (true) {
+            List<Long> ids = orderRepository.findIdsAfter(after, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return changed;
+            }
+            Integer chunkChanged = inTransaction(() -> {
+                int count = 0;
+                for (Long id : ids) {
+                    count += applyOrder(id) ? 1 : 0;
+                }
+                return count;
+            });
+            changed += chunkChanged != null ? chunkChanged : 0;
+            seen += ids.size();
+            after = ids.get(ids.size() - 1);
+            progress.accept((int) Math.min(99, seen * 100 / total));
+        }
+    }
+
+    /**
+     * На PostgreSQL вставка с приращением (ON CONFLICT) не конфликтует с параллельными пересчетами.
+     * MERGE в H2 не атомарен: одновременная первая вставка строки дня нарушает первичный ключ,
+     * и транзакция повторяется - при повторе строка уже есть. Ошибка не уходит в OutboxRelay,
+     * иначе событие заказа повторно получили бы и остальные подписчики (письмо покупателю).
+     */
+    private <T> T inTransaction(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (DataIntegrityViolationException e) {
+                if (!merge || attempt == MERGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean applyOrder(Long orderId) {
+        // Блокировка строки заказа выстраивает пересчеты одного заказа по очереди; у удаленного заказа
+        // блокируются строки учтенного вклада. Пересчеты разных заказов пишут в общие строки дня
+        // приращениями с вставкой в том же операторе, поэтому не конфликтуют между собой
+        Optional<Order> order = orderRepository.findForUpdateById(orderId);
+        List<SalesRollupLine> applied = lineRepository.findForUpdateByOrderId(orderId);
+
+        LocalDate salesDate = order.map(o -> o.getCreatedAt().toLocalDate()).orElse(null);
+        List<SalesRollupLine> desired = new ArrayList<>();
+        if (order.isPresent() && counts(order.get())) {
+            for (OrderItemSalesRow row : orderItemRepository.sumSalesByOrderId(orderId)) {
+                desired.add(new SalesRollupLine(orderId, row.getProductId(), salesDate, row.getQuantity(), row.getRevenue()));
+            }
+        }
+        if (sameLines(applied, desired)) {
+            return false;
+        }
+
+        // Строки обновляются в порядке ключа (сначала товары, потом дни): параллельные пересчеты
+        // блокируют общие строки в одном порядке и не ждут друг друга по кругу
+        Map<LocalDate, Delta> daily = new TreeMap<>();
+        Map<SalesKey, Delta> products = new TreeMap<>(
+                Comparator.comparing(SalesKey::date).thenComparing(SalesKey::productId));
+        for (SalesRollupLine line : applied) {
+            products.computeIfAbsent(new SalesKey(line.getSalesDate(), line.getProductId()), k -> new Delta())
+                    .add(-1, -line.getQuantity(), line.getRevenue().negate());
+            daily.computeIfAbsent(line.getSalesDate(), k -> new Delta()).add(0, -line.getQuantity(), line.getRevenue().negate());
+        }
+        for (SalesRollupLine line : desired) {
+            products.computeIfAbsent(new SalesKey(line.getSalesDate(), line.getProductId()), k -> new Delta())
+                    .add(1, line.getQuantity(), line.getRevenue());
+            daily.computeIfAbsent(line.getSalesDate(), k -> new Delta()).add(0, line.getQuantity(), line.getRevenue());
+        }
+        // Заказ считается один раз в день, к которому относятся его строки
+        if (!applied.isEmpty()) {
+            daily.get(applied.get(0).getSalesDate()).orders--;
+        }
+        if (!desired.isEmpty()) {
+            daily.get(salesDate).orders++;
+        }
+
+        products.forEach((key, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (merge) {
+                dailyProductRepository.merge(key.date(), key.productId(), delta.orders, delta.quantity, delta.revenue);
+            } else {
+                dailyProductRepository.upsert(key.date(), key.productId(), delta.orders, delta.quantity, delta.revenue);
+            }
+        });
+        daily.forEach((date, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (merge) {
+                dailyRepository.merge(date, delta.orders, delta.quantity, delta.revenue);
+            } else {
+                dailyRepository.upsert(date, delta.orders, delta.quantity, delta.revenue);
+            }
+        });
+
+        lineRepository.deleteByOrderId(orderId);
+        lineRepository.saveAll(desired);
+        return true;
+    }
+
+    private static boolean counts(Order order) {
+        return !order.isDeleted() && !STATUS_CANCELLED.equals(order.getStatus());
+    }
+
+    private static boolean sameLines(List<SalesRollupLine> applied, List<SalesRollupLine> desired) {
+        if (applied.size() != desired.size()) {
+            return false;
+        }
+        Map<Long, SalesRollupLine> byProduct = new HashMap<>();
+        applied.forEach(line -> byProduct.put(line.getProductId(), line));
+        for (SalesRollupLine line : desired) {
+            SalesRollupLine old = byProduct.get(line.getProductId());
+            if (old == null || !old.getSalesDate().equals(line.getSalesDate()) || old.getQuantity() != line.getQuantity()
+                    || old.getRevenue().compareTo(line.getRevenue()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record SalesKey(LocalDate date, Long productId) {
+    }
+
+    private static final class Delta {
+        int orders;
+        long quantity;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(int orders, long quantity, BigDecimal revenue) {
+            this.orders += orders;
+            this.quantity += quantity;
+            this.revenue = this.revenue.add(Objects.requireNonNullElse(revenue, BigDecimal.ZERO));
+        }
+
+        boolean isZero() {
+            return orders == 0 && quantity == 0 && revenue.signum() == 0;
+        }
+    }
+}
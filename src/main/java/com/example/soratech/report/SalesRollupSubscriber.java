@@ -0,0 +1,27 @@
+package com.example.soratech.report;
+
+import com.example.soratech.model.OutboxEvent;
+import com.example.soratech.outbox.OutboxService;
+import com.example.soratech.outbox.OutboxSubscriber;
+import org.springframework.stereotype.Component;
+
+/**
+ * Любое событие заказа пересчитывает его вклад в сводные таблицы продаж. Пересчет сравнивает
+ * заказ с учтенным вкладом, поэтому повторная доставка и порядок событий значения не имеют.
+ */
+@Component
+public class SalesRollupSubscriber implements OutboxSubscriber {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesRollupSubscriber(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        if (OutboxService.ORDER.equals(event.getAggregateType())) {
+            salesRollupService.refreshOrder(event.getAggregateId());
+        }
+    }
+}
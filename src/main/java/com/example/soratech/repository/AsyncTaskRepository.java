@@ -0,0 +1,23 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.AsyncTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface AsyncTaskRepository extends JpaRepository<AsyncTask, String> {
+    // Задачи, которые не успели завершиться до остановки приложения
+    @Modifying
+    @Query("update AsyncTask t set t.status = com.example.soratech.model.AsyncTask.Status.FAILED, t.result = :reason, " +
+            "t.updatedAt = :now, t.finishedAt = :now where t.status in :statuses")
+    int failUnfinished(@Param("statuses") Collection<AsyncTask.Status> statuses,
+                       @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from AsyncTask t where t.finishedAt < :before")
+    int deleteByFinishedAtBefore(@Param("before") LocalDateTime before);
+}
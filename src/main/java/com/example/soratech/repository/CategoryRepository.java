@@ -1,18 +1,21 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Category;
+import com.example.soratech.repository.projection.CategoryRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
-    Page<Category> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Category> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<Category> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
+public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<CategoryRow> findAllByDeletedFalse(Pageable pageable);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Category> findAllByDeletedFalse();
-}
\ No newline at end of file
+}
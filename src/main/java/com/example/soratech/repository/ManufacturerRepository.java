@@ -1,23 +1,21 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Manufacturer;
+import com.example.soratech.repository.projection.ManufacturerRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
-public interface ManufacturerRepository extends JpaRepository<Manufacturer, Long> {
-    Page<Manufacturer> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Manufacturer> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<Manufacturer> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
-    
-    Page<Manufacturer> findByCountryAndDeletedFalse(String country, Pageable pageable);
+public interface ManufacturerRepository extends JpaRepository<Manufacturer, Long>, JpaSpecificationExecutor<Manufacturer> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<ManufacturerRow> findAllByDeletedFalse(Pageable pageable);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Manufacturer> findAllByDeletedFalse();
 }
-
-
-
@@ -1,17 +1,35 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.OrderItem;
+import com.example.soratech.repository.projection.OrderItemQuantityRow;
+import com.example.soratech.repository.projection.OrderItemSalesRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    @EntityGraph(attributePaths = "product")
     List<OrderItem> findByOrderId(Long orderId);
     
+    @EntityGraph(attributePaths = "order")
     List<OrderItem> findByProductId(Long productId);
     
     void deleteByOrderId(Long orderId);
-}
 
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi " +
+            "where oi.order.id = :orderId group by oi.product.id")
+    List<OrderItemQuantityRow> sumQuantityByOrderId(@Param("orderId") Long orderId);
 
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity, sum(oi.subtotal) as revenue " +
+            "from OrderItem oi where oi.order.id = :orderId group by oi.product.id")
+    List<OrderItemSalesRow> sumSalesByOrderId(@Param("orderId") Long orderId);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from OrderItem oi where oi.order.id in :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
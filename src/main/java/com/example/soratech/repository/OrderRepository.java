@@ -1,23 +1,63 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Order;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    Page<Order> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Order> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<Order> findByUserIdAndDeletedFalse(Long userId, Pageable pageable);
-    
-    Page<Order> findByStatusAndDeletedFalse(String status, Pageable pageable);
-    
-    Page<Order> findByCreatedAtBetweenAndDeletedFalse(LocalDateTime start, LocalDateTime end, Pageable pageable);
-}
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+    // Планы выборки: связи загружаются тем же запросом, без N+1
+    @EntityGraph("Order.detail")
+    Optional<Order> findDetailedById(Long id);
+
+    @EntityGraph(attributePaths = "user")
+    List<Order> findAllByDeletedFalse();
+
+    // Изменения резервов одного заказа выполняются по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findForUpdateById(@Param("id") Long id);
+
+    // Смена статуса одним UPDATE вместо слияния всей сущности: строка заказа блокируется только на время
+    // оператора, версия увеличивается, чтобы параллельное редактирование заказа получило конфликт.
+    // 0 строк - статус уже такой (или заказа нет)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.updatedAt = :updatedAt, o.version = o.version + 1 " +
+            "where o.id = :id and o.status <> :status")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("updatedAt") LocalDateTime updatedAt);
 
+    // Массовые операции по списку id (не больше IdChunks.SIZE)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.deleted = :deleted, o.version = o.version + 1 where o.id in :ids and o.deleted <> :deleted")
+    int updateDeletedByIdIn(@Param("ids") Collection<Long> ids, @Param("deleted") boolean deleted);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
+    // Существующие заказы из списка: массовые операции пропускают устаревшие и чужие id
+    @Query("select o.id from Order o where o.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.id from Order o where o.user.id in :userIds")
+    List<Long> findIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Адрес для уведомлений по заказу (события outbox обрабатываются вне транзакции)
+    @Query("select u.email from Order o join o.user u where o.id = :id")
+    Optional<String> findUserEmailById(@Param("id") Long id);
+
+    // Пересчет сводных таблиц продаж: все заказы по порядку id, порциями
+    @Query("select o.id from Order o where o.id > :after order by o.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+}
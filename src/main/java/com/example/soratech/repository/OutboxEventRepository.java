@@ -0,0 +1,35 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Пачка готовых к доставке событий; строки, которые забирает другой экземпляр релея, пропускаются
+    @Query(value = "select * from outbox_event where status = 'PENDING' and next_attempt_at <= :now " +
+            "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = com.example.soratech.model.OutboxEvent.Status.PROCESSED, " +
+            "e.processedAt = :now, e.attempts = e.attempts + 1, e.lastError = null where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error where e.id = :id")
+    int markFailedAttempt(@Param("id") Long id, @Param("status") OutboxEvent.Status status,
+                          @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = com.example.soratech.model.OutboxEvent.Status.PROCESSED " +
+            "and e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
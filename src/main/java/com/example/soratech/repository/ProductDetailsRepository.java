@@ -1,23 +1,36 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.ProductDetails;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.example.soratech.repository.projection.ProductCharacteristicRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductDetailsRepository extends JpaRepository<ProductDetails, Long> {
-    Page<ProductDetails> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<ProductDetails> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<ProductDetails> findByCharacteristicNameContainingIgnoreCaseAndDeletedFalse(String characteristicName, Pageable pageable);
-    
-    List<ProductDetails> findByProductIdAndDeletedFalse(Long productId);
-    
-    Page<ProductDetails> findByProductIdAndDeletedFalse(Long productId, Pageable pageable);
-}
+public interface ProductDetailsRepository extends JpaRepository<ProductDetails, Long>, JpaSpecificationExecutor<ProductDetails> {
+    // Планы выборки: связи загружаются тем же запросом, без N+1
+    @EntityGraph(attributePaths = "product")
+    Optional<ProductDetails> findDetailedById(Long id);
+
+    @EntityGraph(attributePaths = "product")
+    List<ProductDetails> findAllByDeletedFalse();
 
+    // Условие по внешнему ключу самой таблицы: у производного запроса с графом оно уходило
+    // на присоединенный product, и индекс idx_product_details_active_product не использовался
+    @Query("select d from ProductDetails d join fetch d.product " +
+           "where d.product.id = :productId and d.deleted = false")
+    List<ProductDetails> findByProductIdAndDeletedFalse(@Param("productId") Long productId);
 
+    // Характеристики для поискового индекса
+    List<ProductCharacteristicRow> findByProductIdInAndDeletedFalse(Collection<Long> productIds);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ProductDetails d where d.product.id in :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
@@ -1,31 +1,114 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Product;
+import com.example.soratech.repository.projection.ProductExportRow;
+import com.example.soratech.repository.projection.ProductIndexRow;
+import com.example.soratech.repository.projection.ProductRow;
+import com.example.soratech.repository.projection.ProductSupplierRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findAllByDeletedFalse(Pageable pageable);
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    Page<ProductRow> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
 
-    Page<Product> findAllByDeletedTrue(Pageable pageable);
+    Window<ProductRow> findByNameContainingIgnoreCaseAndDeletedFalse(String name, ScrollPosition position, Limit limit, Sort sort);
 
-    Page<Product> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
+    // Планы выборки: связи загружаются тем же запросом, без N+1
+    @EntityGraph("Product.detail")
+    Optional<Product> findDetailedById(Long id);
 
-    Page<Product> findByCategoryIdAndDeletedFalse(Long categoryId, Pageable pageable);
+    @EntityGraph(attributePaths = {"manufacturer", "category"})
+    List<Product> findAllByDeletedFalse();
 
-    Page<Product> findByManufacturerIdAndDeletedFalse(Long manufacturerId, Pageable pageable);
+    // Индексы каталога (поиск и фасеты): строки найденных товаров, загрузка и переиндексация
+    List<ProductRow> findByIdInAndDeletedFalse(Collection<Long> ids);
 
-    Page<Product> findBySuppliersIdAndDeletedFalse(Long supplierId, Pageable pageable);
-    
-    Page<Product> findByPriceBetweenAndDeletedFalse(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
-    
-    Page<Product> findByPriceGreaterThanEqualAndDeletedFalse(BigDecimal minPrice, Pageable pageable);
-    
-    Page<Product> findByPriceLessThanEqualAndDeletedFalse(BigDecimal maxPrice, Pageable pageable);
-}
+    Window<ProductIndexRow> findIndexRowsByDeletedFalse(ScrollPosition position, Limit limit, Sort sort);
+
+    List<ProductIndexRow> findIndexRowsByIdInAndDeletedFalse(Collection<Long> ids);
+
+    @Query("select p.id as productId, s.id as supplierId from Product p join p.suppliers s where p.id in :ids")
+    List<ProductSupplierRow> findSupplierLinks(@Param("ids") Collection<Long> ids);
+
+    // Импорт и выгрузка прайс-листа (ProductImportService, ProductExportService)
+    List<Product> findByNameInAndDeletedFalse(Collection<String> names);
+
+    // Курсор: строки читаются с сервера порциями по fetch size, а не всей выборкой; закрывать поток обязательно
+    @Query("select p.id as id, p.name as name, p.price as price, p.stockQuantity as stockQuantity, " +
+            "m.name as manufacturerName, c.name as categoryName " +
+            "from Product p join p.manufacturer m join p.category c where p.deleted = false order by p.id")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<ProductExportRow> streamExportRows();
+
+    // Остаток: только условные атомарные изменения (InventoryService). Условие на stockStripes
+    // отсекает изменения, начатые до переключения товара в режим полос или обратно. Версию (@Version) эти
+    // операторы не меняют: резервы не конфликтуют с редактированием карточки товара
+    @Query("select p.stockStripes from Product p where p.id = :id")
+    Optional<Integer> findStockStripesById(@Param("id") Long id);
+
+    @Query("select p.stockQuantity from Product p where p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
 
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity " +
+            "where p.id = :id and p.stockStripes = 0 and p.deleted = false and p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity where p.id = :id and p.stockStripes = 0")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.stockQuantity = :quantity where p.id = :id and p.stockStripes = :stripes")
+    int updateStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("stripes") int stripes);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.stockStripes = :stripes where p.id = :id and p.stockStripes = :expected")
+    int updateStockStripes(@Param("id") Long id, @Param("expected") int expected, @Param("stripes") int stripes);
+
+    // Отображаемый остаток товаров с полосами - сумма по полосам; обновляются только разошедшиеся с ней товары
+    @Query("select p.id from Product p where p.stockStripes > 0 and p.stockQuantity <> " +
+            "(select coalesce(sum(s.quantity), 0) from ProductStockStripe s where s.productId = p.id)")
+    List<Long> findIdsWithStaleStripedStock();
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = " +
+            "(select coalesce(sum(s.quantity), 0) from ProductStockStripe s where s.productId = p.id) " +
+            "where p.id in :ids and p.stockStripes > 0")
+    int refreshStripedStock(@Param("ids") Collection<Long> ids);
+
+    // Массовые операции по списку id (не больше IdChunks.SIZE): один оператор вместо загрузки и сохранения каждой записи.
+    // Возвращают число строк, которые действительно изменились
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.deleted = :deleted, p.version = p.version + 1 where p.id in :ids and p.deleted <> :deleted")
+    int updateDeletedByIdIn(@Param("ids") Collection<Long> ids, @Param("deleted") boolean deleted);
+
+    // Таблица связи не отображена сущностью; подсказка ограничивает сброс кэша второго уровня этой таблицей
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from product_supplier where product_id in (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_supplier"))
+    int deleteSupplierLinksByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,50 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.ProductStockStripe;
+import com.example.soratech.repository.projection.StockStripeRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductStockStripeRepository extends JpaRepository<ProductStockStripe, Long> {
+    // Условное списание: 0 строк - в полосе не хватает товара (или полос у товара больше нет)
+    @Modifying(flushAutomatically = true)
+    @Query("update ProductStockStripe s set s.quantity = s.quantity - :quantity " +
+            "where s.productId = :productId and s.stripe = :stripe and s.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ProductStockStripe s set s.quantity = s.quantity + :quantity " +
+            "where s.productId = :productId and s.stripe = :stripe")
+    int increment(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ProductStockStripe s set s.quantity = :quantity where s.productId = :productId and s.stripe = :stripe")
+    int updateQuantity(@Param("productId") Long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    // Первая свободная полоса, где хватает товара; занятые другими транзакциями пропускаются без ожидания
+    @Query(value = "select stripe from product_stock_stripe " +
+            "where product_id = :productId and quantity >= :quantity " +
+            "order by stripe limit 1 for update skip locked", nativeQuery = true)
+    List<Integer> lockAvailable(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Блокирует все полосы товара в порядке номеров (одинаковый порядок исключает взаимную блокировку)
+    @Query(value = "select stripe as stripe, quantity as quantity from product_stock_stripe " +
+            "where product_id = :productId order by stripe for update", nativeQuery = true)
+    List<StockStripeRow> lockByProductId(@Param("productId") Long productId);
+
+    @Query("select coalesce(sum(s.quantity), 0) from ProductStockStripe s where s.productId = :productId")
+    int sumQuantityByProductId(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ProductStockStripe s where s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ProductStockStripe s where s.productId in :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
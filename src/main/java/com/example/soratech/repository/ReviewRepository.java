@@ -1,21 +1,45 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Review;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.example.soratech.repository.projection.ProductRatingRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {
-    Page<Review> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Review> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<Review> findByProductIdAndDeletedFalse(Long productId, Pageable pageable);
-    
-    Page<Review> findByUserIdAndDeletedFalse(Long userId, Pageable pageable);
-    
-    Page<Review> findByRatingAndDeletedFalse(Integer rating, Pageable pageable);
-}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecificationExecutor<Review> {
+    // Планы выборки: связи загружаются тем же запросом, без N+1
+    @EntityGraph("Review.detail")
+    Optional<Review> findDetailedById(Long id);
+
+    @EntityGraph(attributePaths = {"product", "user"})
+    List<Review> findAllByDeletedFalse();
 
+    // Оценки только для товаров отчета (SalesReportService), а не по всей таблице
+    @Query("select r.product.id as productId, avg(r.rating) as averageRating, count(r) as reviewCount " +
+            "from Review r where r.deleted = false and r.product.id in :productIds group by r.product.id")
+    List<ProductRatingRow> findRatingsByProductIdIn(@Param("productIds") Collection<Long> productIds);
 
+    // Массовые операции по списку id (не больше IdChunks.SIZE)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Review r set r.deleted = :deleted where r.id in :ids and r.deleted <> :deleted")
+    int updateDeletedByIdIn(@Param("ids") Collection<Long> ids, @Param("deleted") boolean deleted);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Review r where r.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Review r where r.product.id in :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Review r where r.user.id in :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
@@ -1,22 +1,28 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Role;
+import com.example.soratech.repository.projection.RoleRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface RoleRepository extends JpaRepository<Role, Long> {
-    Page<Role> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Role> findAllByDeletedTrue(Pageable pageable);
+public interface RoleRepository extends JpaRepository<Role, Long>, JpaSpecificationExecutor<Role> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<RoleRow> findAllByDeletedFalse(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Role> findAllByDeletedFalse();
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByNameAndDeletedFalse(String name);
-    
-    Page<Role> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
 }
-
-
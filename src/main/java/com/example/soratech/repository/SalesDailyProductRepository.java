@@ -0,0 +1,62 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.SalesDailyProduct;
+import com.example.soratech.repository.projection.SalesGroupRow;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesDailyProductRepository extends JpaRepository<SalesDailyProduct, SalesDailyProduct.Key> {
+    // Вставка или приращение строки товара за день одним оператором (см. SalesDailyRepository.upsert)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily_product"))
+    @Query(value = "insert into sales_daily_product (sales_date, product_id, order_count, quantity, revenue) " +
+            "values (:date, :productId, :orders, :quantity, :revenue) " +
+            "on conflict (sales_date, product_id) do update " +
+            "set order_count = sales_daily_product.order_count + excluded.order_count, " +
+            "quantity = sales_daily_product.quantity + excluded.quantity, " +
+            "revenue = sales_daily_product.revenue + excluded.revenue", nativeQuery = true)
+    int upsert(@Param("date") LocalDate date, @Param("productId") Long productId, @Param("orders") int orders,
+               @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily_product"))
+    @Query(value = "merge into sales_daily_product s " +
+            "using (values (cast(:date as date), cast(:productId as bigint), :orders, :quantity, :revenue)) " +
+            "v (sales_date, product_id, order_count, quantity, revenue) " +
+            "on s.sales_date = v.sales_date and s.product_id = v.product_id " +
+            "when matched then update set order_count = s.order_count + v.order_count, " +
+            "quantity = s.quantity + v.quantity, revenue = s.revenue + v.revenue " +
+            "when not matched then insert (sales_date, product_id, order_count, quantity, revenue) " +
+            "values (v.sales_date, v.product_id, v.order_count, v.quantity, v.revenue)", nativeQuery = true)
+    int merge(@Param("date") LocalDate date, @Param("productId") Long productId, @Param("orders") int orders,
+              @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+
+    // Отчеты за период: строки сводной таблицы в диапазоне дат, товар - по первичному ключу
+    @Query("select c.id as id, c.name as name, sum(s.quantity) as quantity, sum(s.revenue) as revenue " +
+            "from SalesDailyProduct s join Product p on p.id = s.productId join p.category c " +
+            "where s.salesDate between :from and :to group by c.id, c.name having sum(s.quantity) > 0 " +
+            "order by sum(s.revenue) desc, c.id")
+    List<SalesGroupRow> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select m.id as id, m.name as name, sum(s.quantity) as quantity, sum(s.revenue) as revenue " +
+            "from SalesDailyProduct s join Product p on p.id = s.productId join p.manufacturer m " +
+            "where s.salesDate between :from and :to group by m.id, m.name having sum(s.quantity) > 0 " +
+            "order by sum(s.revenue) desc, m.id")
+    List<SalesGroupRow> sumByManufacturer(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select p.id as id, p.name as name, sum(s.quantity) as quantity, sum(s.revenue) as revenue " +
+            "from SalesDailyProduct s join Product p on p.id = s.productId " +
+            "where s.salesDate between :from and :to group by p.id, p.name having sum(s.quantity) > 0 " +
+            "order by sum(s.revenue) desc, p.id")
+    List<SalesGroupRow> findTopProducts(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+}
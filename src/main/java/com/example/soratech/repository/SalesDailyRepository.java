@@ -0,0 +1,45 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.SalesDaily;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, LocalDate> {
+    List<SalesDaily> findBySalesDateBetweenAndOrderCountGreaterThanOrderBySalesDate(LocalDate from, LocalDate to,
+                                                                                     int orderCount);
+
+    // Приращение итогов дня одним оператором, строка дня создается тем же оператором: одновременные
+    // заказы не затирают изменения друг друга и не сталкиваются на первичном ключе при первой вставке.
+    // Подсказка ограничивает сброс кэша второго уровня этой таблицей, иначе вставка сбросила бы кэш целиком
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily"))
+    @Query(value = "insert into sales_daily (sales_date, order_count, quantity, revenue) " +
+            "values (:date, :orders, :quantity, :revenue) " +
+            "on conflict (sales_date) do update set order_count = sales_daily.order_count + excluded.order_count, " +
+            "quantity = sales_daily.quantity + excluded.quantity, revenue = sales_daily.revenue + excluded.revenue",
+            nativeQuery = true)
+    int upsert(@Param("date") LocalDate date, @Param("orders") int orders,
+               @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+
+    // То же для H2 (тесты): ON CONFLICT ... DO UPDATE в H2 нет
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily"))
+    @Query(value = "merge into sales_daily d " +
+            "using (values (cast(:date as date), :orders, :quantity, :revenue)) v (sales_date, order_count, quantity, revenue) " +
+            "on d.sales_date = v.sales_date " +
+            "when matched then update set order_count = d.order_count + v.order_count, " +
+            "quantity = d.quantity + v.quantity, revenue = d.revenue + v.revenue " +
+            "when not matched then insert (sales_date, order_count, quantity, revenue) " +
+            "values (v.sales_date, v.order_count, v.quantity, v.revenue)", nativeQuery = true)
+    int merge(@Param("date") LocalDate date, @Param("orders") int orders,
+              @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+}
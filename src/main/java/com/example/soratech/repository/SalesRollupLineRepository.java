@@ -0,0 +1,22 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.SalesRollupLine;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface SalesRollupLineRepository extends JpaRepository<SalesRollupLine, SalesRollupLine.Key> {
+    // Учтенный вклад заказа; блокировка нужна и для уже удаленного заказа, строку которого не заблокировать
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from SalesRollupLine l where l.orderId = :orderId")
+    List<SalesRollupLine> findForUpdateByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from SalesRollupLine l where l.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+}
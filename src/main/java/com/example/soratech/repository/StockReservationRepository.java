@@ -0,0 +1,24 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByOrderIdAndStatusInOrderByIdDesc(Long orderId, Collection<StockReservation.Status> statuses);
+
+    List<StockReservation> findByOrderIdAndStatusAndExpiresAtBefore(Long orderId, StockReservation.Status status,
+                                                                  LocalDateTime time);
+
+    @Query("select distinct r.order.id from StockReservation r where r.status = :status and r.expiresAt < :time")
+    List<Long> findOrderIdsByStatusAndExpiresAtBefore(@Param("status") StockReservation.Status status,
+                                                     @Param("time") LocalDateTime time, Limit limit);
+
+    void deleteByOrderId(Long orderId);
+}
@@ -1,21 +1,26 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.Supplier;
+import com.example.soratech.repository.projection.SupplierRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
-public interface SupplierRepository extends JpaRepository<Supplier, Long> {
-    Page<Supplier> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<Supplier> findAllByDeletedTrue(Pageable pageable);
-    
-    Page<Supplier> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
-    
-    List<Supplier> findAllByDeletedFalse();
-}
-
+public interface SupplierRepository extends JpaRepository<Supplier, Long>, JpaSpecificationExecutor<Supplier> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Page<SupplierRow> findAllByDeletedFalse(Pageable pageable);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Supplier> findAllByDeletedFalse();
 
+    // Поставщики товара при сохранении берутся из кэша запросов
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Supplier> findAllById(Iterable<Long> ids);
+}
@@ -1,16 +1,23 @@
 package com.example.soratech.repository;
 
 import com.example.soratech.model.User;
+import com.example.soratech.repository.projection.UserRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Page<User> findAllByDeletedFalse(Pageable pageable);
-    
-    Page<User> findAllByDeletedTrue(Pageable pageable);
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+    Page<UserRow> findAllByDeletedFalse(Pageable pageable);
     
     Optional<User> findByEmail(String email);
     
@@ -20,13 +27,55 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByPhoneAndDeletedFalse(String phone);
     
-    Page<User> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
+    /**
+     * Поиск по логину (email или телефон) одним запросом вместе с ролью.
+     * Совпадение по email приоритетнее совпадения по телефону.
+     */
+    @Query("select u from User u join fetch u.role " +
+           "where u.email = :login or u.phone = :login " +
+           "order by case when u.email = :login then 0 else 1 end")
+    List<User> findAllByLogin(@Param("login") String login, Limit limit);
     
-    Page<User> findByEmailContainingIgnoreCaseAndDeletedFalse(String email, Pageable pageable);
+    default Optional<User> findByLogin(String login) {
+        return findAllByLogin(login, Limit.of(1)).stream().findFirst();
+    }
     
     boolean existsByEmail(String email);
     
     boolean existsByPhone(String phone);
-}
+    
+    @Query("select u.tokenVersion from User u where u.id = :id and u.active = true and u.deleted = false")
+    Optional<Integer> findActiveTokenVersionById(@Param("id") Long id);
+    
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+    
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 
+    // Планы выборки: связи загружаются тем же запросом, без N+1
+    @EntityGraph(attributePaths = "role")
+    Optional<User> findDetailedById(Long id);
 
+    @EntityGraph(attributePaths = "role")
+    List<User> findAllByDeletedFalse();
+
+    // Личный кабинет: роль и отзывы с товарами
+    @EntityGraph("User.profile")
+    Optional<User> findProfileByEmail(String email);
+
+    // Массовые операции по списку id (не больше IdChunks.SIZE). Удаление отзывает выданные JWT
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.deleted = true, u.tokenVersion = u.tokenVersion + 1 where u.id in :ids and u.deleted = false")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.deleted = false where u.id in :ids and u.deleted = true")
+    int restoreByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,12 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы категорий в панели администратора.
+ */
+public interface CategoryRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
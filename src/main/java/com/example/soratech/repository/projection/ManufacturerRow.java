@@ -0,0 +1,16 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы производителей в панели администратора.
+ */
+public interface ManufacturerRow {
+    Long getId();
+
+    String getName();
+
+    String getCountry();
+
+    String getEmail();
+
+    String getPhone();
+}
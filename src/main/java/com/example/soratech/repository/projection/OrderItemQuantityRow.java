@@ -0,0 +1,10 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Суммарное количество товара в позициях заказа.
+ */
+public interface OrderItemQuantityRow {
+    Long getProductId();
+
+    Long getQuantity();
+}
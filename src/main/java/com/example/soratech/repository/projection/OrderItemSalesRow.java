@@ -0,0 +1,14 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Количество и сумма товара в позициях заказа.
+ */
+public interface OrderItemSalesRow {
+    Long getProductId();
+
+    Long getQuantity();
+
+    BigDecimal getRevenue();
+}
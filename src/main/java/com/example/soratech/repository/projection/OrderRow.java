@@ -0,0 +1,19 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка таблицы заказов в панелях администратора и менеджера.
+ */
+public interface OrderRow {
+    Long getId();
+
+    String getUserName();
+
+    BigDecimal getTotalAmount();
+
+    String getStatus();
+
+    LocalDateTime getCreatedAt();
+}
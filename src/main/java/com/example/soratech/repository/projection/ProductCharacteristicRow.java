@@ -0,0 +1,12 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Характеристика товара для поискового индекса.
+ */
+public interface ProductCharacteristicRow {
+    Long getProductId();
+
+    String getCharacteristicName();
+
+    String getCharacteristicValue();
+}
@@ -0,0 +1,14 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы характеристик товаров в панелях администратора и менеджера.
+ */
+public interface ProductDetailsRow {
+    Long getId();
+
+    String getProductName();
+
+    String getCharacteristicName();
+
+    String getCharacteristicValue();
+}
@@ -0,0 +1,20 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Товар в выгрузке прайс-листа (поставщики догружаются отдельным запросом на порцию строк).
+ */
+public interface ProductExportRow {
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    String getManufacturerName();
+
+    String getCategoryName();
+}
@@ -0,0 +1,24 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Товар для поисковых и фасетных индексов каталога.
+ */
+public interface ProductIndexRow {
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    Long getManufacturerId();
+
+    String getManufacturerName();
+}
@@ -0,0 +1,12 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Средняя оценка товара по неудаленным отзывам.
+ */
+public interface ProductRatingRow {
+    Long getProductId();
+
+    Double getAverageRating();
+
+    Long getReviewCount();
+}
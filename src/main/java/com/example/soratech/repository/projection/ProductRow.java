@@ -0,0 +1,20 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка таблицы товаров в панелях администратора и менеджера.
+ */
+public interface ProductRow {
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    Integer getStockQuantity();
+
+    String getCategoryName();
+
+    String getManufacturerName();
+}
@@ -0,0 +1,10 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Связь товара с поставщиком для фасетного индекса.
+ */
+public interface ProductSupplierRow {
+    Long getProductId();
+
+    Long getSupplierId();
+}
@@ -0,0 +1,20 @@
+package com.example.soratech.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка таблицы отзывов в панелях администратора и менеджера.
+ */
+public interface ReviewRow {
+    Long getId();
+
+    String getProductName();
+
+    String getUserName();
+
+    Integer getRating();
+
+    String getComment();
+
+    LocalDateTime getCreatedAt();
+}
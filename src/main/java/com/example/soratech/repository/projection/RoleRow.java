@@ -0,0 +1,12 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы ролей в панели администратора.
+ */
+public interface RoleRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
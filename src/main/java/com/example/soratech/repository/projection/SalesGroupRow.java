@@ -0,0 +1,16 @@
+package com.example.soratech.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Продажи за период, сгруппированные по товару, категории или производителю.
+ */
+public interface SalesGroupRow {
+    Long getId();
+
+    String getName();
+
+    Long getQuantity();
+
+    BigDecimal getRevenue();
+}
@@ -0,0 +1,10 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Остаток в одной полосе товара.
+ */
+public interface StockStripeRow {
+    Integer getStripe();
+
+    Integer getQuantity();
+}
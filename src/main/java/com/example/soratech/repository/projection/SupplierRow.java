@@ -0,0 +1,16 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы поставщиков в панели администратора.
+ */
+public interface SupplierRow {
+    Long getId();
+
+    String getName();
+
+    String getContactPerson();
+
+    String getEmail();
+
+    String getPhone();
+}
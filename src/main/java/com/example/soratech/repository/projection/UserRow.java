@@ -0,0 +1,18 @@
+package com.example.soratech.repository.projection;
+
+/**
+ * Строка таблицы пользователей в панели администратора.
+ */
+public interface UserRow {
+    Long getId();
+
+    String getEmail();
+
+    String getName();
+
+    String getPhone();
+
+    String getRoleName();
+
+    boolean isActive();
+}
@@ -0,0 +1,15 @@
+package com.example.soratech.repository.spec;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры запроса таблицы панели: фильтры (имя параметра -> значения),
+ * флаг удаленных записей и сортировка. Допустимость полей проверяет {@link GridSpec}.
+ */
+public record GridQuery(Map<String, List<String>> filters, boolean deleted, String sortBy, String sortDir) {
+
+    public GridQuery {
+        filters = filters == null ? Map.of() : filters;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.soratech.repository.spec;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Описание таблицы панели: какие параметры запроса фильтруют какие поля сущности
+ * и по каким полям разрешена сортировка (только по индексированным колонкам, индексы описаны в db/migration).
+ *
+ * <p>Все заданные фильтры, флаг удаленных записей и сортировка собираются в одну
+ * спецификацию, поэтому любая комбинация выполняется одним SQL-запросом
+ * (плюс COUNT для постраничного режима) без отдельного derived-метода на каждый случай.
+ * Связанные поля проекции (roleName, categoryName) подтягиваются тем же запросом через left join.
+ * Фильтры по коллекциям (suppliers.id) проверяются условием id in (подзапрос), чтобы строка
+ * не повторялась для каждого совпавшего элемента коллекции.
+ */
+public final class GridSpec<T> {
+
+    public enum Operator {
+        /** Равенство; несколько значений параметра - IN. */
+        EQUAL,
+        /** Подстрока без учета регистра; несколько значений - ИЛИ. */
+        CONTAINS,
+        /** Нижняя граница включительно. */
+        GREATER_OR_EQUAL,
+        /** Верхняя граница включительно. */
+        LESS_OR_EQUAL
+    }
+
+    private record Field(String path, Class<?> type, Operator operator) {
+    }
+
+    private record Condition(Field field, List<Object> values) {
+    }
+
+    private final Map<String, Field> filters;
+    private final Set<String> sortable;
+
+    private GridSpec(Map<String, Field> filters, Set<String> sortable) {
+        this.filters = Map.copyOf(filters);
+        this.sortable = new LinkedHashSet<>(sortable);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Страница проекций с фильтрами и сортировкой из запроса; сортировка pageable не используется.
+     */
+    public <R> Page<R> findPage(JpaSpecificationExecutor<T> repository, Class<R> projection,
+                                GridQuery query, Pageable pageable) {
+        PageRequest request = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort(query));
+        return repository.findBy(toSpecification(query), q -> q.as(projection).page(request));
+    }
+
+    /**
+     * Страница справочника: запрос активных записей без фильтров (так панель грузит выпадающие списки,
+     * size=1000) отдается методу репозитория с кэшем запросов, остальные идут через спецификацию.
+     */
+    public <R> Page<R> findPage(JpaSpecificationExecutor<T> repository, Class<R> projection,
+                                GridQuery query, Pageable pageable, Function<Pageable, Page<R>> cachedActive) {
+        if (!query.deleted() && conditions(query).isEmpty()) {
+            return cachedActive.apply(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort(query)));
+        }
+        return findPage(repository, projection, query, pageable);
+    }
+
+    /**
+     * Окно keyset-пагинации; курсор строится по ключам сортировки из запроса.
+     */
+    public <R> Window<R> findWindow(JpaSpecificationExecutor<T> repository, Class<R> projection,
+                                    GridQuery query, ScrollPosition position, Limit limit) {
+        Sort sort = sort(query);
+        Specification<T> specification = toSpecification(query);
+        return repository.findBy(specification, q -> q.as(projection).sortBy(sort).limit(limit.max()).scroll(position));
+    }
+
+    /**
+     * Собирает спецификацию. Значения разбираются сразу, чтобы ошибка формата
+     * дошла до клиента понятным сообщением, а не исключением при построении запроса.
+     * Параметры, не объявленные фильтрами таблицы (page, size и т.п.), пропускаются.
+     */
+    public Specification<T> toSpecification(GridQuery query) {
+        List<Condition> conditions = conditions(query);
+        boolean deleted = query.deleted();
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(deleted ? cb.isTrue(root.get("deleted")) : cb.isFalse(root.get("deleted")));
+            for (Condition condition : conditions) {
+                predicates.add(toPredicate(root, criteriaQuery, cb, condition));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private List<Condition> conditions(GridQuery query) {
+        List<Condition> conditions = new ArrayList<>();
+        query.filters().forEach((name, values) -> {
+            Field field = filters.get(name);
+            if (field == null || values == null) {
+                return;
+            }
+            List<Object> parsed = new ArrayList<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    parsed.add(parse(name, field, value.trim()));
+                }
+            }
+            if (!parsed.isEmpty()) {
+                conditions.add(new Condition(field, parsed));
+            }
+        });
+        return conditions;
+    }
+
+    /**
+     * Сортировка из запроса, проверенная по белому списку; id добавляется
+     * последним ключом для однозначного порядка (нужно и для keyset-курсора).
+     */
+    public Sort sort(GridQuery query) {
+        String sortBy = query.sortBy() == null || query.sortBy().isBlank() ? "id" : query.sortBy();
+        if (!sortable.contains(sortBy)) {
+            throw new IllegalArgumentException("Сортировка по полю '" + sortBy + "' не поддерживается. Допустимые поля: "
+                    + String.join(", ", sortable));
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(query.sortDir()) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Условие по полю; поле внутри коллекции проверяется некоррелированным подзапросом id in (...),
+     * иначе join размножил бы строки (и COUNT) по числу совпавших элементов.
+     * Коррелированный exists СУБД проверяла бы для каждой строки, обходя всю таблицу по первичному ключу;
+     * список id из подзапроса берется по индексу таблицы связи.
+     */
+    private static <X> Predicate toPredicate(Root<X> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                             Condition condition) {
+        String path = condition.field().path();
+        if (!throughCollection(root.getModel(), path)) {
+            return match(resolve(root, path), cb, condition);
+        }
+        return root.get(idName(root)).in(idsMatching(root, query, cb, condition));
+    }
+
+    private static <X, I> Subquery<I> idsMatching(Root<X> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                  Condition condition) {
+        @SuppressWarnings("unchecked")
+        Class<I> idType = (Class<I>) root.getModel().getIdType().getJavaType();
+        Subquery<I> subquery = query.subquery(idType);
+        Root<X> matching = subquery.from(root.getModel().getJavaType());
+        return subquery.select(matching.get(idName(root)))
+                .where(match(resolve(matching, condition.field().path()), cb, condition));
+    }
+
+    private static String idName(Root<?> root) {
+        return root.getModel().getId(root.getModel().getIdType().getJavaType()).getName();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate match(Path<?> path, CriteriaBuilder cb, Condition condition) {
+        List<Object> values = condition.values();
+        switch (condition.field().operator()) {
+            case EQUAL:
+                return values.size() == 1 ? cb.equal(path, values.get(0)) : path.in(values);
+            case CONTAINS:
+                Expression<String> lower = cb.lower((Expression<String>) path);
+                return cb.or(values.stream()
+                        .map(value -> cb.like(lower, "%" + escape(((String) value).toLowerCase(Locale.ROOT)) + "%", '\\'))
+                        .toArray(Predicate[]::new));
+            case GREATER_OR_EQUAL:
+                return cb.and(values.stream()
+                        .map(value -> cb.greaterThanOrEqualTo((Expression<Comparable>) path, (Comparable) value))
+                        .toArray(Predicate[]::new));
+            case LESS_OR_EQUAL:
+                return cb.and(values.stream()
+                        .map(value -> cb.lessThanOrEqualTo((Expression<Comparable>) path, (Comparable) value))
+                        .toArray(Predicate[]::new));
+            default:
+                throw new IllegalStateException("Неизвестный оператор: " + condition.field().operator());
+        }
+    }
+
+    private static boolean throughCollection(ManagedType<?> type, String path) {
+        for (String segment : path.split("\\.")) {
+            if (type == null) {
+                return false;
+            }
+            Attribute<?, ?> attribute = type.getAttribute(segment);
+            if (attribute instanceof PluralAttribute<?, ?, ?>) {
+                return true;
+            }
+            type = ((SingularAttribute<?, ?>) attribute).getType() instanceof ManagedType<?> managed ? managed : null;
+        }
+        return false;
+    }
+
+    /**
+     * Путь вида "role.id" или "suppliers.id"; коллекции присоединяются inner join (внутри подзапроса),
+     * ссылки на id связанной сущности берутся из внешнего ключа без join.
+     */
+    private static Path<?> resolve(Root<?> root, String path) {
+        Path<?> current = root;
+        ManagedType<?> type = root.getModel();
+        for (String segment : path.split("\\.")) {
+            Attribute<?, ?> attribute = type.getAttribute(segment);
+            if (attribute instanceof PluralAttribute<?, ?, ?> plural) {
+                current = ((From<?, ?>) current).join(segment);
+                type = plural.getElementType() instanceof ManagedType<?> managed ? managed : null;
+            } else {
+                current = current.get(segment);
+                type = ((SingularAttribute<?, ?>) attribute).getType() instanceof ManagedType<?> managed ? managed : null;
+            }
+        }
+        return current;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Object parse(String name, Field field, String value) {
+        try {
+            Class<?> type = field.type();
+            if (type == String.class) {
+                return value;
+            } else if (type == Long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            } else if (type == Boolean.class) {
+                if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                    throw new IllegalArgumentException(value);
+                }
+                return Boolean.valueOf(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            throw new IllegalStateException("Неподдерживаемый тип фильтра: " + type.getSimpleName());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректное значение фильтра '" + name + "': " + value);
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Map<String, Field> filters = new LinkedHashMap<>();
+        private final Set<String> sortable = new LinkedHashSet<>(List.of("id"));
+
+        private Builder() {
+        }
+
+        public Builder<T> equal(String param, String path, Class<?> type) {
+            return filter(param, new Field(path, type, Operator.EQUAL));
+        }
+
+        public Builder<T> contains(String param, String path) {
+            return filter(param, new Field(path, String.class, Operator.CONTAINS));
+        }
+
+        public Builder<T> min(String param, String path, Class<?> type) {
+            return filter(param, new Field(path, type, Operator.GREATER_OR_EQUAL));
+        }
+
+        public Builder<T> max(String param, String path, Class<?> type) {
+            return filter(param, new Field(path, type, Operator.LESS_OR_EQUAL));
+        }
+
+        /**
+         * Поля, по которым разрешена сортировка; id разрешен всегда.
+         */
+        public Builder<T> sortable(String... fields) {
+            sortable.addAll(List.of(fields));
+            return this;
+        }
+
+        public GridSpec<T> build() {
+            return new GridSpec<>(filters, sortable);
+        }
+
+        private Builder<T> filter(String param, Field field) {
+            if (filters.putIfAbsent(param, field) != null) {
+                throw new IllegalStateException("Фильтр '" + param + "' уже объявлен");
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.soratech.search;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Страница результатов фильтрации каталога вместе со счетчиками фасетов.
+ */
+public record FacetedPage<T>(Page<T> page, ProductFacetIndex.Facets facets) {
+}
@@ -0,0 +1,15 @@
+package com.example.soratech.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Индексируемое представление товара: текстовые поля для поиска и атрибуты для фасетов.
+ */
+public record ProductDocument(long id, String name,
+                              Long categoryId, String category,
+                              Long manufacturerId, String manufacturer,
+                              Set<Long> supplierIds, BigDecimal price, int stockQuantity,
+                              List<String> characteristics) {
+}
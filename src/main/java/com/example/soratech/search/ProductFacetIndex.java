@@ -0,0 +1,297 @@
+package com.example.soratech.search;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битовые индексы каталога для комбинированной фильтрации и подсчета фасетов.
+ * На каждое значение категории, производителя, поставщика, ценовой корзины и наличия
+ * хранится сжатый битмап id товаров; фильтр - пересечение битмапов измерений.
+ *
+ * <p>Счетчики фасета считаются без учета фильтра по этому же измерению,
+ * чтобы показать, сколько товаров добавится при выборе еще одного значения.
+ */
+public class ProductFacetIndex {
+
+    // Нижние границы ценовых корзин, руб.
+    static final BigDecimal[] PRICE_BOUNDS = {
+            BigDecimal.ZERO, BigDecimal.valueOf(1_000), BigDecimal.valueOf(5_000), BigDecimal.valueOf(10_000),
+            BigDecimal.valueOf(30_000), BigDecimal.valueOf(50_000), BigDecimal.valueOf(100_000)
+    };
+
+    private static final int CATEGORY = 0;
+    private static final int MANUFACTURER = 1;
+    private static final int SUPPLIER = 2;
+    private static final int PRICE = 3;
+    private static final int STOCK = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byManufacturer = new HashMap<>();
+    private final Map<Long, RoaringBitmap> bySupplier = new HashMap<>();
+    private final RoaringBitmap[] byPrice = new RoaringBitmap[PRICE_BOUNDS.length];
+    private final Map<Integer, ProductDocument> documents = new HashMap<>();
+
+    public ProductFacetIndex() {
+        for (int i = 0; i < byPrice.length; i++) {
+            byPrice[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * Добавляет товар в индекс или заменяет его прежнюю версию.
+     */
+    public void index(ProductDocument document) {
+        int id = toInt(document.id());
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            all.add(id);
+            if (document.stockQuantity() > 0) {
+                inStock.add(id);
+            }
+            addTo(byCategory, document.categoryId(), id);
+            addTo(byManufacturer, document.manufacturerId(), id);
+            if (document.supplierIds() != null) {
+                document.supplierIds().forEach(supplierId -> addTo(bySupplier, supplierId, id));
+            }
+            if (document.price() != null) {
+                byPrice[bucketOf(document.price())].add(id);
+            }
+            documents.put(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(toInt(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Фильтрует каталог и считает фасеты за один проход по битмапам.
+     * Найденные товары упорядочены по id.
+     *
+     * @param afterId id последнего товара предыдущей страницы (keyset) или null
+     * @param skip сколько товаров пропустить (offset)
+     * @param limit размер страницы
+     */
+    public FacetResult filter(ProductFilter filter, Long afterId, int skip, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap[] constraints = new RoaringBitmap[5];
+            constraints[CATEGORY] = union(byCategory, filter.categoryIds());
+            constraints[MANUFACTURER] = union(byManufacturer, filter.manufacturerIds());
+            constraints[SUPPLIER] = union(bySupplier, filter.supplierIds());
+            constraints[PRICE] = priceRange(filter.minPrice(), filter.maxPrice());
+            constraints[STOCK] = filter.inStockOnly() ? inStock : null;
+
+            RoaringBitmap matches = intersect(constraints, -1);
+            Facets facets = new Facets(
+                    count(byCategory, intersect(constraints, CATEGORY)),
+                    count(byManufacturer, intersect(constraints, MANUFACTURER)),
+                    count(bySupplier, intersect(constraints, SUPPLIER)),
+                    countPrices(intersect(constraints, PRICE)),
+                    RoaringBitmap.andCardinality(inStock, intersect(constraints, STOCK)));
+            return new FacetResult(page(matches, afterId, skip, limit), matches.getCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> page(RoaringBitmap matches, Long afterId, int skip, int limit) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, matches.getCardinality())));
+        if (limit <= 0 || skip >= matches.getCardinality()) {
+            return ids;
+        }
+        PeekableIntIterator iterator = matches.getIntIterator();
+        if (skip > 0) {
+            iterator.advanceIfNeeded(matches.select(skip));
+        }
+        if (afterId != null) {
+            if (afterId >= Integer.MAX_VALUE) {
+                return ids;
+            }
+            iterator.advanceIfNeeded((int) Math.max(afterId + 1, 0));
+        }
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    /**
+     * Пересечение ограничений всех измерений, кроме excluded (-1 - всех).
+     */
+    private RoaringBitmap intersect(RoaringBitmap[] constraints, int excluded) {
+        RoaringBitmap result = all.clone();
+        for (int i = 0; i < constraints.length; i++) {
+            if (i != excluded && constraints[i] != null) {
+                result.and(constraints[i]);
+            }
+        }
+        return result;
+    }
+
+    private static RoaringBitmap union(Map<Long, RoaringBitmap> values, Set<Long> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (Long value : selected) {
+            RoaringBitmap bitmap = values.get(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Корзины целиком внутри диапазона берутся битмапом, граничные - проверкой цены товара.
+     */
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (int bucket = 0; bucket < byPrice.length; bucket++) {
+            BigDecimal lower = PRICE_BOUNDS[bucket];
+            BigDecimal upper = bucket + 1 < PRICE_BOUNDS.length ? PRICE_BOUNDS[bucket + 1] : null;
+            boolean disjoint = (max != null && lower.compareTo(max) > 0)
+                    || (min != null && upper != null && upper.compareTo(min) <= 0);
+            if (disjoint) {
+                continue;
+            }
+            boolean covered = (min == null || lower.compareTo(min) >= 0)
+                    && (max == null || (upper != null && upper.compareTo(max) <= 0));
+            if (covered) {
+                result.or(byPrice[bucket]);
+            } else {
+                byPrice[bucket].forEach((int id) -> {
+                    BigDecimal price = documents.get(id).price();
+                    if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private static Map<Long, Integer> count(Map<Long, RoaringBitmap> values, RoaringBitmap base) {
+        Map<Long, Integer> counts = new HashMap<>();
+        values.forEach((value, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(bitmap, base);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private Map<String, Integer> countPrices(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < byPrice.length; bucket++) {
+            int count = RoaringBitmap.andCardinality(byPrice[bucket], base);
+            if (count > 0) {
+                counts.put(bucketLabel(bucket), count);
+            }
+        }
+        return counts;
+    }
+
+    static String bucketLabel(int bucket) {
+        return bucket + 1 < PRICE_BOUNDS.length
+                ? PRICE_BOUNDS[bucket].toPlainString() + "-" + PRICE_BOUNDS[bucket + 1].toPlainString()
+                : PRICE_BOUNDS[bucket].toPlainString() + "+";
+    }
+
+    private static int bucketOf(BigDecimal price) {
+        for (int bucket = PRICE_BOUNDS.length - 1; bucket > 0; bucket--) {
+            if (price.compareTo(PRICE_BOUNDS[bucket]) >= 0) {
+                return bucket;
+            }
+        }
+        return 0;
+    }
+
+    private void removeInternal(int id) {
+        ProductDocument previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        all.remove(id);
+        inStock.remove(id);
+        removeFrom(byCategory, previous.categoryId(), id);
+        removeFrom(byManufacturer, previous.manufacturerId(), id);
+        if (previous.supplierIds() != null) {
+            previous.supplierIds().forEach(supplierId -> removeFrom(bySupplier, supplierId, id));
+        }
+        if (previous.price() != null) {
+            byPrice[bucketOf(previous.price())].remove(id);
+        }
+    }
+
+    private static void addTo(Map<Long, RoaringBitmap> values, Long value, int id) {
+        if (value != null) {
+            values.computeIfAbsent(value, k -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private static void removeFrom(Map<Long, RoaringBitmap> values, Long value, int id) {
+        if (value == null) {
+            return;
+        }
+        RoaringBitmap bitmap = values.get(value);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                values.remove(value);
+            }
+        }
+    }
+
+    private static int toInt(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Id товара вне диапазона битмап-индекса: " + id);
+        }
+        return (int) id;
+    }
+
+    /**
+     * Счетчики фасетов: значение измерения -> число товаров.
+     */
+    public record Facets(Map<Long, Integer> categories, Map<Long, Integer> manufacturers,
+                         Map<Long, Integer> suppliers, Map<String, Integer> prices, int inStock) {
+    }
+
+    public record FacetResult(List<Long> ids, int total, Facets facets) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.soratech.search;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Комбинированный фильтр каталога. Пустое множество или null - измерение не ограничено;
+ * внутри измерения значения объединяются (ИЛИ), между измерениями - пересекаются (И).
+ */
+public record ProductFilter(Set<Long> categoryIds, Set<Long> manufacturerIds, Set<Long> supplierIds,
+                            BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly) {
+
+    public ProductFilter {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("Минимальная цена не может быть больше максимальной");
+        }
+    }
+
+    public static ProductFilter of(Collection<Long> categoryIds, Collection<Long> manufacturerIds,
+                                   Collection<Long> supplierIds, BigDecimal minPrice, BigDecimal maxPrice,
+                                   boolean inStockOnly) {
+        return new ProductFilter(toSet(categoryIds), toSet(manufacturerIds), toSet(supplierIds),
+                minPrice, maxPrice, inStockOnly);
+    }
+
+    private static Set<Long> toSet(Collection<Long> values) {
+        return values == null ? Set.of() : Set.copyOf(values);
+    }
+}
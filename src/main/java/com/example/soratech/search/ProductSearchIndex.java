@@ -0,0 +1,452 @@
+package com.example.soratech.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Инвертированный индекс товаров в памяти.
+ * Списки вхождений терма неизменяемы и подменяются при изменении товара,
+ * поэтому поиск идет без блокировок, а изменения выполняются по одному.
+ * Список разбит на блоки: изменение копирует один блок и массив ссылок на блоки,
+ * так что сохранение товара не зависит линейно от числа товаров с тем же термом.
+ *
+ * <p>Релевантность: сумма по словам запроса max(вес поля * idf * сходство терма).
+ * Товар должен содержать каждое слово запроса: точно, по префиксу (последнее слово)
+ * или с опечаткой (кандидаты по триграммам, если точного терма в словаре нет).
+ */
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3.0f;
+    static final float CATEGORY_WEIGHT = 1.5f;
+    static final float MANUFACTURER_WEIGHT = 1.5f;
+    static final float CHARACTERISTIC_WEIGHT = 1.0f;
+
+    private static final double PREFIX_SIMILARITY = 0.8;
+    private static final double FUZZY_FACTOR = 0.7;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EDITS = 2;
+    private static final int MAX_FUZZY_CANDIDATES = 200;
+    private static final int MAX_EXPANSIONS = 50;
+    // Размер блока списка вхождений при построении; блок делится пополам, когда вырастает вдвое
+    static final int BLOCK_SIZE = 512;
+
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::id);
+
+    private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> vocabulary = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, Set<String>> trigramIndex = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String[]> documentTerms = new ConcurrentHashMap<>();
+
+    /**
+     * Добавляет товар в индекс или заменяет его прежнюю версию.
+     */
+    public synchronized void index(ProductDocument document) {
+        removeTerms(document.id());
+        Map<String, Float> weights = weigh(document);
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            Postings current = postings.get(entry.getKey());
+            postings.put(entry.getKey(), current == null
+                    ? Postings.of(document.id(), entry.getValue())
+                    : current.with(document.id(), entry.getValue()));
+            if (current == null) {
+                addTerm(entry.getKey());
+            }
+        }
+        documentTerms.put(document.id(), weights.keySet().toArray(String[]::new));
+    }
+
+    public synchronized void remove(long id) {
+        removeTerms(id);
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    /**
+     * Поиск с пагинацией.
+     *
+     * @param after последний результат предыдущей страницы (keyset) или null
+     * @param skip сколько результатов пропустить (offset)
+     * @param limit размер страницы
+     */
+    public SearchResult search(String query, SearchHit after, int skip, int limit) {
+        List<String> queryTerms = TextAnalyzer.terms(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+
+        // Последнее слово может быть недописанным - для него ищем и по префиксу
+        List<Map<String, Double>> expansions = new ArrayList<>();
+        for (int i = 0; i < queryTerms.size(); i++) {
+            Map<String, Double> expanded = expand(queryTerms.get(i), i == queryTerms.size() - 1);
+            if (expanded.isEmpty()) {
+                return SearchResult.EMPTY;
+            }
+            expansions.add(expanded);
+        }
+        // Начинаем с самых редких слов, чтобы пересечение было минимальным
+        expansions.sort(Comparator.comparingLong(this::postingsSize));
+
+        int documents = Math.max(size(), 1);
+        Map<Long, Double> scores = null;
+        for (Map<String, Double> expanded : expansions) {
+            scores = match(expanded, documents, scores);
+            if (scores.isEmpty()) {
+                return SearchResult.EMPTY;
+            }
+        }
+
+        int window = skip + limit;
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(window + 1, RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            SearchHit hit = new SearchHit(entry.getKey(), entry.getValue());
+            if (after != null && !hit.isAfter(after)) {
+                continue;
+            }
+            top.offer(hit);
+            if (top.size() > window) {
+                top.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return new SearchResult(hits.subList(Math.min(skip, hits.size()), hits.size()), scores.size());
+    }
+
+    private Map<Long, Double> match(Map<String, Double> expanded, int documents, Map<Long, Double> previous) {
+        Map<Long, Double> best = new HashMap<>();
+        for (Map.Entry<String, Double> entry : expanded.entrySet()) {
+            Postings termPostings = postings.get(entry.getKey());
+            if (termPostings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (double) documents / termPostings.size());
+            for (int block = 0; block < termPostings.ids().length; block++) {
+                long[] ids = termPostings.ids()[block];
+                float[] weights = termPostings.weights()[block];
+                for (int i = 0; i < ids.length; i++) {
+                    long id = ids[i];
+                    if (previous != null && !previous.containsKey(id)) {
+                        continue;
+                    }
+                    best.merge(id, weights[i] * idf * entry.getValue(), Math::max);
+                }
+            }
+        }
+        if (previous != null) {
+            best.replaceAll((id, score) -> score + previous.get(id));
+        }
+        return best;
+    }
+
+    private Map<String, Double> expand(String term, boolean prefix) {
+        Map<String, Double> expanded = new HashMap<>();
+        if (postings.containsKey(term)) {
+            expanded.put(term, 1.0);
+        }
+        if (prefix) {
+            for (String candidate : vocabulary.subSet(term, false, term + Character.MAX_VALUE, false)) {
+                if (expanded.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expanded.putIfAbsent(candidate, PREFIX_SIMILARITY);
+            }
+        }
+        if (expanded.isEmpty() && term.length() >= MIN_FUZZY_LENGTH) {
+            expandFuzzy(term, expanded);
+        }
+        return expanded;
+    }
+
+    private void expandFuzzy(String term, Map<String, Double> expanded) {
+        // Кандидаты - термы словаря с общими триграммами, проверка - расстояние Дамерау-Левенштейна
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : TextAnalyzer.trigrams(term)) {
+            Set<String> candidates = trigramIndex.get(gram);
+            if (candidates == null) {
+                continue;
+            }
+            for (String candidate : candidates) {
+                if (Math.abs(candidate.length() - term.length()) <= MAX_EDITS) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        int maxEdits = term.length() <= 5 ? 1 : MAX_EDITS;
+        shared.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_FUZZY_CANDIDATES)
+                .map(e -> Map.entry(e.getKey(), editDistance(term, e.getKey())))
+                .filter(e -> e.getValue() <= maxEdits)
+                .sorted(Map.Entry.comparingByValue())
+                .limit(MAX_EXPANSIONS)
+                .forEach(e -> expanded.put(e.getKey(),
+                        FUZZY_FACTOR * (1 - (double) e.getValue() / Math.max(term.length(), e.getKey().length()))));
+    }
+
+    /**
+     * Расстояние Дамерау-Левенштейна (вставка, удаление, замена, перестановка соседних символов).
+     */
+    static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private long postingsSize(Map<String, Double> expanded) {
+        long size = 0;
+        for (String term : expanded.keySet()) {
+            Postings termPostings = postings.get(term);
+            size += termPostings != null ? termPostings.size() : 0;
+        }
+        return size;
+    }
+
+    private void removeTerms(long id) {
+        String[] terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings updated = postings.get(term).without(id);
+            if (updated.size() == 0) {
+                postings.remove(term);
+                removeTerm(term);
+            } else {
+                postings.put(term, updated);
+            }
+        }
+    }
+
+    private void addTerm(String term) {
+        vocabulary.add(term);
+        for (String gram : TextAnalyzer.trigrams(term)) {
+            trigramIndex.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(term);
+        }
+    }
+
+    private void removeTerm(String term) {
+        vocabulary.remove(term);
+        for (String gram : TextAnalyzer.trigrams(term)) {
+            Set<String> terms = trigramIndex.get(gram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    trigramIndex.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Вес терма в товаре - вес самого значимого поля, где он встретился.
+     */
+    private static Map<String, Float> weigh(ProductDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, document.name(), NAME_WEIGHT);
+        addField(weights, document.category(), CATEGORY_WEIGHT);
+        addField(weights, document.manufacturer(), MANUFACTURER_WEIGHT);
+        if (document.characteristics() != null) {
+            for (String characteristic : document.characteristics()) {
+                addField(weights, characteristic, CHARACTERISTIC_WEIGHT);
+            }
+        }
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : TextAnalyzer.terms(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    /**
+     * Массовое построение индекса при загрузке: товары добавляются по возрастанию id,
+     * списки вхождений дописываются в конец без копирования.
+     */
+    public static class Builder {
+
+        private final Map<String, GrowablePostings> postings = new HashMap<>();
+        private final Map<Long, String[]> documentTerms = new HashMap<>();
+        private long lastId = Long.MIN_VALUE;
+
+        public Builder add(ProductDocument document) {
+            if (document.id() <= lastId) {
+                throw new IllegalArgumentException("Товары должны добавляться по возрастанию id");
+            }
+            lastId = document.id();
+            Map<String, Float> weights = weigh(document);
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, k -> new GrowablePostings()).add(document.id(), weight));
+            documentTerms.put(document.id(), weights.keySet().toArray(String[]::new));
+            return this;
+        }
+
+        public ProductSearchIndex build() {
+            ProductSearchIndex index = new ProductSearchIndex();
+            postings.forEach((term, growable) -> {
+                index.postings.put(term, growable.freeze());
+                index.addTerm(term);
+            });
+            index.documentTerms.putAll(documentTerms);
+            return index;
+        }
+    }
+
+    public record SearchResult(List<SearchHit> hits, int total) {
+        static final SearchResult EMPTY = new SearchResult(List.of(), 0);
+    }
+
+    /**
+     * Вхождения терма по возрастанию id, блоками; блоки не пересекаются и тоже упорядочены.
+     */
+    private record Postings(long[][] ids, float[][] weights, int size) {
+
+        static Postings of(long id, float weight) {
+            return new Postings(new long[][]{{id}}, new float[][]{{weight}}, 1);
+        }
+
+        Postings with(long id, float weight) {
+            int block = blockOf(id);
+            long[] blockIds = ids[block];
+            float[] blockWeights = weights[block];
+            int position = Arrays.binarySearch(blockIds, id);
+            if (position >= 0) {
+                float[] newWeights = blockWeights.clone();
+                newWeights[position] = weight;
+                return replace(block, blockIds, newWeights, size);
+            }
+            int insertAt = -position - 1;
+            long[] newIds = new long[blockIds.length + 1];
+            float[] newWeights = new float[blockWeights.length + 1];
+            System.arraycopy(blockIds, 0, newIds, 0, insertAt);
+            System.arraycopy(blockWeights, 0, newWeights, 0, insertAt);
+            newIds[insertAt] = id;
+            newWeights[insertAt] = weight;
+            System.arraycopy(blockIds, insertAt, newIds, insertAt + 1, blockIds.length - insertAt);
+            System.arraycopy(blockWeights, insertAt, newWeights, insertAt + 1, blockWeights.length - insertAt);
+            if (newIds.length <= 2 * BLOCK_SIZE) {
+                return replace(block, newIds, newWeights, size + 1);
+            }
+            // Переполненный блок делится пополам, массив ссылок растет на один элемент
+            int half = newIds.length / 2;
+            long[][] splitIds = new long[ids.length + 1][];
+            float[][] splitWeights = new float[weights.length + 1][];
+            System.arraycopy(ids, 0, splitIds, 0, block);
+            System.arraycopy(weights, 0, splitWeights, 0, block);
+            splitIds[block] = Arrays.copyOfRange(newIds, 0, half);
+            splitWeights[block] = Arrays.copyOfRange(newWeights, 0, half);
+            splitIds[block + 1] = Arrays.copyOfRange(newIds, half, newIds.length);
+            splitWeights[block + 1] = Arrays.copyOfRange(newWeights, half, newWeights.length);
+            System.arraycopy(ids, block + 1, splitIds, block + 2, ids.length - block - 1);
+            System.arraycopy(weights, block + 1, splitWeights, block + 2, weights.length - block - 1);
+            return new Postings(splitIds, splitWeights, size + 1);
+        }
+
+        Postings without(long id) {
+            int block = blockOf(id);
+            long[] blockIds = ids[block];
+            float[] blockWeights = weights[block];
+            int position = Arrays.binarySearch(blockIds, id);
+            if (position < 0) {
+                return this;
+            }
+            if (blockIds.length == 1) {
+                long[][] newIds = new long[ids.length - 1][];
+                float[][] newWeights = new float[weights.length - 1][];
+                System.arraycopy(ids, 0, newIds, 0, block);
+                System.arraycopy(weights, 0, newWeights, 0, block);
+                System.arraycopy(ids, block + 1, newIds, block, ids.length - block - 1);
+                System.arraycopy(weights, block + 1, newWeights, block, weights.length - block - 1);
+                return new Postings(newIds, newWeights, size - 1);
+            }
+            long[] newIds = new long[blockIds.length - 1];
+            float[] newWeights = new float[blockWeights.length - 1];
+            System.arraycopy(blockIds, 0, newIds, 0, position);
+            System.arraycopy(blockWeights, 0, newWeights, 0, position);
+            System.arraycopy(blockIds, position + 1, newIds, position, blockIds.length - position - 1);
+            System.arraycopy(blockWeights, position + 1, newWeights, position, blockWeights.length - position - 1);
+            return replace(block, newIds, newWeights, size - 1);
+        }
+
+        /**
+         * Последний блок, первый id которого не больше искомого (или первый блок).
+         */
+        private int blockOf(long id) {
+            int low = 0;
+            int high = ids.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (ids[middle][0] <= id) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        private Postings replace(int block, long[] blockIds, float[] blockWeights, int newSize) {
+            long[][] newIds = ids.clone();
+            float[][] newWeights = weights.clone();
+            newIds[block] = blockIds;
+            newWeights[block] = blockWeights;
+            return new Postings(newIds, newWeights, newSize);
+        }
+    }
+
+    private static class GrowablePostings {
+
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+
+        Postings freeze() {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            long[][] blockIds = new long[blocks][];
+            float[][] blockWeights = new float[blocks][];
+            for (int block = 0; block < blocks; block++) {
+                int from = block * BLOCK_SIZE;
+                int to = Math.min(from + BLOCK_SIZE, size);
+                blockIds[block] = Arrays.copyOfRange(ids, from, to);
+                blockWeights[block] = Arrays.copyOfRange(weights, from, to);
+            }
+            return new Postings(blockIds, blockWeights, size);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.soratech.search;
+
+import com.example.soratech.repository.ProductDetailsRepository;
+import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.projection.ProductCharacteristicRow;
+import com.example.soratech.repository.projection.ProductIndexRow;
+import com.example.soratech.repository.projection.ProductSupplierRow;
+import com.example.soratech.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Полнотекстовый поиск и фасетная фильтрация товаров по индексам в памяти.
+ * Индексы строятся при старте приложения и обновляются после коммита изменений товаров и характеристик.
+ * Пока индексы не построены, они недоступны (isReady() == false) и вызывающий код использует запрос к БД.
+ */
+@Service
+public class ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final ProductDetailsRepository productDetailsRepository;
+    private final int batchSize;
+
+    private final Object rebuildLock = new Object();
+    private final Object lock = new Object();
+    private volatile ProductSearchIndex index;
+    private volatile ProductFacetIndex facetIndex;
+    // Изменения, пришедшие во время перестроения (null - товар удален); применяются к новому индексу
+    private Map<Long, ProductDocument> pendingChanges;
+
+    public ProductSearchService(ProductRepository productRepository,
+                                ProductDetailsRepository productDetailsRepository,
+                                @Value("${app.search.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productDetailsRepository = productDetailsRepository;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * @see ProductSearchIndex#search(String, SearchHit, int, int)
+     */
+    public ProductSearchIndex.SearchResult search(String query, SearchHit after, int skip, int limit) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Поисковый индекс еще не построен");
+        }
+        return current.search(query, after, skip, limit);
+    }
+
+    /**
+     * @see ProductFacetIndex#filter(ProductFilter, Long, int, int)
+     */
+    public ProductFacetIndex.FacetResult filter(ProductFilter filter, Long afterId, int skip, int limit) {
+        ProductFacetIndex current = facetIndex;
+        if (current == null) {
+            throw new IllegalStateException("Индекс каталога еще не построен, повторите запрос позже");
+        }
+        return current.filter(filter, afterId, skip, limit);
+    }
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Строит индексы заново по всем активным товарам, читая их пачками по id.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (lock) {
+                pendingChanges = new LinkedHashMap<>();
+            }
+            try {
+                ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+                ProductFacetIndex builtFacets = new ProductFacetIndex();
+                ScrollPosition position = ScrollPosition.keyset();
+                Window<ProductIndexRow> window;
+                do {
+                    window = productRepository.findIndexRowsByDeletedFalse(position, Limit.of(batchSize), Sort.by("id"));
+                    for (ProductDocument document : toDocuments(window.getContent())) {
+                        builder.add(document);
+                        builtFacets.index(document);
+                    }
+                    if (!window.isEmpty()) {
+                        position = window.positionAt(window.size() - 1);
+                    }
+                } while (window.hasNext());
+
+                ProductSearchIndex built = builder.build();
+                synchronized (lock) {
+                    pendingChanges.forEach((id, document) -> apply(built, builtFacets, id, document));
+                    index = built;
+                    facetIndex = builtFacets;
+                }
+                System.out.println("✓ Поисковый индекс товаров построен: " + built.size()
+                        + " товаров за " + (System.currentTimeMillis() - start) + " мс");
+            } finally {
+                synchronized (lock) {
+                    pendingChanges = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Переиндексирует товары после коммита текущей транзакции.
+     * Документы читаются сейчас, внутри транзакции, чтобы учесть ее изменения;
+     * удаленные и скрытые товары убираются из индекса.
+     */
+    public void reindexAfterCommit(Collection<Long> productIds) {
+        Set<Long> ids = new HashSet<>(productIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, ProductDocument> documents = new HashMap<>();
+        for (ProductDocument document : toDocuments(productRepository.findIndexRowsByIdInAndDeletedFalse(ids))) {
+            documents.put(document.id(), document);
+        }
+        TransactionUtils.afterCommit(() -> {
+            synchronized (lock) {
+                for (Long id : ids) {
+                    ProductDocument document = documents.get(id);
+                    if (index != null) {
+                        apply(index, facetIndex, id, document);
+                    }
+                    if (pendingChanges != null) {
+                        pendingChanges.put(id, document);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void apply(ProductSearchIndex target, ProductFacetIndex facets, Long id, ProductDocument document) {
+        if (document != null) {
+            target.index(document);
+            facets.index(document);
+        } else {
+            target.remove(id);
+            facets.remove(id);
+        }
+    }
+
+    private List<ProductDocument> toDocuments(List<ProductIndexRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(ProductIndexRow::getId).toList();
+        Map<Long, Set<Long>> suppliers = new HashMap<>();
+        for (ProductSupplierRow row : productRepository.findSupplierLinks(ids)) {
+            suppliers.computeIfAbsent(row.getProductId(), k -> new HashSet<>()).add(row.getSupplierId());
+        }
+        Map<Long, List<String>> characteristics = new HashMap<>();
+        for (ProductCharacteristicRow row : productDetailsRepository.findByProductIdInAndDeletedFalse(ids)) {
+            characteristics.computeIfAbsent(row.getProductId(), k -> new ArrayList<>())
+                    .add(Objects.toString(row.getCharacteristicName(), "") + " "
+                            + Objects.toString(row.getCharacteristicValue(), ""));
+        }
+        List<ProductDocument> documents = new ArrayList<>(rows.size());
+        for (ProductIndexRow row : rows) {
+            documents.add(new ProductDocument(row.getId(), row.getName(),
+                    row.getCategoryId(), row.getCategoryName(),
+                    row.getManufacturerId(), row.getManufacturerName(),
+                    suppliers.getOrDefault(row.getId(), Set.of()), row.getPrice(),
+                    row.getStockQuantity() != null ? row.getStockQuantity() : 0,
+                    characteristics.getOrDefault(row.getId(), List.of())));
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.soratech.search;
+
+/**
+ * Найденный товар и его релевантность. Выдача упорядочена по убыванию score, затем по id.
+ */
+public record SearchHit(long id, double score) {
+
+    /**
+     * Стоит ли этот результат в выдаче после указанного.
+     */
+    boolean isAfter(SearchHit other) {
+        return score < other.score || (score == other.score && id > other.id);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.soratech.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Разбор текста для поискового индекса: нормализация, токенизация, стемминг и триграммы.
+ * Кириллица и латиница обрабатываются раздельно, токены с цифрами (модели, артикулы) не стеммятся.
+ */
+public final class TextAnalyzer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    // Окончания русских существительных и прилагательных, от длинных к коротким
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "иях", "ией",
+            "ях", "ах", "ов", "ев", "ей", "ой", "ий", "ый", "ая", "яя", "ое", "ее", "ые", "ие",
+            "ую", "юю", "ам", "ям", "ом", "ем", "ии", "ия", "ью",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Термы текста в порядке появления (с повторами).
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                terms.add(stem(normalized.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    static String stem(String token) {
+        boolean cyrillic = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.isDigit(c)) {
+                return token;
+            }
+            if (Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC) {
+                cyrillic = true;
+            }
+        }
+        return cyrillic ? stemRussian(token) : stemEnglish(token);
+    }
+
+    private static String stemRussian(String token) {
+        for (String ending : RUSSIAN_ENDINGS) {
+            if (token.endsWith(ending) && token.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - ending.length());
+            }
+        }
+        return token;
+    }
+
+    private static String stemEnglish(String token) {
+        int length = token.length();
+        if (length > MIN_STEM_LENGTH + 2 && token.endsWith("ies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > MIN_STEM_LENGTH + 1
+                && (token.endsWith("ches") || token.endsWith("shes") || token.endsWith("sses") || token.endsWith("xes"))) {
+            return token.substring(0, length - 2);
+        }
+        if (length > MIN_STEM_LENGTH && token.endsWith("s")
+                && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    /**
+     * Триграммы терма с границами слова, для нечеткого поиска по сходству Жаккара.
+     */
+    public static Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.soratech.security;
+
+import com.example.soratech.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты входа и регистрации по IP клиента и по логину.
+ * Отсекает перебор паролей до обращения к БД и BCrypt.
+ */
+@Service
+public class AuthRateLimiter {
+
+    public static final String ACTION_LOGIN = "login";
+    public static final String ACTION_REGISTER = "register";
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter userLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.security.rate-limit.ip.capacity:30}") int ipCapacity,
+                           @Value("${app.security.rate-limit.ip.period:1m}") Duration ipPeriod,
+                           @Value("${app.security.rate-limit.user.capacity:10}") int userCapacity,
+                           @Value("${app.security.rate-limit.user.period:5m}") Duration userPeriod,
+                           @Value("${app.security.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${app.security.rate-limit.max-keys:100000}") long maxKeys) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipPeriod, idleTimeout, maxKeys);
+        this.userLimiter = new TokenBucketRateLimiter(userCapacity, userPeriod, idleTimeout, maxKeys);
+    }
+
+    /**
+     * Проверяет лимиты для запроса. Сначала IP, затем логин,
+     * чтобы запросы с заблокированного IP не расходовали лимит пользователя.
+     *
+     * @throws TooManyRequestsException если лимит исчерпан
+     */
+    public void check(String action, String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        if (clientIp != null) {
+            acquire(ipLimiter, action, "ip", action + ":" + clientIp);
+        }
+        if (username != null && !username.isBlank()) {
+            acquire(userLimiter, action, "user", action + ":" + username.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private void acquire(TokenBucketRateLimiter limiter, String action, String keyType, String key) {
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            rejectedCounter(action, keyType).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new TooManyRequestsException("Слишком много попыток, повторите позже", retryAfterSeconds);
+        }
+    }
+
+    private Counter rejectedCounter(String action, String keyType) {
+        return Counter.builder("auth.rate_limit.rejected")
+                .description("Запросы входа и регистрации, отклоненные ограничителем частоты")
+                .tag("action", action)
+                .tag("key", keyType)
+                .register(meterRegistry);
+    }
+}
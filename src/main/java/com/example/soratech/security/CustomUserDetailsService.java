@@ -2,31 +2,111 @@ package com.example.soratech.security;
 
 import com.example.soratech.model.User;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    /**
+     * Кэш пользователей по логину (email или телефон) для form login и remember-me.
+     * Метрики: cache.gets/cache.evictions с тегом cache=userDetails.
+     */
+    private final Cache<String, CachedUser> cache;
+
+    private final Counter invalidations;
+
+    /**
+     * Транзакция только для чтения открывается при промахе кэша, а не на каждый вход.
+     */
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.security.user-cache.ttl:10m}") Duration ttl,
+                                    @Value("${app.security.user-cache.max-size:10000}") long maxSize) {
         this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+        this.invalidations = Counter.builder("cache.invalidations")
+                .tag("cache", "userDetails")
+                .description("Явные сбросы записей кэша после изменения пользователя")
+                .register(meterRegistry);
     }
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Попытка найти пользователя по email или телефону
-        User user = userRepository.findByEmail(username)
-                .or(() -> userRepository.findByPhone(username))
+        CachedUser cached = cache.get(username, this::loadFromDatabase);
+        // Возвращаем копию: ProviderManager стирает пароль у principal после аутентификации
+        return cached.toUserDetails();
+    }
+
+    /**
+     * Сохраняет хеш, пересчитанный при входе с новой стоимостью BCrypt.
+     * Пароль не меняется, поэтому версия токенов не увеличивается.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByEmail(user.getUsername()).ifPresent(existing -> {
+            userRepository.updatePasswordByEmail(existing.getEmail(), newPassword);
+            evict(existing.getId());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Сбрасывает все записи пользователя (по email и по телефону) после коммита текущей транзакции,
+     * чтобы деактивация и смена роли применялись сразу.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            if (cache.asMap().values().removeIf(user -> userId.equals(user.userId()))) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    private CachedUser loadFromDatabase(String username) {
+        return readOnlyTransaction.execute(status -> readUser(username));
+    }
+
+    private CachedUser readUser(String username) {
+        // Поиск по email или телефону одним запросом
+        User user = userRepository.findByLogin(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
 
         if (!user.isActive()) {
@@ -40,16 +120,33 @@ public class CustomUserDetailsService implements UserDetailsService {
         // Теперь у пользователя одна роль
         GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().getName());
 
-        return new org.springframework.security.core.userdetails.User(
+        return new CachedUser(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
                 user.isActive(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                !user.isDeleted(), // accountNonLocked
+                !user.isDeleted(),
                 Collections.singletonList(authority)
         );
     }
-}
 
+    private record CachedUser(Long userId,
+                              String email,
+                              String password,
+                              boolean enabled,
+                              boolean accountNonLocked,
+                              List<GrantedAuthority> authorities) {
 
+        UserDetails toUserDetails() {
+            return new org.springframework.security.core.userdetails.User(
+                    email,
+                    password,
+                    enabled,
+                    true, // accountNonExpired
+                    true, // credentialsNonExpired
+                    accountNonLocked,
+                    authorities
+            );
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.soratech.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +26,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    /**
+     * true - пользователь восстанавливается из claims токена без запроса к БД;
+     * false - на каждый запрос загружается через CustomUserDetailsService.
+     */
+    @Value("${app.jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                    HttpServletResponse response,
@@ -40,10 +52,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            // Один разбор токена: подпись проверяется только при промахе кэша
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getClaimsFromToken(jwt) : null;
+
+            // null - токен отозван, запрос продолжается как анонимный
+            UserDetails userDetails = claims != null ? resolveUser(claims) : null;
 
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -58,6 +73,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Определяет пользователя по проверенному токену.
+     * Возвращает null, если версия токена устарела (токен отозван).
+     */
+    private UserDetails resolveUser(Claims claims) {
+        if (statelessPrincipal) {
+            JwtUserPrincipal principal = tokenProvider.getPrincipalFromClaims(claims);
+            if (principal != null) {
+                return tokenVersionService.isCurrent(principal.getId(), principal.getTokenVersion())
+                        ? principal
+                        : null;
+            }
+        }
+        // Токены без id пользователя (старый формат) или режим с загрузкой из БД
+        return customUserDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
     /**
      * Извлекает JWT токен из заголовка Authorization
      */
@@ -1,32 +1,92 @@
 package com.example.soratech.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${app.jwt.secret:soratech_super_secret_key_for_jwt_token_generation_2024_minimum_512_bits}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration:86400000}") // 24 часа по умолчанию
     private long jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${app.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * Кэш проверенных claims по SHA-256 токена.
+     * Запись живет ровно до истечения срока действия токена.
+     */
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    void init() {
+        // Ключ и парсер неизменяемы и потокобезопасны - создаем один раз
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(Authentication authentication) {
+        return generateToken(authentication, null, 0);
+    }
+
+    /**
+     * Генерирует токен с id пользователя и версией токенов,
+     * чтобы фильтр мог восстановить пользователя без запроса к БД.
+     */
+    public String generateToken(Authentication authentication, Long userId, int tokenVersion) {
         String username = authentication.getName();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
@@ -35,35 +95,87 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(username)
-                .claim("roles", roles)
+                .claim(CLAIM_ROLES, roles)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        if (userId != null) {
+            builder.claim(CLAIM_USER_ID, userId)
+                    .claim(CLAIM_TOKEN_VERSION, tokenVersion);
+        }
+        return builder.signWith(signingKey).compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Проверяет подпись и срок действия токена за один разбор.
+     * Повторные запросы с тем же токеном обслуживаются из кэша без проверки подписи.
+     *
+     * @return claims токена или null, если токен невалиден или истек
+     */
+    public Claims getClaimsFromToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
 
+        String key = hash(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                claimsCache.put(key, claims);
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            // Невалидные токены не кэшируем
+            return null;
+        }
+    }
+
+    /**
+     * Собирает principal из проверенных claims.
+     * Возвращает null для токенов старого формата без id пользователя.
+     */
+    public JwtUserPrincipal getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || tokenVersion == null) {
+            return null;
+        }
+
+        String roles = claims.get(CLAIM_ROLES, String.class);
+        List<GrantedAuthority> authorities = roles == null || roles.isEmpty()
+                ? List.of()
+                : Arrays.stream(roles.split(","))
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+
+        return new JwtUserPrincipal(userId.longValue(), claims.getSubject(), tokenVersion.intValue(), authorities);
+    }
+
+    public String getUsernameFromToken(String token) {
+        Claims claims = getClaimsFromToken(token);
+        if (claims == null) {
+            throw new JwtException("Невалидный JWT токен");
+        }
         return claims.getSubject();
     }
 
     public boolean validateToken(String token) {
+        return getClaimsFromToken(token) != null;
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // Логируем ошибку валидации токена
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
         }
     }
 }
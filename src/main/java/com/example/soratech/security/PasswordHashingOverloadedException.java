@@ -0,0 +1,14 @@
+package com.example.soratech.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Пул хеширования паролей переполнен. REST API отвечает 429 Too Many Requests,
+ * form login - обычной ошибкой входа.
+ */
+public class PasswordHashingOverloadedException extends AuthenticationServiceException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
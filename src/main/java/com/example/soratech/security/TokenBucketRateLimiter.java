@@ -0,0 +1,71 @@
+package com.example.soratech.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket без блокировок (алгоритм GCRA).
+ * Состояние ведра - одно число: теоретическое время прибытия следующего запроса (TAT),
+ * обновляется через CAS. Ведра хранятся в ограниченном кэше и удаляются после простоя.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity размер ведра (сколько запросов можно сделать подряд)
+     * @param period за это время ведро полностью восполняется
+     * @param idleTimeout ведро удаляется, если к ключу не обращались это время
+     * @param maxKeys максимальное число отслеживаемых ключей
+     * @param nanoClock источник времени в наносекундах (в тестах - ручные часы)
+     */
+    public TokenBucketRateLimiter(int capacity, Duration period, Duration idleTimeout, long maxKeys,
+                                  LongSupplier nanoClock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер ведра должен быть положительным");
+        }
+        this.intervalNanos = Math.max(period.toNanos() / capacity, 1);
+        this.burstNanos = intervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public TokenBucketRateLimiter(int capacity, Duration period, Duration idleTimeout, long maxKeys) {
+        this(capacity, period, idleTimeout, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Пытается взять один токен.
+     *
+     * @return 0, если запрос разрешен, иначе время в наносекундах до появления токена
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long overflow = next - now - burstNanos;
+            if (overflow > 0) {
+                return overflow;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+}
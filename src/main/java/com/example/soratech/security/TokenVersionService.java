@@ -0,0 +1,63 @@
+package com.example.soratech.security;
+
+import com.example.soratech.repository.UserRepository;
+import com.example.soratech.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Легковесная проверка отзыва JWT.
+ * Для каждого пользователя кэшируется актуальная версия токенов; токен с другой версией
+ * (или токен удаленного/неактивного пользователя) считается отозванным.
+ */
+@Service
+public class TokenVersionService {
+
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${app.jwt.token-version-cache.ttl:60s}") Duration ttl,
+                               @Value("${app.jwt.token-version-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Проверяет, что версия из токена совпадает с текущей версией пользователя.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findActiveTokenVersionById(id).orElse(REVOKED));
+        return current != REVOKED && current == tokenVersion;
+    }
+
+    /**
+     * Отзывает все выданные пользователю токены.
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        evict(userId);
+    }
+
+    /**
+     * Сбрасывает закэшированную версию. Внутри транзакции сброс откладывается
+     * до коммита, чтобы параллельный запрос не закэшировал старое значение.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> versions.invalidate(userId));
+    }
+}
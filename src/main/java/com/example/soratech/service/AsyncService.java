@@ -1,5 +1,8 @@
 package com.example.soratech.service;
 
+import com.example.soratech.report.SalesReportService;
+import com.example.soratech.report.SalesRollupService;
+import com.example.soratech.task.TaskRegistry;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -8,20 +11,39 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class AsyncService {
 
+    public static final String REPORT_REBUILD = "rebuild";
+
+    private final InventoryService inventoryService;
+    private final TaskRegistry taskRegistry;
+    private final DownstreamLimiter downstreamLimiter;
+    private final SalesReportService salesReportService;
+    private final SalesRollupService salesRollupService;
+
+    public AsyncService(InventoryService inventoryService, TaskRegistry taskRegistry, DownstreamLimiter downstreamLimiter,
+                        SalesReportService salesReportService, SalesRollupService salesRollupService) {
+        this.inventoryService = inventoryService;
+        this.taskRegistry = taskRegistry;
+        this.downstreamLimiter = downstreamLimiter;
+        this.salesReportService = salesReportService;
+        this.salesRollupService = salesRollupService;
+    }
+
     /**
      * Асинхронная отправка email
-     * Симулирует отправку письма с задержкой 2 секунды
+     * Симулирует отправку письма с задержкой 2 секунды.
+     * Состояние задачи taskId отслеживает TaskRegistry; ошибка завершает future исключением (задача FAILED)
      */
     @Async("taskExecutor")
-    public CompletableFuture<String> sendEmailAsync(String to, String subject, String body) {
+    public CompletableFuture<String> sendEmailAsync(String taskId, String to, String subject, String body) {
+        taskRegistry.start(taskId);
         try {
             System.out.println("=== НАЧАЛО АСИНХРОННОЙ ОПЕРАЦИИ ===");
             System.out.println("Отправка email на: " + to);
             System.out.println("Тема: " + subject);
             System.out.println("Поток: " + Thread.currentThread().getName());
             
-            // Симуляция длительной операции
-            Thread.sleep(2000);
+            // Симуляция длительной операции (обращение к почтовому серверу)
+            downstreamLimiter.run(DownstreamLimiter.Downstream.EMAIL, () -> Thread.sleep(2000));
             
             System.out.println("✓ Email успешно отправлен");
             System.out.println("=== КОНЕЦ АСИНХРОННОЙ ОПЕРАЦИИ ===");
@@ -29,29 +51,27 @@ public class AsyncService {
             return CompletableFuture.completedFuture("Email успешно отправлен");
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            return CompletableFuture.completedFuture("Ошибка отправки email");
+            return CompletableFuture.failedFuture(new IllegalStateException("Отправка email прервана"));
         }
     }
     
     /**
      * Асинхронная обработка заказа
-     * Симулирует обработку заказа с задержкой 3 секунды
+     * Резервирует товар по позициям заказа, создание накладной симулируется задержкой 1 секунда
      */
     @Async("taskExecutor")
-    public CompletableFuture<String> processOrderAsync(Long orderId) {
+    public CompletableFuture<String> processOrderAsync(String taskId, Long orderId) {
+        taskRegistry.start(taskId);
         try {
             System.out.println("=== НАЧАЛО ОБРАБОТКИ ЗАКАЗА ===");
             System.out.println("ID заказа: " + orderId);
             System.out.println("Поток: " + Thread.currentThread().getName());
             
-            // Симуляция обработки:
-            // - Проверка остатков на складе
-            Thread.sleep(1000);
+            // - Проверка остатков и резервирование товаров (атомарное списание со склада)
             System.out.println("  1/3 Проверка остатков...");
-            
-            // - Резервирование товаров
-            Thread.sleep(1000);
-            System.out.println("  2/3 Резервирование товаров...");
+            inventoryService.syncOrder(orderId);
+            System.out.println("  2/3 Товары зарезервированы");
+            taskRegistry.progress(taskId, 66);
             
             // - Создание накладной
             Thread.sleep(1000);
@@ -63,35 +83,46 @@ public class AsyncService {
             return CompletableFuture.completedFuture("Заказ обработан успешно");
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            return CompletableFuture.completedFuture("Ошибка обработки заказа");
+            return CompletableFuture.failedFuture(new IllegalStateException("Обработка заказа прервана"));
+        } catch (RuntimeException e) {
+            System.out.println("✗ Заказ #" + orderId + " не обработан: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
         }
     }
     
     /**
      * Асинхронная генерация отчета
-     * Симулирует генерацию отчета с задержкой 5 секунд
+     * reportType - период отчета о продажах (day, week, month, year), отчет строится по сводным таблицам.
+     * rebuild - пересчет сводных таблиц по всем заказам, процент выполнения виден в статусе задачи
      */
     @Async("taskExecutor")
-    public CompletableFuture<String> generateReportAsync(String reportType) {
+    public CompletableFuture<String> generateReportAsync(String taskId, String reportType) {
+        taskRegistry.start(taskId);
         try {
             System.out.println("=== НАЧАЛО ГЕНЕРАЦИИ ОТЧЕТА ===");
             System.out.println("Тип отчета: " + reportType);
             System.out.println("Поток: " + Thread.currentThread().getName());
             
-            // Симуляция генерации отчета
-            for (int i = 1; i <= 5; i++) {
-                Thread.sleep(1000);
-                System.out.println("  Прогресс: " + (i * 20) + "%");
-            }
+            String[] result = new String[1];
+            downstreamLimiter.run(DownstreamLimiter.Downstream.REPORTS, () -> {
+                if (REPORT_REBUILD.equals(reportType)) {
+                    int changed = salesRollupService.rebuild(percent -> taskRegistry.progress(taskId, percent));
+                    result[0] = "Сводные таблицы продаж пересчитаны, изменено заказов: " + changed;
+                } else {
+                    result[0] = salesReportService.summarize(salesReportService.buildForPeriod(reportType));
+                }
+            });
             
             System.out.println("✓ Отчет '" + reportType + "' успешно сгенерирован");
             System.out.println("=== КОНЕЦ ГЕНЕРАЦИИ ОТЧЕТА ===");
             
-            return CompletableFuture.completedFuture("Отчет готов");
+            return CompletableFuture.completedFuture(result[0]);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            return CompletableFuture.completedFuture("Ошибка генерации отчета");
+            return CompletableFuture.failedFuture(new IllegalStateException("Генерация отчета прервана"));
+        } catch (RuntimeException e) {
+            System.out.println("✗ Отчет '" + reportType + "' не сгенерирован: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
         }
     }
 }
-
@@ -1,17 +1,18 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Category;
+import com.example.soratech.repository.projection.CategoryRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface CategoryService {
-    Page<Category> findAllActive(Pageable pageable);
-    
-    Page<Category> findAllDeleted(Pageable pageable);
-    
-    Page<Category> searchByName(String name, Pageable pageable);
+    Page<CategoryRow> findAllActive(Pageable pageable);
     
     List<Category> findAllActive();
     
@@ -30,4 +31,9 @@ public interface CategoryService {
     void deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
\ No newline at end of file
+
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<CategoryRow> findAll(GridQuery query, Pageable pageable);
+
+    Window<CategoryRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
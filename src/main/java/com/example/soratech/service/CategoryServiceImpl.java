@@ -2,9 +2,15 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.Category;
 import com.example.soratech.repository.CategoryRepository;
+import com.example.soratech.repository.projection.CategoryRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +20,12 @@ import java.util.List;
 @Transactional
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final GridSpec<Category> GRID = GridSpec.<Category>builder()
+            .contains("query", "name")
+            .contains("name", "name")
+            .sortable("name")
+            .build();
+
     private final CategoryRepository categoryRepository;
 
     public CategoryServiceImpl(CategoryRepository categoryRepository) {
@@ -21,20 +33,10 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    public Page<Category> findAllActive(Pageable pageable) {
+    public Page<CategoryRow> findAllActive(Pageable pageable) {
         return categoryRepository.findAllByDeletedFalse(pageable);
     }
 
-    @Override
-    public Page<Category> findAllDeleted(Pageable pageable) {
-        return categoryRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Category> searchByName(String name, Pageable pageable) {
-        return categoryRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
-    }
-
     @Override
     public List<Category> findAllActive() {
         return categoryRepository.findAllByDeletedFalse();
@@ -91,4 +93,14 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDeleted(false);
         categoryRepository.save(category);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Page<CategoryRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(categoryRepository, CategoryRow.class, query, pageable, categoryRepository::findAllByDeletedFalse);
+    }
+
+    @Override
+    public Window<CategoryRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(categoryRepository, CategoryRow.class, query, position, limit);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.soratech.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение числа одновременных обращений к каждому внешнему сервису (почта, SMS, генерация отчетов).
+ * Когда фоновые задачи не ограничены размером пула (виртуальные потоки), именно этот предел защищает
+ * внешний сервис от всплеска; перегрузка одного сервиса не задерживает обращения к остальным.
+ * Свободные разрешения видны в метрике async.downstream.available (тег downstream).
+ */
+@Component
+public class DownstreamLimiter {
+
+    public enum Downstream {
+        EMAIL, SMS, REPORTS
+    }
+
+    /**
+     * Блокирующее обращение к внешнему сервису.
+     */
+    @FunctionalInterface
+    public interface BlockingCall {
+        void run() throws InterruptedException;
+    }
+
+    private final Map<Downstream, Semaphore> permits = new EnumMap<>(Downstream.class);
+    private final Duration acquireTimeout;
+
+    public DownstreamLimiter(@Value("${app.async.limits.email:20}") int email,
+                             @Value("${app.async.limits.sms:20}") int sms,
+                             @Value("${app.async.limits.reports:2}") int reports,
+                             @Value("${app.async.limits.acquire-timeout:30s}") Duration acquireTimeout,
+                             MeterRegistry meterRegistry) {
+        permits.put(Downstream.EMAIL, new Semaphore(email, true));
+        permits.put(Downstream.SMS, new Semaphore(sms, true));
+        permits.put(Downstream.REPORTS, new Semaphore(reports, true));
+        this.acquireTimeout = acquireTimeout;
+        permits.forEach((downstream, semaphore) -> Gauge
+                .builder("async.downstream.available", semaphore, Semaphore::availablePermits)
+                .tag("downstream", downstream.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    /**
+     * Выполняет обращение, дождавшись свободного разрешения (не дольше app.async.limits.acquire-timeout).
+     *
+     * @throws IllegalStateException если сервис занят дольше таймаута
+     */
+    public void run(Downstream downstream, BlockingCall call) throws InterruptedException {
+        Semaphore semaphore = permits.get(downstream);
+        if (!semaphore.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Сервис " + downstream.name().toLowerCase()
+                    + " перегружен: нет свободного обращения за " + acquireTimeout.toSeconds() + " с");
+        }
+        try {
+            call.run();
+        } finally {
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.soratech.service;
+
+/**
+ * Складской остаток и резервирование товара под заказы.
+ * Остаток меняется только условными UPDATE (stock = stock - n WHERE stock >= n),
+ * поэтому параллельные заказы не продают больше, чем есть на складе.
+ */
+public interface InventoryService {
+
+    /**
+     * Приводит резервы заказа в соответствие с его позициями и статусом:
+     * недостающее количество списывается со склада, лишнее возвращается.
+     * Заказ в статусе PENDING удерживает товар на время app.inventory.hold-ttl,
+     * в остальных статусах резерв подтвержден, отмененный заказ (CANCELLED) возвращает все.
+     *
+     * @throws com.example.soratech.exception.InsufficientStockException если товара не хватает
+     */
+    void syncOrder(Long orderId);
+
+    /**
+     * Возвращает на склад товар заказа, который еще не отгружен, и удаляет его резервы.
+     * Вызывается перед удалением заказа.
+     */
+    void discardOrder(Long orderId);
+
+    /**
+     * Возвращает на склад просроченные удержания. Выполняется по расписанию.
+     *
+     * @return число истекших резервов
+     */
+    int expireHolds();
+
+    int getAvailableStock(Long productId);
+
+    /**
+     * Устанавливает свободный остаток товара (у товара с полосами - делит его между полосами).
+     */
+    void setStock(Long productId, int quantity);
+
+    /**
+     * Переключает режим полос для популярного товара: остаток делится на stripes строк,
+     * и одновременные резервы списывают товар из разных строк, не ожидая друг друга.
+     * 0 - собрать остаток обратно в одну строку товара.
+     */
+    void setStockStripes(Long productId, int stripes);
+}
@@ -0,0 +1,353 @@
+package com.example.soratech.service;
+
+import com.example.soratech.exception.InsufficientStockException;
+import com.example.soratech.model.Order;
+import com.example.soratech.model.ProductStockStripe;
+import com.example.soratech.model.StockReservation;
+import com.example.soratech.repository.OrderItemRepository;
+import com.example.soratech.repository.OrderRepository;
+import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.ProductStockStripeRepository;
+import com.example.soratech.repository.StockReservationRepository;
+import com.example.soratech.repository.projection.OrderItemQuantityRow;
+import com.example.soratech.repository.projection.StockStripeRow;
+import com.example.soratech.search.ProductSearchService;
+import com.example.soratech.util.IdChunks;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@Transactional
+public class InventoryServiceImpl implements InventoryService {
+
+    static final String STATUS_PENDING = "PENDING";
+    static final String STATUS_CANCELLED = "CANCELLED";
+    // После отгрузки товар на склад не возвращается даже при удалении заказа
+    private static final Set<String> SHIPPED_STATUSES = Set.of("SHIPPED", "DELIVERED");
+    private static final Set<StockReservation.Status> ACTIVE =
+            Set.of(StockReservation.Status.HELD, StockReservation.Status.CONFIRMED);
+    static final int MAX_STRIPES = 64;
+    // Сколько раз повторить операцию, если товар переключили в режим полос (или обратно) прямо во время нее
+    private static final int MODE_ATTEMPTS = 3;
+
+    private record Portion(Integer stripe, int quantity) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductStockStripeRepository stripeRepository;
+    private final StockReservationRepository reservationRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductSearchService productSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration holdTtl;
+    private final int sweepBatchSize;
+
+    public InventoryServiceImpl(ProductRepository productRepository,
+                                ProductStockStripeRepository stripeRepository,
+                                StockReservationRepository reservationRepository,
+                                OrderRepository orderRepository,
+                                OrderItemRepository orderItemRepository,
+                                ProductSearchService productSearchService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.inventory.hold-ttl:15m}") Duration holdTtl,
+                                @Value("${app.inventory.sweep-batch-size:100}") int sweepBatchSize) {
+        this.productRepository = productRepository;
+        this.stripeRepository = stripeRepository;
+        this.reservationRepository = reservationRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productSearchService = productSearchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.holdTtl = holdTtl;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    @Override
+    public void syncOrder(Long orderId) {
+        Order order = lockOrder(orderId);
+        Map<Long, Integer> wanted = new TreeMap<>();
+        if (!STATUS_CANCELLED.equals(order.getStatus())) {
+            for (OrderItemQuantityRow row : orderItemRepository.sumQuantityByOrderId(orderId)) {
+                wanted.put(row.getProductId(), Math.toIntExact(row.getQuantity()));
+            }
+        }
+        Map<Long, List<StockReservation>> reserved = activeReservations(orderId);
+        boolean hold = STATUS_PENDING.equals(order.getStatus());
+
+        // Товары обходятся по возрастанию id: все транзакции блокируют строки остатка в одном порядке
+        Set<Long> productIds = new TreeSet<>(wanted.keySet());
+        productIds.addAll(reserved.keySet());
+        Set<Long> changed = new TreeSet<>();
+        for (Long productId : productIds) {
+            List<StockReservation> reservations = reserved.getOrDefault(productId, List.of());
+            int missing = wanted.getOrDefault(productId, 0)
+                    - reservations.stream().mapToInt(StockReservation::getQuantity).sum();
+            if (missing > 0) {
+                reserve(order, productId, missing, hold);
+                changed.add(productId);
+            } else if (missing < 0) {
+                release(productId, reservations, -missing);
+                changed.add(productId);
+            }
+            if (!hold) {
+                reservations.stream().filter(r -> r.getStatus() == StockReservation.Status.HELD).forEach(r -> {
+                    r.setStatus(StockReservation.Status.CONFIRMED);
+                    r.setExpiresAt(null);
+                });
+            }
+        }
+        // Остаток изменился - фасет "в наличии" в индексе каталога пересчитывается после коммита
+        productSearchService.reindexAfterCommit(changed);
+    }
+
+    @Override
+    public void discardOrder(Long orderId) {
+        Order order = lockOrder(orderId);
+        if (!SHIPPED_STATUSES.contains(order.getStatus())) {
+            Map<Long, List<StockReservation>> reserved = activeReservations(orderId);
+            reserved.forEach((productId, reservations) -> release(productId, reservations,
+                    reservations.stream().mapToInt(StockReservation::getQuantity).sum()));
+            productSearchService.reindexAfterCommit(reserved.keySet());
+        }
+        reservationRepository.deleteByOrderId(orderId);
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.inventory.sweep-interval:30s}",
+            fixedDelayString = "${app.inventory.sweep-interval:30s}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        // Каждый заказ в своей короткой транзакции, чтобы не держать блокировки всей пачки
+        for (Long orderId : reservationRepository.findOrderIdsByStatusAndExpiresAtBefore(
+                StockReservation.Status.HELD, now, Limit.of(sweepBatchSize))) {
+            expired += transactionTemplate.execute(status -> expireOrderHolds(orderId, now));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> stale = productRepository.findIdsWithStaleStripedStock();
+            IdChunks.sum(stale, productRepository::refreshStripedStock);
+            productSearchService.reindexAfterCommit(stale);
+        });
+        return expired;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getAvailableStock(Long productId) {
+        return stripesOf(productId) == 0
+                ? productRepository.findStockQuantityById(productId).orElse(0)
+                : stripeRepository.sumQuantityByProductId(productId);
+    }
+
+    @Override
+    public void setStock(Long productId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Количество на складе не может быть отрицательным");
+        }
+        for (int attempt = 0; attempt < MODE_ATTEMPTS; attempt++) {
+            int stripes = stripesOf(productId);
+            // Сначала строка товара, затем полосы - тот же порядок блокировок, что и в setStockStripes
+            if (productRepository.updateStock(productId, quantity, stripes) == 0) {
+                continue;
+            }
+            List<StockStripeRow> locked = stripes > 0 ? stripeRepository.lockByProductId(productId) : List.of();
+            for (int i = 0; i < locked.size(); i++) {
+                stripeRepository.updateQuantity(productId, locked.get(i).getStripe(), share(quantity, locked.size(), i));
+            }
+            return;
+        }
+        throw new IllegalStateException("Остаток товара с ID " + productId + " изменяется параллельно, повторите операцию");
+    }
+
+    @Override
+    public void setStockStripes(Long productId, int stripes) {
+        if (stripes < 0 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("Число полос остатка должно быть от 0 до " + MAX_STRIPES);
+        }
+        int current = stripesOf(productId);
+        if (current == stripes) {
+            return;
+        }
+        // UPDATE блокирует строку товара: параллельные списания в старом режиме дождутся коммита
+        // и не найдут строку по условию stockStripes, после чего повторят попытку в новом режиме
+        if (productRepository.updateStockStripes(productId, current, stripes) == 0) {
+            throw new IllegalStateException("Режим остатка товара с ID " + productId + " изменен параллельно, повторите операцию");
+        }
+        int total = current > 0
+                ? stripeRepository.lockByProductId(productId).stream().mapToInt(StockStripeRow::getQuantity).sum()
+                : productRepository.findStockQuantityById(productId).orElse(0);
+        stripeRepository.deleteByProductId(productId);
+        for (int i = 0; i < stripes; i++) {
+            stripeRepository.save(new ProductStockStripe(productId, i, share(total, stripes, i)));
+        }
+        productRepository.updateStock(productId, total, stripes);
+    }
+
+    private Integer expireOrderHolds(Long orderId, LocalDateTime now) {
+        lockOrder(orderId);
+        List<StockReservation> expired = new ArrayList<>(reservationRepository.findByOrderIdAndStatusAndExpiresAtBefore(
+                orderId, StockReservation.Status.HELD, now));
+        expired.sort(Comparator.comparing(r -> r.getProduct().getId()));
+        for (StockReservation reservation : expired) {
+            giveBack(reservation.getProduct().getId(), reservation.getStripe(), reservation.getQuantity());
+            reservation.setStatus(StockReservation.Status.EXPIRED);
+        }
+        productSearchService.reindexAfterCommit(expired.stream().map(r -> r.getProduct().getId()).toList());
+        return expired.size();
+    }
+
+    private Order lockOrder(Long orderId) {
+        return orderRepository.findForUpdateById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Заказ с ID " + orderId + " не найден"));
+    }
+
+    // Действующие резервы по товарам, в каждом списке сначала самые новые
+    private Map<Long, List<StockReservation>> activeReservations(Long orderId) {
+        Map<Long, List<StockReservation>> reserved = new TreeMap<>();
+        for (StockReservation reservation : reservationRepository.findByOrderIdAndStatusInOrderByIdDesc(orderId, ACTIVE)) {
+            reserved.computeIfAbsent(reservation.getProduct().getId(), k -> new ArrayList<>()).add(reservation);
+        }
+        return reserved;
+    }
+
+    private void reserve(Order order, Long productId, int quantity, boolean hold) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Portion portion : take(productId, quantity)) {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrder(order);
+            reservation.setProduct(productRepository.getReferenceById(productId));
+            reservation.setStripe(portion.stripe());
+            reservation.setQuantity(portion.quantity());
+            reservation.setStatus(hold ? StockReservation.Status.HELD : StockReservation.Status.CONFIRMED);
+            reservation.setExpiresAt(hold ? now.plus(holdTtl) : null);
+            reservation.setCreatedAt(now);
+            reservationRepository.save(reservation);
+        }
+    }
+
+    /**
+     * Возвращает quantity единиц товара, начиная с самых новых резервов.
+     */
+    private void release(Long productId, List<StockReservation> reservations, int quantity) {
+        int remaining = quantity;
+        for (StockReservation reservation : reservations) {
+            if (remaining == 0) {
+                break;
+            }
+            int part = Math.min(remaining, reservation.getQuantity());
+            giveBack(productId, reservation.getStripe(), part);
+            if (part == reservation.getQuantity()) {
+                reservation.setStatus(StockReservation.Status.RELEASED);
+            } else {
+                reservation.setQuantity(reservation.getQuantity() - part);
+            }
+            remaining -= part;
+        }
+    }
+
+    private List<Portion> take(Long productId, int quantity) {
+        for (int attempt = 0; attempt < MODE_ATTEMPTS; attempt++) {
+            int stripes = stripesOf(productId);
+            if (stripes == 0) {
+                if (productRepository.decrementStock(productId, quantity) == 1) {
+                    return List.of(new Portion(null, quantity));
+                }
+            } else {
+                List<Portion> portions = takeFromStripes(productId, quantity);
+                if (portions != null) {
+                    return portions;
+                }
+            }
+            if (stripesOf(productId) == stripes) {
+                throw new InsufficientStockException(productId, quantity);
+            }
+        }
+        throw new InsufficientStockException(productId, quantity);
+    }
+
+    /**
+     * Списывает товар из первой незанятой полосы, где его хватает (FOR UPDATE SKIP LOCKED),
+     * так что параллельные резервы расходятся по разным строкам и не ждут друг друга.
+     * Если такой полосы нет, блокирует все полосы по порядку и собирает количество по частям.
+     * До этого транзакция не держит ни одной полосы, поэтому взаимной блокировки не возникает.
+     *
+     * @return списанные части или null, если полос у товара уже нет
+     */
+    private List<Portion> takeFromStripes(Long productId, int quantity) {
+        List<Integer> free = stripeRepository.lockAvailable(productId, quantity);
+        if (!free.isEmpty() && stripeRepository.decrement(productId, free.get(0), quantity) == 1) {
+            return List.of(new Portion(free.get(0), quantity));
+        }
+        List<StockStripeRow> locked = stripeRepository.lockByProductId(productId);
+        if (locked.isEmpty()) {
+            return null;
+        }
+        if (locked.stream().mapToInt(StockStripeRow::getQuantity).sum() < quantity) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+        List<Portion> portions = new ArrayList<>();
+        int remaining = quantity;
+        for (StockStripeRow row : locked) {
+            int part = Math.min(remaining, row.getQuantity());
+            if (part > 0) {
+                stripeRepository.decrement(productId, row.getStripe(), part);
+                portions.add(new Portion(row.getStripe(), part));
+                remaining -= part;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return portions;
+    }
+
+    /**
+     * Возвращает товар на склад: в исходную полосу, если она еще есть, иначе в текущий режим хранения.
+     */
+    private void giveBack(Long productId, Integer stripe, int quantity) {
+        for (int attempt = 0; attempt < MODE_ATTEMPTS; attempt++) {
+            int stripes = stripesOf(productId);
+            if (stripes == 0) {
+                if (productRepository.incrementStock(productId, quantity) == 1) {
+                    return;
+                }
+            } else {
+                int target = stripe != null && stripe < stripes ? stripe : ThreadLocalRandom.current().nextInt(stripes);
+                if (stripeRepository.increment(productId, target, quantity) == 1) {
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("Не удалось вернуть товар с ID " + productId + " на склад, повторите операцию");
+    }
+
+    private int stripesOf(Long productId) {
+        return productRepository.findStockStripesById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Продукт с ID " + productId + " не найден"));
+    }
+
+    // Доля i-й полосы: остаток делится поровну, остаток от деления - первым полосам
+    private static int share(int total, int stripes, int index) {
+        return total / stripes + (index < total % stripes ? 1 : 0);
+    }
+}
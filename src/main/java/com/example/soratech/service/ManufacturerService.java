@@ -1,19 +1,18 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Manufacturer;
+import com.example.soratech.repository.projection.ManufacturerRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface ManufacturerService {
-    Page<Manufacturer> findAllActive(Pageable pageable);
-    
-    Page<Manufacturer> findAllDeleted(Pageable pageable);
-    
-    Page<Manufacturer> searchByName(String name, Pageable pageable);
-    
-    Page<Manufacturer> filterByCountry(String country, Pageable pageable);
+    Page<ManufacturerRow> findAllActive(Pageable pageable);
     
     List<Manufacturer> findAllActive();
     
@@ -32,7 +31,9 @@ public interface ManufacturerService {
     void deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
-
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<ManufacturerRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<ManufacturerRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -2,9 +2,15 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.Manufacturer;
 import com.example.soratech.repository.ManufacturerRepository;
+import com.example.soratech.repository.projection.ManufacturerRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +20,13 @@ import java.util.List;
 @Transactional
 public class ManufacturerServiceImpl implements ManufacturerService {
 
+    private static final GridSpec<Manufacturer> GRID = GridSpec.<Manufacturer>builder()
+            .contains("query", "name")
+            .contains("name", "name")
+            .equal("country", "country", String.class)
+            .sortable("name", "country")
+            .build();
+
     private final ManufacturerRepository manufacturerRepository;
 
     public ManufacturerServiceImpl(ManufacturerRepository manufacturerRepository) {
@@ -21,25 +34,10 @@ public class ManufacturerServiceImpl implements ManufacturerService {
     }
 
     @Override
-    public Page<Manufacturer> findAllActive(Pageable pageable) {
+    public Page<ManufacturerRow> findAllActive(Pageable pageable) {
         return manufacturerRepository.findAllByDeletedFalse(pageable);
     }
 
-    @Override
-    public Page<Manufacturer> findAllDeleted(Pageable pageable) {
-        return manufacturerRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Manufacturer> searchByName(String name, Pageable pageable) {
-        return manufacturerRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
-    }
-
-    @Override
-    public Page<Manufacturer> filterByCountry(String country, Pageable pageable) {
-        return manufacturerRepository.findByCountryAndDeletedFalse(country, pageable);
-    }
-
     @Override
     public List<Manufacturer> findAllActive() {
         return manufacturerRepository.findAllByDeletedFalse();
@@ -99,7 +97,14 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         manufacturer.setDeleted(false);
         manufacturerRepository.save(manufacturer);
     }
-}
-
 
+    @Override
+    public Page<ManufacturerRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(manufacturerRepository, ManufacturerRow.class, query, pageable, manufacturerRepository::findAllByDeletedFalse);
+    }
 
+    @Override
+    public Window<ManufacturerRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(manufacturerRepository, ManufacturerRow.class, query, position, limit);
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.soratech.service;
 
+import com.example.soratech.notification.Notification;
+import com.example.soratech.notification.NotificationDispatcher;
+import com.example.soratech.report.SalesReportService;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -8,74 +11,55 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class NotificationService {
 
+    private final NotificationDispatcher notificationDispatcher;
+    private final DownstreamLimiter downstreamLimiter;
+    private final SalesReportService salesReportService;
+
+    public NotificationService(NotificationDispatcher notificationDispatcher, DownstreamLimiter downstreamLimiter,
+                               SalesReportService salesReportService) {
+        this.notificationDispatcher = notificationDispatcher;
+        this.downstreamLimiter = downstreamLimiter;
+        this.salesReportService = salesReportService;
+    }
+
     /**
-     * Асинхронная отправка email уведомления
+     * Отправка email уведомления через очередь NotificationDispatcher: письма одному адресату
+     * за окно объединяются, пачка уходит одним обращением к провайдеру
+     *
+     * @return future с true после доставки, false - если письмо не отправлено
      */
-    @Async("taskExecutor")
     public CompletableFuture<Boolean> sendEmailNotification(String email, String subject, String message) {
-        try {
-            // Симуляция отправки email (замените на реальную логику)
-            System.out.println("Отправка email на: " + email);
-            System.out.println("Тема: " + subject);
-            System.out.println("Сообщение: " + message);
-            
-            // Имитация задержки отправки
-            Thread.sleep(2000);
-            
-            System.out.println("Email успешно отправлен на: " + email);
-            return CompletableFuture.completedFuture(true);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Ошибка при отправке email: " + e.getMessage());
-            return CompletableFuture.completedFuture(false);
-        }
+        return notificationDispatcher.enqueue(new Notification(Notification.Channel.EMAIL, email, subject, message));
     }
 
     /**
-     * Асинхронная отправка SMS уведомления
+     * Отправка SMS уведомления через очередь NotificationDispatcher
      */
-    @Async("taskExecutor")
     public CompletableFuture<Boolean> sendSmsNotification(String phone, String message) {
-        try {
-            // Симуляция отправки SMS (замените на реальную логику)
-            System.out.println("Отправка SMS на: " + phone);
-            System.out.println("Сообщение: " + message);
-            
-            // Имитация задержки отправки
-            Thread.sleep(1500);
-            
-            System.out.println("SMS успешно отправлено на: " + phone);
-            return CompletableFuture.completedFuture(true);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Ошибка при отправке SMS: " + e.getMessage());
-            return CompletableFuture.completedFuture(false);
-        }
+        return notificationDispatcher.enqueue(new Notification(Notification.Channel.SMS, phone, null, message));
     }
 
     /**
-     * Асинхронная генерация отчета
+     * Асинхронная генерация отчета о продажах за период (day, week, month, year) по сводным таблицам
      */
     @Async("taskExecutor")
     public CompletableFuture<String> generateReport(String reportType) {
         try {
             System.out.println("Начало генерации отчета типа: " + reportType);
             
-            // Симуляция долгой операции генерации отчета
-            Thread.sleep(5000);
-            
-            String reportData = "Отчет типа " + reportType + " успешно сгенерирован";
-            System.out.println(reportData);
+            String[] reportData = new String[1];
+            downstreamLimiter.run(DownstreamLimiter.Downstream.REPORTS,
+                    () -> reportData[0] = salesReportService.summarize(salesReportService.buildForPeriod(reportType)));
+            System.out.println(reportData[0]);
             
-            return CompletableFuture.completedFuture(reportData);
+            return CompletableFuture.completedFuture(reportData[0]);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Ошибка при генерации отчета: " + e.getMessage());
             return CompletableFuture.completedFuture("Ошибка генерации отчета");
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка при генерации отчета: " + e.getMessage());
+            return CompletableFuture.completedFuture("Ошибка генерации отчета: " + e.getMessage());
         }
     }
 }
-
-
-
-
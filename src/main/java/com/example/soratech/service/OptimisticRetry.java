@@ -0,0 +1,48 @@
+package com.example.soratech.service;
+
+import com.example.soratech.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Повтор изменения при конфликте версий (@Version). Каждая попытка идет в своей транзакции
+ * и заново читает запись, поэтому параллельное изменение не затирается, а применяется поверх.
+ * Внутри уже открытой транзакции повторить нельзя (ее данные устарели) - операция выполняется
+ * один раз, и конфликт уходит вызывающему коду.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int attempts;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${app.optimistic-retry.attempts:3}") int attempts) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.attempts = attempts;
+    }
+
+    /**
+     * @param conflictMessage текст ConcurrentUpdateException, если все попытки закончились конфликтом
+     */
+    public void run(Runnable action, String conflictMessage) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            action.run();
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> action.run());
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    throw new ConcurrentUpdateException(conflictMessage);
+                }
+            }
+        }
+    }
+}
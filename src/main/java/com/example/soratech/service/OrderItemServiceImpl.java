@@ -1,6 +1,7 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.OrderItem;
+import com.example.soratech.outbox.OutboxService;
 import com.example.soratech.repository.OrderItemRepository;
 import com.example.soratech.repository.OrderRepository;
 import com.example.soratech.repository.ProductRepository;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -17,13 +19,19 @@ public class OrderItemServiceImpl implements OrderItemService {
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
 
     public OrderItemServiceImpl(OrderItemRepository orderItemRepository,
                                OrderRepository orderRepository,
-                               ProductRepository productRepository) {
+                               ProductRepository productRepository,
+                               InventoryService inventoryService,
+                               OutboxService outboxService) {
         this.orderItemRepository = orderItemRepository;
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.outboxService = outboxService;
     }
 
     @Override
@@ -49,6 +57,9 @@ public class OrderItemServiceImpl implements OrderItemService {
         orderItem.setProduct(productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Продукт с ID " + productId + " не найден")));
         orderItemRepository.save(orderItem);
+        // Позиции заказа сразу резервируют товар на складе
+        inventoryService.syncOrder(orderId);
+        publishChanged(orderId);
     }
 
     @Override
@@ -57,17 +68,28 @@ public class OrderItemServiceImpl implements OrderItemService {
         existing.setQuantity(orderItem.getQuantity());
         existing.setPrice(orderItem.getPrice());
         orderItemRepository.save(existing);
+        inventoryService.syncOrder(existing.getOrder().getId());
+        publishChanged(existing.getOrder().getId());
     }
 
     @Override
     public void delete(Long id) {
         OrderItem orderItem = findById(id);
         orderItemRepository.delete(orderItem);
+        inventoryService.syncOrder(orderItem.getOrder().getId());
+        publishChanged(orderItem.getOrder().getId());
     }
 
     @Override
     public void deleteByOrderId(Long orderId) {
         orderItemRepository.deleteByOrderId(orderId);
+        inventoryService.syncOrder(orderId);
+        publishChanged(orderId);
+    }
+
+    // Состав заказа изменился - сводные таблицы продаж пересчитают его по событию
+    private void publishChanged(Long orderId) {
+        outboxService.publish(OutboxService.ORDER, orderId, OutboxService.ORDER_CHANGED, Map.of());
     }
 }
 
@@ -1,28 +1,36 @@
 package com.example.soratech.service;
 
+import com.example.soratech.dto.CheckoutRequest;
 import com.example.soratech.model.Order;
+import com.example.soratech.repository.projection.OrderRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderService {
-    Page<Order> findAllActive(Pageable pageable);
-    
-    Page<Order> findAllDeleted(Pageable pageable);
-    
-    Page<Order> findByUserId(Long userId, Pageable pageable);
-    
-    Page<Order> findByStatus(String status, Pageable pageable);
-    
-    Page<Order> findByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable);
-    
     List<Order> findAllActive();
     
     Order findById(Long id);
+
+    /**
+     * Загружает запись со связями, нужными для карточки, одним запросом.
+     */
+    Order findDetailedById(Long id);
     
     void save(Order order, Long userId);
+
+    /**
+     * Оформляет заказ из корзины одной транзакцией: товары читаются одним запросом, цены и сумма
+     * считаются по текущим ценам, товар резервируется, заказ и позиции записываются пакетом.
+     *
+     * @throws com.example.soratech.exception.InsufficientStockException если товара не хватает
+     */
+    Order checkout(CheckoutRequest request);
     
     void update(Long id, Order order);
     
@@ -30,14 +38,23 @@ public interface OrderService {
     
     void logicDelete(Long id);
     
-    void logicDeleteAllByIds(List<Long> ids);
+    /**
+     * Пометка заказов удаленными одним UPDATE на часть списка (версия записей увеличивается).
+     *
+     * @return число заказов, которые еще не были удалены
+     */
+    int logicDeleteAllByIds(List<Long> ids);
     
     void delete(Long id);
     
-    void deleteAllByIds(List<Long> ids);
+    int deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
 
+    int restoreAllByIds(List<Long> ids);
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<OrderRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<OrderRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -1,91 +1,215 @@
 package com.example.soratech.service;
 
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.exception.ConcurrentUpdateException;
 import com.example.soratech.model.Order;
+import com.example.soratech.model.OrderItem;
+import com.example.soratech.model.Product;
+import com.example.soratech.outbox.OutboxService;
+import com.example.soratech.repository.OrderItemRepository;
 import com.example.soratech.repository.OrderRepository;
+import com.example.soratech.repository.ProductRepository;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.repository.projection.OrderRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
+import com.example.soratech.util.IdChunks;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    private static final GridSpec<Order> GRID = GridSpec.<Order>builder()
+            .equal("userId", "user.id", Long.class)
+            .equal("status", "status", String.class)
+            .min("from", "createdAt", LocalDateTime.class)
+            .max("to", "createdAt", LocalDateTime.class)
+            .sortable("createdAt", "status")
+            .build();
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final OptimisticRetry optimisticRetry;
+    private final OutboxService outboxService;
 
-    public OrderServiceImpl(OrderRepository orderRepository, UserRepository userRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                            UserRepository userRepository, ProductRepository productRepository,
+                            InventoryService inventoryService, OptimisticRetry optimisticRetry,
+                            OutboxService outboxService) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.optimisticRetry = optimisticRetry;
+        this.outboxService = outboxService;
     }
 
     @Override
-    public Page<Order> findAllActive(Pageable pageable) {
-        return orderRepository.findAllByDeletedFalse(pageable);
+    public List<Order> findAllActive() {
+        return orderRepository.findAllByDeletedFalse();
     }
 
     @Override
-    public Page<Order> findAllDeleted(Pageable pageable) {
-        return orderRepository.findAllByDeletedTrue(pageable);
+    public Order findById(Long id) {
+        return orderRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Заказ с ID " + id + " не найден"));
     }
 
     @Override
-    public Page<Order> findByUserId(Long userId, Pageable pageable) {
-        return orderRepository.findByUserIdAndDeletedFalse(userId, pageable);
+    public Order findDetailedById(Long id) {
+        return orderRepository.findDetailedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Заказ с ID " + id + " не найден"));
     }
 
     @Override
-    public Page<Order> findByStatus(String status, Pageable pageable) {
-        return orderRepository.findByStatusAndDeletedFalse(status, pageable);
+    public void save(Order order, Long userId) {
+        order.setUser(userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден")));
+        order.setDeleted(false);
+        order.setCreatedAt(LocalDateTime.now());
+        orderRepository.save(order);
+        if (!order.getOrderItems().isEmpty()) {
+            inventoryService.syncOrder(order.getId());
+        }
+        publishCreated(order);
     }
 
     @Override
-    public Page<Order> findByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return orderRepository.findByCreatedAtBetweenAndDeletedFalse(start, end, pageable);
-    }
+    public Order checkout(CheckoutRequest request) {
+        // Повторы одного товара в корзине складываются; TreeMap - позиции в порядке id товара
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutRequest.Item item : request.getItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Количество товара с ID " + item.getProductId() + " должно быть больше 0");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Корзина пуста");
+        }
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-    @Override
-    public List<Order> findAllActive() {
-        return orderRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        Order order = new Order();
+        order.setUser(userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + request.getUserId() + " не найден")));
+        order.setStatus(InventoryServiceImpl.STATUS_PENDING);
+        order.setDeliveryAddress(request.getDeliveryAddress());
+        order.setComment(request.getComment());
+        order.setDeleted(false);
+        order.setCreatedAt(LocalDateTime.now());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null || product.isDeleted()) {
+                throw new EntityNotFoundException("Продукт с ID " + entry.getKey() + " не найден");
+            }
+            if (product.getPrice() == null) {
+                throw new IllegalStateException("У товара с ID " + product.getId() + " не указана цена");
+            }
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(entry.getValue());
+            item.setPrice(product.getPrice());
+            item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(entry.getValue())));
+            order.getOrderItems().add(item);
+            total = total.add(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+        // Позиции сохраняются каскадом; id из последовательностей, поэтому INSERT уходят пакетами
+        orderRepository.save(order);
+        inventoryService.syncOrder(order.getId());
+        publishCreated(order);
+        return order;
     }
 
+    // Транзакцию открывает OptimisticRetry - на каждую попытку своя
     @Override
-    public Order findById(Long id) {
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Заказ с ID " + id + " не найден"));
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void update(Long id, Order order) {
+        optimisticRetry.run(() -> applyUpdate(id, order),
+                "Заказ с ID " + id + " одновременно изменяют другие запросы, повторите операцию");
     }
 
     @Override
-    public void save(Order order, Long userId) {
-        order.setUser(userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + userId + " не найден")));
-        order.setDeleted(false);
-        order.setCreatedAt(LocalDateTime.now());
-        orderRepository.save(order);
+    public void updateStatus(Long id, String status) {
+        if (orderRepository.updateStatus(id, status, LocalDateTime.now()) == 1) {
+            // Подтверждение переводит удержание товара в резерв, отмена возвращает товар на склад
+            inventoryService.syncOrder(id);
+            publishStatusChanged(id, status);
+        } else if (!orderRepository.existsById(id)) {
+            throw new EntityNotFoundException("Заказ с ID " + id + " не найден");
+        }
     }
 
-    @Override
-    public void update(Long id, Order order) {
+    /**
+     * order.version, если задана, - версия, которую видел клиент: изменение поверх более новой
+     * версии отклоняется, а не затирает чужие правки.
+     */
+    private void applyUpdate(Long id, Order order) {
         Order existing = findById(id);
+        if (order.getVersion() != null && !order.getVersion().equals(existing.getVersion())) {
+            throw new ConcurrentUpdateException("Заказ с ID " + id + " уже изменен (версия " + existing.getVersion()
+                    + ", получена " + order.getVersion() + "), обновите данные и повторите");
+        }
+        String previousStatus = existing.getStatus();
         existing.setTotalAmount(order.getTotalAmount());
         existing.setStatus(order.getStatus());
         existing.setDeliveryAddress(order.getDeliveryAddress());
-        existing.setComment(order.getComment());
+        // Комментарий не передан - остается прежним
+        if (order.getComment() != null) {
+            existing.setComment(order.getComment());
+        }
         existing.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(existing);
+        if (!Objects.equals(previousStatus, existing.getStatus())) {
+            inventoryService.syncOrder(id);
+            publishStatusChanged(id, existing.getStatus());
+        }
     }
 
-    @Override
-    public void updateStatus(Long id, String status) {
-        Order existing = findById(id);
-        existing.setStatus(status);
-        existing.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(existing);
+    // События пишутся в outbox в транзакции изменения: уведомление уйдет только после коммита
+    private void publishCreated(Order order) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        outboxService.publish(OutboxService.ORDER, order.getId(), OutboxService.ORDER_CREATED, payload);
+    }
+
+    private void publishStatusChanged(Long id, String status) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("status", status);
+        outboxService.publish(OutboxService.ORDER, id, OutboxService.ORDER_STATUS_CHANGED, payload);
+    }
+
+    // Удаление и восстановление меняют продажи, но не касаются покупателя
+    private void publishChanged(Long id) {
+        outboxService.publish(OutboxService.ORDER, id, OutboxService.ORDER_CHANGED, Map.of());
     }
 
     @Override
@@ -93,24 +217,39 @@ public class OrderServiceImpl implements OrderService {
         Order order = findById(id);
         order.setDeleted(true);
         orderRepository.save(order);
+        publishChanged(id);
     }
 
     @Override
-    public void logicDeleteAllByIds(List<Long> ids) {
-        List<Order> orders = orderRepository.findAllById(ids);
-        orders.forEach(order -> order.setDeleted(true));
-        orderRepository.saveAll(orders);
+    public int logicDeleteAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, chunk -> {
+            orderRepository.findIdsByIdIn(chunk).forEach(this::publishChanged);
+            return orderRepository.updateDeletedByIdIn(chunk, true);
+        });
     }
 
     @Override
     public void delete(Long id) {
         Order order = findById(id);
+        inventoryService.discardOrder(id);
         orderRepository.delete(order);
+        publishChanged(id);
     }
 
+    // Товар неотгруженных заказов возвращается на склад по каждому заказу; позиции и заказы удаляются пачками.
+    // Несуществующие id пропускаются, как и в остальных массовых операциях
     @Override
-    public void deleteAllByIds(List<Long> ids) {
-        orderRepository.deleteAllById(ids);
+    public int deleteAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, chunk -> {
+            List<Long> existing = orderRepository.findIdsByIdIn(chunk);
+            if (existing.isEmpty()) {
+                return 0;
+            }
+            existing.forEach(inventoryService::discardOrder);
+            existing.forEach(this::publishChanged);
+            orderItemRepository.deleteByOrderIdIn(existing);
+            return orderRepository.deleteByIdIn(existing);
+        });
     }
 
     @Override
@@ -118,9 +257,24 @@ public class OrderServiceImpl implements OrderService {
         Order order = findById(id);
         order.setDeleted(false);
         orderRepository.save(order);
+        publishChanged(id);
     }
-}
-
 
+    @Override
+    public int restoreAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, chunk -> {
+            orderRepository.findIdsByIdIn(chunk).forEach(this::publishChanged);
+            return orderRepository.updateDeletedByIdIn(chunk, false);
+        });
+    }
 
+    @Override
+    public Page<OrderRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(orderRepository, OrderRow.class, query, pageable);
+    }
 
+    @Override
+    public Window<OrderRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(orderRepository, OrderRow.class, query, position, limit);
+    }
+}
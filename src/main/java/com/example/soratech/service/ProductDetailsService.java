@@ -1,25 +1,27 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.ProductDetails;
+import com.example.soratech.repository.projection.ProductDetailsRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface ProductDetailsService {
-    Page<ProductDetails> findAllActive(Pageable pageable);
-    
-    Page<ProductDetails> findAllDeleted(Pageable pageable);
-    
-    Page<ProductDetails> searchByCharacteristicName(String characteristicName, Pageable pageable);
-    
     List<ProductDetails> findByProductId(Long productId);
     
-    Page<ProductDetails> findByProductId(Long productId, Pageable pageable);
-    
     List<ProductDetails> findAllActive();
     
     ProductDetails findById(Long id);
+
+    /**
+     * Загружает запись со связями, нужными для карточки, одним запросом.
+     */
+    ProductDetails findDetailedById(Long id);
     
     void save(ProductDetails productDetails);
     
@@ -30,7 +32,9 @@ public interface ProductDetailsService {
     void delete(Long id);
     
     void restore(Long id);
-}
-
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<ProductDetailsRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<ProductDetailsRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
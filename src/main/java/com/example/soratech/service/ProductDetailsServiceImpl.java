@@ -2,37 +2,40 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.ProductDetails;
 import com.example.soratech.repository.ProductDetailsRepository;
+import com.example.soratech.repository.projection.ProductDetailsRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
+import com.example.soratech.search.ProductSearchService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 @Transactional
 public class ProductDetailsServiceImpl implements ProductDetailsService {
 
+    private static final GridSpec<ProductDetails> GRID = GridSpec.<ProductDetails>builder()
+            .contains("query", "characteristicName")
+            .contains("characteristicName", "characteristicName")
+            .equal("productId", "product.id", Long.class)
+            .sortable("characteristicName")
+            .build();
+
     private final ProductDetailsRepository productDetailsRepository;
+    private final ProductSearchService productSearchService;
 
-    public ProductDetailsServiceImpl(ProductDetailsRepository productDetailsRepository) {
+    public ProductDetailsServiceImpl(ProductDetailsRepository productDetailsRepository,
+                                     ProductSearchService productSearchService) {
         this.productDetailsRepository = productDetailsRepository;
-    }
-
-    @Override
-    public Page<ProductDetails> findAllActive(Pageable pageable) {
-        return productDetailsRepository.findAllByDeletedFalse(pageable);
-    }
-
-    @Override
-    public Page<ProductDetails> findAllDeleted(Pageable pageable) {
-        return productDetailsRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<ProductDetails> searchByCharacteristicName(String characteristicName, Pageable pageable) {
-        return productDetailsRepository.findByCharacteristicNameContainingIgnoreCaseAndDeletedFalse(characteristicName, pageable);
+        this.productSearchService = productSearchService;
     }
 
     @Override
@@ -40,14 +43,9 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
         return productDetailsRepository.findByProductIdAndDeletedFalse(productId);
     }
 
-    @Override
-    public Page<ProductDetails> findByProductId(Long productId, Pageable pageable) {
-        return productDetailsRepository.findByProductIdAndDeletedFalse(productId, pageable);
-    }
-
     @Override
     public List<ProductDetails> findAllActive() {
-        return productDetailsRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        return productDetailsRepository.findAllByDeletedFalse();
     }
 
     @Override
@@ -56,21 +54,32 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
                 .orElseThrow(() -> new EntityNotFoundException("Детали продукта с ID " + id + " не найдены"));
     }
 
+    @Override
+    public ProductDetails findDetailedById(Long id) {
+        return productDetailsRepository.findDetailedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Детали продукта с ID " + id + " не найдены"));
+    }
+
     @Override
     public void save(ProductDetails productDetails) {
         productDetails.setDeleted(false);
         productDetailsRepository.save(productDetails);
+        reindexProductOf(productDetails);
     }
 
     @Override
     public void update(Long id, ProductDetails productDetails) {
         ProductDetails existing = findById(id);
+        Long previousProductId = existing.getProduct() != null ? existing.getProduct().getId() : null;
         existing.setCharacteristicName(productDetails.getCharacteristicName());
         existing.setCharacteristicValue(productDetails.getCharacteristicValue());
         if (productDetails.getProduct() != null) {
             existing.setProduct(productDetails.getProduct());
         }
         productDetailsRepository.save(existing);
+        // Характеристика могла перейти к другому товару - обновляем оба
+        productSearchService.reindexAfterCommit(Arrays.asList(previousProductId,
+                existing.getProduct() != null ? existing.getProduct().getId() : null));
     }
 
     @Override
@@ -78,12 +87,14 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
         ProductDetails productDetails = findById(id);
         productDetails.setDeleted(true);
         productDetailsRepository.save(productDetails);
+        reindexProductOf(productDetails);
     }
 
     @Override
     public void delete(Long id) {
         ProductDetails productDetails = findById(id);
         productDetailsRepository.delete(productDetails);
+        reindexProductOf(productDetails);
     }
 
     @Override
@@ -91,8 +102,22 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
         ProductDetails productDetails = findById(id);
         productDetails.setDeleted(false);
         productDetailsRepository.save(productDetails);
+        reindexProductOf(productDetails);
     }
-}
 
+    @Override
+    public Page<ProductDetailsRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(productDetailsRepository, ProductDetailsRow.class, query, pageable);
+    }
 
+    @Override
+    public Window<ProductDetailsRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(productDetailsRepository, ProductDetailsRow.class, query, position, limit);
+    }
 
+    private void reindexProductOf(ProductDetails productDetails) {
+        if (productDetails.getProduct() != null) {
+            productSearchService.reindexAfterCommit(List.of(productDetails.getProduct().getId()));
+        }
+    }
+}
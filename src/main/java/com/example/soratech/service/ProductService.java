@@ -1,45 +1,66 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Product;
+import com.example.soratech.repository.projection.ProductRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.search.FacetedPage;
+import com.example.soratech.search.ProductFilter;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public interface ProductService {
-    Page<Product> findAllActive(Pageable pageable);
-
-    Page<Product> findAllDeleted(Pageable pageable);
-
-    Page<Product> searchByName(String query, Pageable pageable);
-
-    Page<Product> filterByCategory(Long categoryId, Pageable pageable);
-
-    Page<Product> filterByManufacturer(Long manufacturerId, Pageable pageable);
-
-    Page<Product> filterBySupplier(Long supplierId, Pageable pageable);
+    /**
+     * Поиск по названию: выдача индекса упорядочена по релевантности; пока индекс строится,
+     * работает LIKE-запрос с сортировкой из grid, проверенной по белому списку таблицы.
+     */
+    Page<ProductRow> searchByName(String query, GridQuery grid, Pageable pageable);
 
     List<Product> findAllActive();
 
     Product findById(Long id);
 
+    /**
+     * Загружает запись со связями, нужными для карточки, одним запросом.
+     */
+    Product findDetailedById(Long id);
+
     void save(Product product, Long manufacturerId, Long categoryId, List<Long> supplierIds);
 
     void update(Long id, Product product, Long manufacturerId, Long categoryId, List<Long> supplierIds);
 
     void logicDelete(Long id);
 
-    void logicDeleteAllByIds(List<Long> ids);
+    /**
+     * Массовые операции по списку id: операторы UPDATE/DELETE частями, без загрузки записей.
+     *
+     * @return число затронутых записей (уже удаленные или уже восстановленные не считаются)
+     */
+    int logicDeleteAllByIds(List<Long> ids);
 
     void delete(Long id);
 
-    void deleteAllByIds(List<Long> ids);
+    int deleteAllByIds(List<Long> ids);
 
     void restore(Long id);
+
+    int restoreAllByIds(List<Long> ids);
     
-    Page<Product> filterByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
-}
+    /**
+     * Комбинированный фильтр каталога по индексу в памяти, результаты упорядочены по id.
+     * Вместе со страницей возвращаются счетчики фасетов.
+     */
+    FacetedPage<ProductRow> filter(ProductFilter filter, Pageable pageable);
 
+    // Keyset (cursor) pagination
+    Window<ProductRow> searchByName(String query, GridQuery grid, ScrollPosition position, Limit limit);
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<ProductRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<ProductRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -1,74 +1,117 @@
 package com.example.soratech.service;
 
+import com.example.soratech.exception.ConcurrentUpdateException;
 import com.example.soratech.model.Supplier;
 import com.example.soratech.model.Product;
 import com.example.soratech.repository.ManufacturerRepository;
+import com.example.soratech.repository.ProductDetailsRepository;
+import com.example.soratech.repository.ProductStockStripeRepository;
+import com.example.soratech.repository.ReviewRepository;
 import com.example.soratech.repository.CategoryRepository;
 import com.example.soratech.repository.SupplierRepository;
 import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.projection.ProductRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
+import com.example.soratech.search.FacetedPage;
+import com.example.soratech.search.ProductFacetIndex;
+import com.example.soratech.search.ProductFilter;
+import com.example.soratech.search.ProductSearchIndex;
+import com.example.soratech.search.ProductSearchService;
+import com.example.soratech.search.SearchHit;
+import com.example.soratech.util.IdChunks;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    private static final GridSpec<Product> GRID = GridSpec.<Product>builder()
+            .contains("name", "name")
+            .equal("categoryId", "category.id", Long.class)
+            .equal("manufacturerId", "manufacturer.id", Long.class)
+            .equal("supplierId", "suppliers.id", Long.class)
+            .min("minPrice", "price", BigDecimal.class)
+            .max("maxPrice", "price", BigDecimal.class)
+            .sortable("name", "price")
+            .build();
+
     private final ProductRepository productRepository;
     private final ManufacturerRepository manufacturerRepository;
     private final CategoryRepository categoryRepository;
     private final SupplierRepository supplierRepository;
+    private final ProductDetailsRepository productDetailsRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductStockStripeRepository stripeRepository;
+    private final ProductSearchService productSearchService;
+    private final InventoryService inventoryService;
+    private final OptimisticRetry optimisticRetry;
 
     public ProductServiceImpl(ProductRepository productRepository,
                              ManufacturerRepository manufacturerRepository,
                              CategoryRepository categoryRepository,
-                             SupplierRepository supplierRepository) {
+                             SupplierRepository supplierRepository,
+                             ProductDetailsRepository productDetailsRepository,
+                             ReviewRepository reviewRepository,
+                             ProductStockStripeRepository stripeRepository,
+                             ProductSearchService productSearchService,
+                             InventoryService inventoryService,
+                             OptimisticRetry optimisticRetry) {
         this.productRepository = productRepository;
         this.manufacturerRepository = manufacturerRepository;
         this.categoryRepository = categoryRepository;
         this.supplierRepository = supplierRepository;
+        this.productDetailsRepository = productDetailsRepository;
+        this.reviewRepository = reviewRepository;
+        this.stripeRepository = stripeRepository;
+        this.productSearchService = productSearchService;
+        this.inventoryService = inventoryService;
+        this.optimisticRetry = optimisticRetry;
     }
 
     @Override
-    public Page<Product> findAllActive(Pageable pageable) {
-        return productRepository.findAllByDeletedFalse(pageable);
-    }
-
-    @Override
-    public Page<Product> findAllDeleted(Pageable pageable) {
-        return productRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Product> searchByName(String query, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCaseAndDeletedFalse(query, pageable);
-    }
-
-    @Override
-    public Page<Product> filterByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndDeletedFalse(categoryId, pageable);
-    }
-
-    @Override
-    public Page<Product> filterByManufacturer(Long manufacturerId, Pageable pageable) {
-        return productRepository.findByManufacturerIdAndDeletedFalse(manufacturerId, pageable);
+    public Page<ProductRow> searchByName(String query, GridQuery grid, Pageable pageable) {
+        if (!productSearchService.isReady()) {
+            return productRepository.findByNameContainingIgnoreCaseAndDeletedFalse(query,
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), GRID.sort(grid)));
+        }
+        // Выдача упорядочена по релевантности, сортировка из запроса не применяется
+        ProductSearchIndex.SearchResult result = productSearchService.search(
+                query, null, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(rowsOf(idsOf(result.hits())), pageable, result.total());
     }
 
     @Override
-    public Page<Product> filterBySupplier(Long supplierId, Pageable pageable) {
-        return productRepository.findBySuppliersIdAndDeletedFalse(supplierId, pageable);
+    public FacetedPage<ProductRow> filter(ProductFilter filter, Pageable pageable) {
+        ProductFacetIndex.FacetResult result = productSearchService.filter(
+                filter, null, (int) pageable.getOffset(), pageable.getPageSize());
+        return new FacetedPage<>(new PageImpl<>(rowsOf(result.ids()), pageable, result.total()), result.facets());
     }
 
     @Override
     public List<Product> findAllActive() {
-        return productRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        return productRepository.findAllByDeletedFalse();
     }
 
     @Override
@@ -77,6 +120,12 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("Продукт с ID " + id + " не найден"));
     }
 
+    @Override
+    public Product findDetailedById(Long id) {
+        return productRepository.findDetailedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Продукт с ID " + id + " не найден"));
+    }
+
     @Override
     public void save(Product product, Long manufacturerId, Long categoryId, List<Long> supplierIds) {
         product.setManufacturer(manufacturerRepository.findById(manufacturerId)
@@ -90,14 +139,35 @@ public class ProductServiceImpl implements ProductService {
         }
         product.setDeleted(false);
         productRepository.save(product);
+        productSearchService.reindexAfterCommit(List.of(product.getId()));
     }
 
+    // Транзакцию открывает OptimisticRetry - на каждую попытку своя
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void update(Long id, Product product, Long manufacturerId, Long categoryId, List<Long> supplierIds) {
+        optimisticRetry.run(() -> applyUpdate(id, product, manufacturerId, categoryId, supplierIds),
+                "Продукт с ID " + id + " одновременно изменяют другие запросы, повторите операцию");
+    }
+
+    /**
+     * product.version, если задана, - версия, которую видел клиент: изменение поверх более новой
+     * версии отклоняется, а не затирает чужие правки.
+     */
+    private void applyUpdate(Long id, Product product, Long manufacturerId, Long categoryId, List<Long> supplierIds) {
         Product existing = findById(id);
+        if (product.getVersion() != null && !product.getVersion().equals(existing.getVersion())) {
+            throw new ConcurrentUpdateException("Продукт с ID " + id + " уже изменен (версия " + existing.getVersion()
+                    + ", получена " + product.getVersion() + "), обновите данные и повторите");
+        }
         existing.setName(product.getName());
         existing.setPrice(product.getPrice());
-        existing.setStockQuantity(product.getStockQuantity());
+        // Остаток не пишется вместе с сущностью: сравнение с базой, а не с сущностью,
+        // которую вызывающий код мог уже изменить
+        if (product.getStockQuantity() != null
+                && product.getStockQuantity() != inventoryService.getAvailableStock(id)) {
+            inventoryService.setStock(id, product.getStockQuantity());
+        }
         existing.setManufacturer(manufacturerRepository.findById(manufacturerId)
                 .orElseThrow(() -> new EntityNotFoundException("Производитель с ID " + manufacturerId + " не найден")));
         existing.setCategory(categoryRepository.findById(categoryId)
@@ -107,9 +177,10 @@ public class ProductServiceImpl implements ProductService {
                     .collect(Collectors.toSet());
             existing.setSuppliers(suppliers);
         } else {
-            existing.setSuppliers(Set.of());
+            existing.setSuppliers(new HashSet<>());
         }
         productRepository.save(existing);
+        productSearchService.reindexAfterCommit(List.of(id));
     }
 
     @Override
@@ -117,24 +188,37 @@ public class ProductServiceImpl implements ProductService {
         Product product = findById(id);
         product.setDeleted(true);
         productRepository.save(product);
+        productSearchService.reindexAfterCommit(List.of(id));
     }
 
     @Override
-    public void logicDeleteAllByIds(List<Long> ids) {
-        List<Product> products = productRepository.findAllById(ids);
-        products.forEach(product -> product.setDeleted(true));
-        productRepository.saveAll(products);
+    public int logicDeleteAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, chunk -> productRepository.updateDeletedByIdIn(chunk, true));
+        productSearchService.reindexAfterCommit(ids);
+        return affected;
     }
 
     @Override
     public void delete(Long id) {
         Product product = findById(id);
+        // Полосы остатка ссылаются на товар внешним ключом и не входят в каскад сущности
+        stripeRepository.deleteByProductIdIn(List.of(id));
         productRepository.delete(product);
+        productSearchService.reindexAfterCommit(List.of(id));
     }
 
+    // Каскад, как при удалении сущности: характеристики, отзывы, связи с поставщиками и полосы остатка
     @Override
-    public void deleteAllByIds(List<Long> ids) {
-        productRepository.deleteAllById(ids);
+    public int deleteAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, chunk -> {
+            productDetailsRepository.deleteByProductIdIn(chunk);
+            reviewRepository.deleteByProductIdIn(chunk);
+            productRepository.deleteSupplierLinksByProductIdIn(chunk);
+            stripeRepository.deleteByProductIdIn(chunk);
+            return productRepository.deleteByIdIn(chunk);
+        });
+        productSearchService.reindexAfterCommit(ids);
+        return affected;
     }
 
     @Override
@@ -142,21 +226,66 @@ public class ProductServiceImpl implements ProductService {
         Product product = findById(id);
         product.setDeleted(false);
         productRepository.save(product);
+        productSearchService.reindexAfterCommit(List.of(id));
+    }
+
+    @Override
+    public int restoreAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, chunk -> productRepository.updateDeletedByIdIn(chunk, false));
+        productSearchService.reindexAfterCommit(ids);
+        return affected;
     }
     
     @Override
-    public Page<Product> filterByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        if (minPrice != null && maxPrice != null) {
-            return productRepository.findByPriceBetweenAndDeletedFalse(minPrice, maxPrice, pageable);
-        } else if (minPrice != null) {
-            return productRepository.findByPriceGreaterThanEqualAndDeletedFalse(minPrice, pageable);
-        } else if (maxPrice != null) {
-            return productRepository.findByPriceLessThanEqualAndDeletedFalse(maxPrice, pageable);
-        } else {
-            return findAllActive(pageable);
+    public Window<ProductRow> searchByName(String query, GridQuery grid, ScrollPosition position, Limit limit) {
+        if (!productSearchService.isReady()) {
+            return productRepository.findByNameContainingIgnoreCaseAndDeletedFalse(query, position, limit, GRID.sort(grid));
         }
+        // Курсор по релевантности: (score, id) последнего результата страницы
+        SearchHit after = null;
+        if (position instanceof KeysetScrollPosition keyset && keyset.getKeys().get("score") instanceof BigDecimal score) {
+            after = new SearchHit(((Number) keyset.getKeys().get("id")).longValue(), score.doubleValue());
+        }
+        List<SearchHit> hits = productSearchService.search(query, after, 0, limit.max() + 1).hits();
+        boolean hasNext = hits.size() > limit.max();
+        List<SearchHit> page = hasNext ? hits.subList(0, limit.max()) : hits;
+        Map<Long, Double> scores = page.stream().collect(Collectors.toMap(SearchHit::id, SearchHit::score));
+        List<ProductRow> rows = rowsOf(idsOf(page));
+        return Window.from(rows, i -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("score", BigDecimal.valueOf(scores.get(rows.get(i).getId())));
+            keys.put("id", rows.get(i).getId());
+            return ScrollPosition.forward(keys);
+        }, hasNext);
     }
-}
 
+    @Override
+    public Page<ProductRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(productRepository, ProductRow.class, query, pageable);
+    }
 
+    @Override
+    public Window<ProductRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(productRepository, ProductRow.class, query, position, limit);
+    }
 
+    /**
+     * Строки товаров в порядке выдачи индекса, одним запросом по id.
+     */
+    private List<ProductRow> rowsOf(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductRow> rows = productRepository.findByIdInAndDeletedFalse(ids)
+                .stream()
+                .collect(Collectors.toMap(ProductRow::getId, Function.identity()));
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static List<Long> idsOf(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
@@ -1,25 +1,25 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Review;
+import com.example.soratech.repository.projection.ReviewRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface ReviewService {
-    Page<Review> findAllActive(Pageable pageable);
-    
-    Page<Review> findAllDeleted(Pageable pageable);
-    
-    Page<Review> findByProductId(Long productId, Pageable pageable);
-    
-    Page<Review> findByUserId(Long userId, Pageable pageable);
-    
-    Page<Review> findByRating(Integer rating, Pageable pageable);
-    
     List<Review> findAllActive();
     
     Review findById(Long id);
+
+    /**
+     * Загружает запись со связями, нужными для карточки, одним запросом.
+     */
+    Review findDetailedById(Long id);
     
     void save(Review review, Long productId, Long userId);
     
@@ -27,14 +27,19 @@ public interface ReviewService {
     
     void logicDelete(Long id);
     
-    void logicDeleteAllByIds(List<Long> ids);
+    // Массовые операции возвращают число действительно измененных строк
+    int logicDeleteAllByIds(List<Long> ids);
     
     void delete(Long id);
     
-    void deleteAllByIds(List<Long> ids);
+    int deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
 
+    int restoreAllByIds(List<Long> ids);
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<ReviewRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<ReviewRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
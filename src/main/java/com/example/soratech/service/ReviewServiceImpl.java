@@ -4,9 +4,16 @@ import com.example.soratech.model.Review;
 import com.example.soratech.repository.ReviewRepository;
 import com.example.soratech.repository.ProductRepository;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.repository.projection.ReviewRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
+import com.example.soratech.util.IdChunks;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +24,14 @@ import java.util.List;
 @Transactional
 public class ReviewServiceImpl implements ReviewService {
 
+    private static final GridSpec<Review> GRID = GridSpec.<Review>builder()
+            .equal("productId", "product.id", Long.class)
+            .equal("userId", "user.id", Long.class)
+            .equal("rating", "rating", Integer.class)
+            .min("minRating", "rating", Integer.class)
+            .sortable("rating", "createdAt")
+            .build();
+
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
@@ -29,34 +44,9 @@ public class ReviewServiceImpl implements ReviewService {
         this.userRepository = userRepository;
     }
 
-    @Override
-    public Page<Review> findAllActive(Pageable pageable) {
-        return reviewRepository.findAllByDeletedFalse(pageable);
-    }
-
-    @Override
-    public Page<Review> findAllDeleted(Pageable pageable) {
-        return reviewRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Review> findByProductId(Long productId, Pageable pageable) {
-        return reviewRepository.findByProductIdAndDeletedFalse(productId, pageable);
-    }
-
-    @Override
-    public Page<Review> findByUserId(Long userId, Pageable pageable) {
-        return reviewRepository.findByUserIdAndDeletedFalse(userId, pageable);
-    }
-
-    @Override
-    public Page<Review> findByRating(Integer rating, Pageable pageable) {
-        return reviewRepository.findByRatingAndDeletedFalse(rating, pageable);
-    }
-
     @Override
     public List<Review> findAllActive() {
-        return reviewRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        return reviewRepository.findAllByDeletedFalse();
     }
 
     @Override
@@ -65,6 +55,12 @@ public class ReviewServiceImpl implements ReviewService {
                 .orElseThrow(() -> new EntityNotFoundException("Отзыв с ID " + id + " не найден"));
     }
 
+    @Override
+    public Review findDetailedById(Long id) {
+        return reviewRepository.findDetailedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Отзыв с ID " + id + " не найден"));
+    }
+
     @Override
     public void save(Review review, Long productId, Long userId) {
         review.setProduct(productRepository.findById(productId)
@@ -93,10 +89,8 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
-    public void logicDeleteAllByIds(List<Long> ids) {
-        List<Review> reviews = reviewRepository.findAllById(ids);
-        reviews.forEach(review -> review.setDeleted(true));
-        reviewRepository.saveAll(reviews);
+    public int logicDeleteAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, chunk -> reviewRepository.updateDeletedByIdIn(chunk, true));
     }
 
     @Override
@@ -106,8 +100,8 @@ public class ReviewServiceImpl implements ReviewService {
     }
 
     @Override
-    public void deleteAllByIds(List<Long> ids) {
-        reviewRepository.deleteAllById(ids);
+    public int deleteAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, reviewRepository::deleteByIdIn);
     }
 
     @Override
@@ -116,8 +110,19 @@ public class ReviewServiceImpl implements ReviewService {
         review.setDeleted(false);
         reviewRepository.save(review);
     }
-}
-
 
+    @Override
+    public int restoreAllByIds(List<Long> ids) {
+        return IdChunks.sum(ids, chunk -> reviewRepository.updateDeletedByIdIn(chunk, false));
+    }
 
+    @Override
+    public Page<ReviewRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(reviewRepository, ReviewRow.class, query, pageable);
+    }
 
+    @Override
+    public Window<ReviewRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(reviewRepository, ReviewRow.class, query, position, limit);
+    }
+}
@@ -1,18 +1,17 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Role;
+import com.example.soratech.repository.projection.RoleRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface RoleService {
-    Page<Role> findAllActive(Pageable pageable);
-    
-    Page<Role> findAllDeleted(Pageable pageable);
-    
-    Page<Role> searchByName(String name, Pageable pageable);
-    
     List<Role> findAllActive();
     
     Role findById(Long id);
@@ -32,7 +31,9 @@ public interface RoleService {
     void deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
-
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<RoleRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<RoleRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -2,9 +2,15 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.Role;
 import com.example.soratech.repository.RoleRepository;
+import com.example.soratech.repository.projection.RoleRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,30 +20,21 @@ import java.util.List;
 @Transactional
 public class RoleServiceImpl implements RoleService {
 
+    private static final GridSpec<Role> GRID = GridSpec.<Role>builder()
+            .contains("query", "name")
+            .contains("name", "name")
+            .sortable("name")
+            .build();
+
     private final RoleRepository roleRepository;
 
     public RoleServiceImpl(RoleRepository roleRepository) {
         this.roleRepository = roleRepository;
     }
 
-    @Override
-    public Page<Role> findAllActive(Pageable pageable) {
-        return roleRepository.findAllByDeletedFalse(pageable);
-    }
-
-    @Override
-    public Page<Role> findAllDeleted(Pageable pageable) {
-        return roleRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Role> searchByName(String name, Pageable pageable) {
-        return roleRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
-    }
-
     @Override
     public List<Role> findAllActive() {
-        return roleRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        return roleRepository.findAllByDeletedFalse();
     }
 
     @Override
@@ -97,7 +94,14 @@ public class RoleServiceImpl implements RoleService {
         role.setDeleted(false);
         roleRepository.save(role);
     }
-}
-
 
+    @Override
+    public Page<RoleRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(roleRepository, RoleRow.class, query, pageable, roleRepository::findAllByDeletedFalse);
+    }
 
+    @Override
+    public Window<RoleRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(roleRepository, RoleRow.class, query, position, limit);
+    }
+}
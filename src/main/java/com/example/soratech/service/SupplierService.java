@@ -1,18 +1,17 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.Supplier;
+import com.example.soratech.repository.projection.SupplierRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface SupplierService {
-    Page<Supplier> findAllActive(Pageable pageable);
-    
-    Page<Supplier> findAllDeleted(Pageable pageable);
-    
-    Page<Supplier> searchByName(String name, Pageable pageable);
-    
     List<Supplier> findAllActive();
     
     Supplier findById(Long id);
@@ -30,7 +29,9 @@ public interface SupplierService {
     void deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
-}
-
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<SupplierRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<SupplierRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -2,9 +2,15 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.Supplier;
 import com.example.soratech.repository.SupplierRepository;
+import com.example.soratech.repository.projection.SupplierRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,27 +20,18 @@ import java.util.List;
 @Transactional
 public class SupplierServiceImpl implements SupplierService {
 
+    private static final GridSpec<Supplier> GRID = GridSpec.<Supplier>builder()
+            .contains("query", "name")
+            .contains("name", "name")
+            .sortable("name")
+            .build();
+
     private final SupplierRepository supplierRepository;
 
     public SupplierServiceImpl(SupplierRepository supplierRepository) {
         this.supplierRepository = supplierRepository;
     }
 
-    @Override
-    public Page<Supplier> findAllActive(Pageable pageable) {
-        return supplierRepository.findAllByDeletedFalse(pageable);
-    }
-
-    @Override
-    public Page<Supplier> findAllDeleted(Pageable pageable) {
-        return supplierRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<Supplier> searchByName(String name, Pageable pageable) {
-        return supplierRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
-    }
-
     @Override
     public List<Supplier> findAllActive() {
         return supplierRepository.findAllByDeletedFalse();
@@ -94,7 +91,14 @@ public class SupplierServiceImpl implements SupplierService {
         supplier.setDeleted(false);
         supplierRepository.save(supplier);
     }
-}
-
 
+    @Override
+    public Page<SupplierRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(supplierRepository, SupplierRow.class, query, pageable, supplierRepository::findAllByDeletedFalse);
+    }
 
+    @Override
+    public Window<SupplierRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(supplierRepository, SupplierRow.class, query, position, limit);
+    }
+}
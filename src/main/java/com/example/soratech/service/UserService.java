@@ -1,46 +1,64 @@
 package com.example.soratech.service;
 
 import com.example.soratech.model.User;
+import com.example.soratech.repository.projection.UserRow;
+import com.example.soratech.repository.spec.GridQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface UserService {
-    Page<User> findAllActive(Pageable pageable);
-    
-    Page<User> findAllDeleted(Pageable pageable);
-    
-    Page<User> searchByName(String name, Pageable pageable);
-    
-    Page<User> searchByEmail(String email, Pageable pageable);
+    Page<UserRow> findAllActive(Pageable pageable);
     
     List<User> findAllActive();
     
     User findById(Long id);
+
+    /**
+     * Загружает запись со связями, нужными для карточки, одним запросом.
+     */
+    User findDetailedById(Long id);
     
     User findByEmail(String email);
     
     User findByPhone(String phone);
     
     void save(User user, Long roleId);
+
+    /**
+     * Регистрация покупателя: роль "Клиент" и событие UserRegistered в outbox в одной транзакции.
+     */
+    void register(User user);
     
     void update(Long id, User user, Long roleId);
     
     void logicDelete(Long id);
     
-    void logicDeleteAllByIds(List<Long> ids);
+    /**
+     * Массовое удаление пользователей: одним UPDATE на часть списка, выданные им JWT отзываются.
+     *
+     * @return число пользователей, которые еще не были удалены
+     */
+    int logicDeleteAllByIds(List<Long> ids);
     
     void delete(Long id);
     
-    void deleteAllByIds(List<Long> ids);
+    int deleteAllByIds(List<Long> ids);
     
     void restore(Long id);
+
+    int restoreAllByIds(List<Long> ids);
     
     boolean existsByEmail(String email);
     
     boolean existsByPhone(String phone);
-}
-
 
+    // Таблица панели: комбинация фильтров, удаленные записи и сортировка из запроса
+    Page<UserRow> findAll(GridQuery query, Pageable pageable);
 
+    Window<UserRow> findAll(GridQuery query, ScrollPosition position, Limit limit);
+}
@@ -2,52 +2,79 @@ package com.example.soratech.service;
 
 import com.example.soratech.model.Role;
 import com.example.soratech.model.User;
+import com.example.soratech.outbox.OutboxService;
+import com.example.soratech.repository.OrderRepository;
+import com.example.soratech.repository.ReviewRepository;
 import com.example.soratech.repository.RoleRepository;
 import com.example.soratech.repository.UserRepository;
+import com.example.soratech.security.CustomUserDetailsService;
+import com.example.soratech.security.TokenVersionService;
+import com.example.soratech.repository.projection.UserRow;
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.repository.spec.GridSpec;
+import com.example.soratech.util.IdChunks;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Transactional
 public class UserServiceImpl implements UserService {
 
+    private static final GridSpec<User> GRID = GridSpec.<User>builder()
+            .contains("name", "name")
+            .contains("email", "email")
+            .equal("roleId", "role.id", Long.class)
+            .equal("active", "active", Boolean.class)
+            .sortable("name", "email", "phone")
+            .build();
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository) {
+    private final TokenVersionService tokenVersionService;
+    private final CustomUserDetailsService userDetailsService;
+    private final OrderRepository orderRepository;
+    private final ReviewRepository reviewRepository;
+    private final OrderService orderService;
+    private final OutboxService outboxService;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           RoleRepository roleRepository,
+                           TokenVersionService tokenVersionService,
+                           CustomUserDetailsService userDetailsService,
+                           OrderRepository orderRepository,
+                           ReviewRepository reviewRepository,
+                           OrderService orderService,
+                           OutboxService outboxService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.tokenVersionService = tokenVersionService;
+        this.userDetailsService = userDetailsService;
+        this.orderRepository = orderRepository;
+        this.reviewRepository = reviewRepository;
+        this.orderService = orderService;
+        this.outboxService = outboxService;
     }
 
     @Override
-    public Page<User> findAllActive(Pageable pageable) {
+    public Page<UserRow> findAllActive(Pageable pageable) {
         return userRepository.findAllByDeletedFalse(pageable);
     }
 
-    @Override
-    public Page<User> findAllDeleted(Pageable pageable) {
-        return userRepository.findAllByDeletedTrue(pageable);
-    }
-
-    @Override
-    public Page<User> searchByName(String name, Pageable pageable) {
-        return userRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
-    }
-
-    @Override
-    public Page<User> searchByEmail(String email, Pageable pageable) {
-        return userRepository.findByEmailContainingIgnoreCaseAndDeletedFalse(email, pageable);
-    }
-
     @Override
     public List<User> findAllActive() {
-        return userRepository.findAllByDeletedFalse(Pageable.unpaged()).getContent();
+        return userRepository.findAllByDeletedFalse();
     }
 
     @Override
@@ -56,6 +83,12 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + id + " не найден"));
     }
 
+    @Override
+    public User findDetailedById(Long id) {
+        return userRepository.findDetailedById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Пользователь с ID " + id + " не найден"));
+    }
+
     @Override
     public User findByEmail(String email) {
         return userRepository.findByEmailAndDeletedFalse(email)
@@ -80,9 +113,28 @@ public class UserServiceImpl implements UserService {
         userRepository.save(user);
     }
 
+    @Override
+    public void register(User user) {
+        user.setRole(roleRepository.findByName("Клиент")
+                .orElseThrow(() -> new EntityNotFoundException("Роль 'Клиент' не найдена")));
+        user.setDeleted(false);
+        user.setCreatedAt(LocalDateTime.now());
+        userRepository.save(user);
+        // Приветственное письмо отправит подписчик outbox после коммита, а не поток запроса
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("email", user.getEmail());
+        payload.put("name", user.getName());
+        outboxService.publish(OutboxService.USER, user.getId(), OutboxService.USER_REGISTERED, payload);
+    }
+
     @Override
     public void update(Long id, User user, Long roleId) {
         User existing = findById(id);
+        // Снимок полей, от которых зависят выданные JWT, - до применения изменений
+        String oldEmail = existing.getEmail();
+        String oldPassword = existing.getPassword();
+        boolean oldActive = existing.isActive();
+        Long oldRoleId = existing.getRole() != null ? existing.getRole().getId() : null;
         existing.setEmail(user.getEmail());
         existing.setName(user.getName());
         existing.setPhone(user.getPhone());
@@ -96,32 +148,54 @@ public class UserServiceImpl implements UserService {
                     .orElseThrow(() -> new EntityNotFoundException("Роль с ID " + roleId + " не найдена"));
             existing.setRole(role);
         }
+        // Токены отзываются, только если изменились email, роль, пароль или активность.
+        // Если вызывающий передал сам managed-объект, снимок уже содержит новые значения - отзываем всегда.
+        Long newRoleId = existing.getRole() != null ? existing.getRole().getId() : null;
+        boolean credentialsChanged = user == existing
+                || !Objects.equals(oldEmail, existing.getEmail())
+                || !Objects.equals(oldPassword, existing.getPassword())
+                || oldActive != existing.isActive()
+                || !Objects.equals(oldRoleId, newRoleId);
+        if (credentialsChanged) {
+            existing.setTokenVersion(existing.getTokenVersion() + 1);
+        }
         userRepository.save(existing);
+        evictCaches(id);
     }
 
     @Override
     public void logicDelete(Long id) {
         User user = findById(id);
         user.setDeleted(true);
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        evictCaches(id);
     }
 
     @Override
-    public void logicDeleteAllByIds(List<Long> ids) {
-        List<User> users = userRepository.findAllById(ids);
-        users.forEach(user -> user.setDeleted(true));
-        userRepository.saveAll(users);
+    public int logicDeleteAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, userRepository::softDeleteByIdIn);
+        ids.forEach(this::evictCaches);
+        return affected;
     }
 
     @Override
     public void delete(Long id) {
         User user = findById(id);
         userRepository.delete(user);
+        evictCaches(id);
     }
 
+    // Каскад, как при удалении сущности: заказы (с возвратом товара на склад) и отзывы пользователя
     @Override
-    public void deleteAllByIds(List<Long> ids) {
-        userRepository.deleteAllById(ids);
+    public int deleteAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, chunk -> {
+            orderService.deleteAllByIds(orderRepository.findIdsByUserIdIn(chunk));
+            reviewRepository.deleteByUserIdIn(chunk);
+            return userRepository.deleteByIdIn(chunk);
+        });
+        ids.forEach(this::evictCaches);
+        return affected;
     }
 
     @Override
@@ -129,6 +203,14 @@ public class UserServiceImpl implements UserService {
         User user = findById(id);
         user.setDeleted(false);
         userRepository.save(user);
+        evictCaches(id);
+    }
+
+    @Override
+    public int restoreAllByIds(List<Long> ids) {
+        int affected = IdChunks.sum(ids, userRepository::restoreByIdIn);
+        ids.forEach(this::evictCaches);
+        return affected;
     }
 
     @Override
@@ -140,7 +222,22 @@ public class UserServiceImpl implements UserService {
     public boolean existsByPhone(String phone) {
         return userRepository.existsByPhone(phone);
     }
-}
 
+    @Override
+    public Page<UserRow> findAll(GridQuery query, Pageable pageable) {
+        return GRID.findPage(userRepository, UserRow.class, query, pageable);
+    }
 
+    @Override
+    public Window<UserRow> findAll(GridQuery query, ScrollPosition position, Limit limit) {
+        return GRID.findWindow(userRepository, UserRow.class, query, position, limit);
+    }
 
+    /**
+     * Сбрасывает кэши версий токенов и данных пользователя после коммита.
+     */
+    private void evictCaches(Long userId) {
+        tokenVersionService.evict(userId);
+        userDetailsService.evict(userId);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.soratech.task;
+
+import com.example.soratech.model.AsyncTask;
+import com.example.soratech.repository.AsyncTaskRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Реестр фоновых задач: id выдается при запуске, задача проходит состояния QUEUED -> RUNNING -> DONE/FAILED
+ * и может сообщать процент выполнения.
+ * <p>
+ * В памяти завершенная задача хранится app.tasks.retention, всего завершенных - не больше app.tasks.max-size
+ * (выполняющиеся в этот предел не входят и не вытесняются). При app.tasks.persistent=true изменения
+ * копятся в буфере (последнее состояние каждой задачи) и раз в app.tasks.flush-interval пишутся в таблицу
+ * async_task одной транзакцией; статус доступен и после перезапуска, пока не истечет app.tasks.persisted-retention.
+ */
+@Service
+public class TaskRegistry {
+
+    static final String INTERRUPTED = "Задача прервана перезапуском приложения";
+
+    // Зависшая задача не занимает память бесконечно
+    private static final Duration ACTIVE_TTL = Duration.ofDays(1);
+
+    private final AsyncTaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean persistent;
+    private final Duration persistedRetention;
+    private final Cache<String, TaskStatus> tasks;
+    // Буфер отложенной записи: несохраненное последнее состояние задачи
+    private final Map<String, TaskStatus> dirty = new ConcurrentHashMap<>();
+    // Параллельные записи (по расписанию и при остановке) вставили бы одну задачу дважды
+    private final Object flushLock = new Object();
+
+    public TaskRegistry(AsyncTaskRepository taskRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.tasks.persistent:false}") boolean persistent,
+                        @Value("${app.tasks.retention:1h}") Duration retention,
+                        @Value("${app.tasks.max-size:10000}") long maxSize,
+                        @Value("${app.tasks.persisted-retention:7d}") Duration persistedRetention) {
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persistent = persistent;
+        this.persistedRetention = persistedRetention;
+        this.tasks = Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((String id, TaskStatus task) -> task.status().isFinished() ? 1 : 0)
+                .expireAfter(new Expiry<String, TaskStatus>() {
+                    @Override
+                    public long expireAfterCreate(String id, TaskStatus task, long currentTime) {
+                        return ttl(task);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, TaskStatus task, long currentTime, long currentDuration) {
+                        return ttl(task);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, TaskStatus task, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    private long ttl(TaskStatus task) {
+                        return (task.status().isFinished() ? retention : ACTIVE_TTL).toNanos();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Регистрирует задачу и запускает ее: job получает id задачи и возвращает future асинхронного метода.
+     * По завершении future задача получает DONE (результат - toString() значения) или FAILED (текст ошибки).
+     *
+     * @return id задачи для GET /api/async/status/{taskId}
+     */
+    public String launch(String type, Function<String, CompletableFuture<?>> job) {
+        String taskId = UUID.randomUUID().toString();
+        put(TaskStatus.queued(taskId, type));
+        CompletableFuture<?> future;
+        try {
+            future = job.apply(taskId);
+        } catch (RuntimeException e) {
+            fail(taskId, e.getMessage()); // например, очередь пула переполнена
+            throw e;
+        }
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                fail(taskId, rootCause(error).getMessage());
+            } else {
+                complete(taskId, value != null ? value.toString() : null);
+            }
+        });
+        return taskId;
+    }
+
+    /**
+     * Вызывается задачей, когда поток пула начал ее выполнять.
+     */
+    public void start(String taskId) {
+        update(taskId, task -> task.status() == AsyncTask.Status.QUEUED ? task.running() : task);
+    }
+
+    public void progress(String taskId, int percent) {
+        update(taskId, task -> task.status().isFinished() ? task : task.withProgress(percent));
+    }
+
+    public void complete(String taskId, String result) {
+        update(taskId, task -> task.status().isFinished() ? task : task.finished(AsyncTask.Status.DONE, result));
+    }
+
+    public void fail(String taskId, String error) {
+        update(taskId, task -> task.status().isFinished() ? task : task.finished(AsyncTask.Status.FAILED, error));
+    }
+
+    /**
+     * Состояние задачи: из памяти, а вытесненной или запущенной до перезапуска - из БД.
+     */
+    public Optional<TaskStatus> find(String taskId) {
+        TaskStatus task = tasks.getIfPresent(taskId);
+        if (task != null || !persistent) {
+            return Optional.ofNullable(task);
+        }
+        task = dirty.get(taskId);
+        return task != null ? Optional.of(task) : taskRepository.findById(taskId).map(TaskStatus::of);
+    }
+
+    /**
+     * Пишет накопленные изменения в БД: один SELECT существующих строк, вставки и обновления пакетами.
+     * Если запись не удалась, изменения остаются в буфере до следующей попытки.
+     */
+    @Scheduled(initialDelayString = "${app.tasks.flush-interval:1s}", fixedDelayString = "${app.tasks.flush-interval:1s}")
+    public void flush() {
+        if (!persistent || dirty.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            Map<String, TaskStatus> batch = new HashMap<>(dirty);
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, AsyncTask> stored = new HashMap<>();
+                for (AsyncTask task : taskRepository.findAllById(batch.keySet())) {
+                    stored.put(task.getId(), task);
+                }
+                for (TaskStatus task : batch.values()) {
+                    AsyncTask entity = stored.get(task.taskId());
+                    if (entity == null) {
+                        entity = new AsyncTask(task.taskId());
+                        task.copyTo(entity);
+                        taskRepository.save(entity);
+                    } else {
+                        task.copyTo(entity);
+                    }
+                }
+            });
+            // Состояние, измененное во время записи, останется в буфере
+            batch.forEach(dirty::remove);
+        }
+    }
+
+    /**
+     * Удаляет из БД задачи, завершенные раньше app.tasks.persisted-retention.
+     */
+    @Scheduled(initialDelayString = "${app.tasks.sweep-interval:10m}", fixedDelayString = "${app.tasks.sweep-interval:10m}")
+    public int purgeExpired() {
+        if (!persistent) {
+            return 0;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(persistedRetention);
+        return transactionTemplate.execute(status -> taskRepository.deleteByFinishedAtBefore(before));
+    }
+
+    /**
+     * Задачи, которые выполнялись при остановке, уже не завершатся: при старте они отмечаются как FAILED.
+     * Рассчитано на один экземпляр приложения на базу.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterrupted() {
+        if (persistent) {
+            transactionTemplate.executeWithoutResult(status -> taskRepository.failUnfinished(
+                    List.of(AsyncTask.Status.QUEUED, AsyncTask.Status.RUNNING), INTERRUPTED, LocalDateTime.now()));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void update(String taskId, UnaryOperator<TaskStatus> change) {
+        // Буфер меняется под блокировкой записи реестра: в нем не окажется устаревший снимок
+        tasks.asMap().computeIfPresent(taskId, (id, task) -> {
+            TaskStatus updated = change.apply(task);
+            if (persistent) {
+                dirty.put(id, updated);
+            }
+            return updated;
+        });
+    }
+
+    private void put(TaskStatus task) {
+        tasks.put(task.taskId(), task);
+        if (persistent) {
+            dirty.put(task.taskId(), task);
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
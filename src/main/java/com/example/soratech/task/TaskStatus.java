@@ -0,0 +1,50 @@
+package com.example.soratech.task;
+
+import com.example.soratech.model.AsyncTask;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемый снимок состояния фоновой задачи; каждое изменение заменяет снимок целиком.
+ *
+ * @param progress процент выполнения, 0-100
+ * @param result   результат выполненной задачи или текст ошибки
+ */
+public record TaskStatus(String taskId, String type, AsyncTask.Status status, int progress, String result,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime finishedAt) {
+
+    static TaskStatus queued(String taskId, String type) {
+        LocalDateTime now = LocalDateTime.now();
+        return new TaskStatus(taskId, type, AsyncTask.Status.QUEUED, 0, null, now, now, null);
+    }
+
+    static TaskStatus of(AsyncTask task) {
+        return new TaskStatus(task.getId(), task.getType(), task.getStatus(), task.getProgress(), task.getResult(),
+                task.getCreatedAt(), task.getUpdatedAt(), task.getFinishedAt());
+    }
+
+    TaskStatus running() {
+        return new TaskStatus(taskId, type, AsyncTask.Status.RUNNING, progress, null, createdAt, LocalDateTime.now(), null);
+    }
+
+    TaskStatus withProgress(int percent) {
+        return new TaskStatus(taskId, type, status, Math.max(0, Math.min(100, percent)), result,
+                createdAt, LocalDateTime.now(), finishedAt);
+    }
+
+    TaskStatus finished(AsyncTask.Status outcome, String text) {
+        LocalDateTime now = LocalDateTime.now();
+        return new TaskStatus(taskId, type, outcome, outcome == AsyncTask.Status.DONE ? 100 : progress, text,
+                createdAt, now, now);
+    }
+
+    void copyTo(AsyncTask task) {
+        task.setType(type);
+        task.setStatus(status);
+        task.setProgress(progress);
+        task.setResult(result != null && result.length() > 1000 ? result.substring(0, 1000) : result);
+        task.setCreatedAt(createdAt);
+        task.setUpdatedAt(updatedAt);
+        task.setFinishedAt(finishedAt);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.soratech.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение CSV (RFC 4180): записи разбираются по одной, файл целиком в память не загружается.
+ * Поля в кавычках могут содержать запятые, переводы строк и удвоенные кавычки.
+ */
+public class CsvReader implements Closeable {
+
+    // Защита от файла с незакрытой кавычкой: иначе весь остаток файла стал бы одним полем
+    static final int MAX_FIELD_LENGTH = 10_000;
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+    private long recordNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Номер последней прочитанной записи, начиная с 1 (заголовок - тоже запись).
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * @return поля следующей записи или null в конце файла
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (recordNumber == 0 && c == '\uFEFF') {
+            c = read(); // BOM, который добавляет Excel
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordNumber++;
+        List<String> fields = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Запись " + recordNumber + ": не закрыта кавычка");
+                }
+                if (c == QUOTE) {
+                    int next = read();
+                    if (next == QUOTE) {
+                        append(c);
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    append(c);
+                }
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                append(c);
+            }
+            c = read();
+        }
+    }
+
+    private void append(int c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Запись " + recordNumber + ": поле длиннее " + MAX_FIELD_LENGTH + " символов");
+        }
+        field.append((char) c);
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
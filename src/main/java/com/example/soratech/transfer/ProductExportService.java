@@ -0,0 +1,139 @@
+package com.example.soratech.transfer;
+
+import com.example.soratech.model.Supplier;
+import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.SupplierRepository;
+import com.example.soratech.repository.projection.ProductExportRow;
+import com.example.soratech.repository.projection.ProductSupplierRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка неудаленных товаров в CSV или NDJSON в формате, который принимает ProductImportService.
+ * Строки читаются курсором БД и сразу пишутся в ответ; поставщики догружаются одним запросом
+ * на порцию из app.product-transfer.batch-size товаров.
+ */
+@Service
+public class ProductExportService {
+
+    static final List<String> CSV_HEADER =
+            List.of("id", "name", "price", "stockQuantity", "manufacturer", "category", "suppliers");
+
+    private final ProductRepository productRepository;
+    private final SupplierRepository supplierRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+
+    public ProductExportService(ProductRepository productRepository,
+                                SupplierRepository supplierRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.product-transfer.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.supplierRepository = supplierRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void exportProducts(ProductTransferFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ProductTransferFormat.CSV) {
+            writeCsvRecord(writer, CSV_HEADER);
+        }
+        try {
+            // Курсор PostgreSQL читает порциями только внутри транзакции (без autocommit)
+            readOnlyTransaction.executeWithoutResult(status -> {
+                Map<Long, String> supplierNames = new HashMap<>();
+                for (Supplier supplier : supplierRepository.findAll()) {
+                    supplierNames.put(supplier.getId(), supplier.getName());
+                }
+                try (Stream<ProductExportRow> rows = productRepository.streamExportRows()) {
+                    List<ProductExportRow> chunk = new ArrayList<>(batchSize);
+                    Iterator<ProductExportRow> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == batchSize || !iterator.hasNext()) {
+                            writeChunk(chunk, supplierNames, format, writer);
+                            chunk.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // клиент прервал загрузку
+        }
+        writer.flush();
+    }
+
+    private void writeChunk(List<ProductExportRow> chunk, Map<Long, String> supplierNames,
+                            ProductTransferFormat format, Writer writer) throws IOException {
+        Map<Long, List<String>> suppliers = new HashMap<>();
+        for (ProductSupplierRow link : productRepository.findSupplierLinks(chunk.stream().map(ProductExportRow::getId).toList())) {
+            suppliers.computeIfAbsent(link.getProductId(), id -> new ArrayList<>())
+                    .add(supplierNames.get(link.getSupplierId()));
+        }
+        for (ProductExportRow row : chunk) {
+            List<String> names = suppliers.getOrDefault(row.getId(), List.of()).stream().sorted().toList();
+            if (format == ProductTransferFormat.CSV) {
+                writeCsvRecord(writer, List.of(
+                        String.valueOf(row.getId()),
+                        row.getName(),
+                        row.getPrice() != null ? row.getPrice().toPlainString() : "",
+                        String.valueOf(row.getStockQuantity()),
+                        row.getManufacturerName(),
+                        row.getCategoryName(),
+                        String.join(ProductRowReader.SUPPLIER_SEPARATOR, names)));
+            } else {
+                ProductTransferRow line = new ProductTransferRow();
+                line.setId(row.getId());
+                line.setName(row.getName());
+                line.setPrice(row.getPrice());
+                line.setStockQuantity(row.getStockQuantity());
+                line.setManufacturer(row.getManufacturerName());
+                line.setCategory(row.getCategoryName());
+                line.setSuppliers(names);
+                writer.write(objectMapper.writeValueAsString(line));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static void writeCsvRecord(Writer writer, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields.get(i);
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
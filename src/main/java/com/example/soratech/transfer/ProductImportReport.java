@@ -0,0 +1,59 @@
+package com.example.soratech.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог импорта товаров. Ошибки хранятся только для первых MAX_ERRORS записей,
+ * чтобы файл с миллионом ошибочных строк не занимал память отчетом; счетчик failed учитывает все.
+ */
+public class ProductImportReport {
+
+    static final int MAX_ERRORS = 1000;
+
+    /**
+     * Ошибка записи: line - номер записи в файле (в CSV заголовок - запись 1).
+     */
+    public record RowError(long line, String message) {
+    }
+
+    private long total;
+    private long created;
+    private long updated;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    void countRow() {
+        total++;
+    }
+
+    void addCreated(long count) {
+        created += count;
+    }
+
+    void addUpdated(long count) {
+        updated += count;
+    }
+
+    void fail(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public long getTotal() { return total; }
+
+    public long getCreated() { return created; }
+
+    public long getUpdated() { return updated; }
+
+    public long getFailed() { return failed; }
+
+    public List<RowError> getErrors() { return errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+}
@@ -0,0 +1,279 @@
+package com.example.soratech.transfer;
+
+import com.example.soratech.model.Category;
+import com.example.soratech.model.Manufacturer;
+import com.example.soratech.model.Product;
+import com.example.soratech.model.Supplier;
+import com.example.soratech.repository.CategoryRepository;
+import com.example.soratech.repository.ManufacturerRepository;
+import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.SupplierRepository;
+import com.example.soratech.search.ProductSearchService;
+import com.example.soratech.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Загрузка прайс-листа (CSV или NDJSON) пачками по app.product-transfer.batch-size записей.
+ * Файл читается потоком, а после каждой пачки контекст персистентности очищается, поэтому память
+ * не зависит от размера файла. Справочники загружаются один раз на импорт, записи пачки проверяются
+ * параллельно, затем пачка сохраняется в своей транзакции (вставки идут JDBC-пакетами).
+ * Ошибочная запись не останавливает импорт, а попадает в отчет; сбой при сохранении пачки
+ * отмечает ошибкой все ее записи, уже сохраненные пачки остаются.
+ */
+@Service
+public class ProductImportService {
+
+    private final ProductRepository productRepository;
+    private final ManufacturerRepository manufacturerRepository;
+    private final CategoryRepository categoryRepository;
+    private final SupplierRepository supplierRepository;
+    private final InventoryService inventoryService;
+    private final ProductSearchService productSearchService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ManufacturerRepository manufacturerRepository,
+                                CategoryRepository categoryRepository,
+                                SupplierRepository supplierRepository,
+                                InventoryService inventoryService,
+                                ProductSearchService productSearchService,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.product-transfer.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.product-transfer.batch-size должен быть положительным");
+        }
+        this.productRepository = productRepository;
+        this.manufacturerRepository = manufacturerRepository;
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+        this.inventoryService = inventoryService;
+        this.productSearchService = productSearchService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Создает новые товары и обновляет существующие: по id, если он указан, иначе по паре
+     * название + производитель (среди неудаленных товаров).
+     */
+    public ProductImportReport importProducts(InputStream in, ProductTransferFormat format) throws IOException {
+        References references = loadReferences();
+        ProductImportReport report = new ProductImportReport();
+        List<ProductRowReader.ParsedRow> batch = new ArrayList<>(batchSize);
+        try (ProductRowReader reader = ProductRowReader.open(in, format, objectMapper)) {
+            ProductRowReader.ParsedRow row;
+            while ((row = reader.next()) != null) {
+                report.countRow();
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, references, report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, references, report);
+        }
+        return report;
+    }
+
+    private void importBatch(List<ProductRowReader.ParsedRow> batch, References references, ProductImportReport report) {
+        // Проверка не обращается к БД (справочники уже в памяти), поэтому безопасно идет параллельно
+        List<Checked> checked = batch.parallelStream()
+                .map(row -> check(row, references))
+                .toList();
+
+        List<Checked> valid = new ArrayList<>(checked.size());
+        for (Checked row : checked) {
+            if (row.error() != null) {
+                report.fail(row.line(), row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            BatchResult result = transactionTemplate.execute(status -> saveBatch(valid));
+            result.errors().forEach(error -> report.fail(error.line(), error.message()));
+            report.addCreated(result.created());
+            report.addUpdated(result.updated());
+        } catch (RuntimeException e) {
+            for (Checked row : valid) {
+                report.fail(row.line(), "пачка не сохранена: " + e.getMessage());
+            }
+        } finally {
+            // Сохраненные товары больше не нужны; при откате в контексте могли остаться несохраненные
+            entityManager.clear();
+        }
+    }
+
+    private Checked check(ProductRowReader.ParsedRow parsed, References references) {
+        if (parsed.error() != null) {
+            return Checked.failed(parsed.line(), parsed.error());
+        }
+        ProductTransferRow row = parsed.row();
+        Set<ConstraintViolation<ProductTransferRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return Checked.failed(parsed.line(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        Long manufacturerId = references.manufacturers().get(key(row.getManufacturer()));
+        if (manufacturerId == null) {
+            return Checked.failed(parsed.line(), "Производитель не найден: " + row.getManufacturer());
+        }
+        Long categoryId = references.categories().get(key(row.getCategory()));
+        if (categoryId == null) {
+            return Checked.failed(parsed.line(), "Категория не найдена: " + row.getCategory());
+        }
+        Set<Long> supplierIds = null;
+        if (row.getSuppliers() != null) {
+            supplierIds = new HashSet<>();
+            for (String supplier : row.getSuppliers()) {
+                Long supplierId = references.suppliers().get(key(supplier));
+                if (supplierId == null) {
+                    return Checked.failed(parsed.line(), "Поставщик не найден: " + supplier);
+                }
+                supplierIds.add(supplierId);
+            }
+        }
+        return new Checked(parsed.line(), row, manufacturerId, categoryId, supplierIds, null);
+    }
+
+    private BatchResult saveBatch(List<Checked> rows) {
+        Map<Long, Product> byId = productRepository.findAllById(rows.stream()
+                        .map(row -> row.row().getId())
+                        .filter(id -> id != null)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .filter(product -> !product.isDeleted())
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<ProductKey, Product> byKey = new HashMap<>();
+        Set<String> names = rows.stream()
+                .filter(row -> row.row().getId() == null)
+                .map(row -> row.row().getName())
+                .collect(Collectors.toSet());
+        if (!names.isEmpty()) {
+            for (Product product : productRepository.findByNameInAndDeletedFalse(names)) {
+                byKey.putIfAbsent(new ProductKey(product.getName(), product.getManufacturer().getId()), product);
+            }
+        }
+
+        List<ProductImportReport.RowError> errors = new ArrayList<>();
+        Map<Long, Integer> stockChanges = new LinkedHashMap<>();
+        Set<Long> productIds = new HashSet<>();
+        int created = 0;
+        int updated = 0;
+        for (Checked row : rows) {
+            ProductTransferRow data = row.row();
+            ProductKey key = new ProductKey(data.getName(), row.manufacturerId());
+            Product product = data.getId() != null ? byId.get(data.getId()) : byKey.get(key);
+            if (data.getId() != null && product == null) {
+                errors.add(new ProductImportReport.RowError(row.line(), "Товар с ID " + data.getId() + " не найден"));
+                continue;
+            }
+            boolean isNew = product == null;
+            if (isNew) {
+                product = new Product();
+                product.setStockQuantity(data.getStockQuantity() != null ? data.getStockQuantity() : 0);
+            }
+            product.setName(data.getName());
+            product.setPrice(data.getPrice());
+            product.setManufacturer(manufacturerRepository.getReferenceById(row.manufacturerId()));
+            product.setCategory(categoryRepository.getReferenceById(row.categoryId()));
+            if (row.supplierIds() != null) {
+                Set<Supplier> suppliers = new HashSet<>();
+                for (Long supplierId : row.supplierIds()) {
+                    suppliers.add(supplierRepository.getReferenceById(supplierId));
+                }
+                product.setSuppliers(suppliers);
+            }
+            if (isNew) {
+                product = productRepository.save(product);
+                byKey.put(key, product);
+                created++;
+            } else {
+                // Остаток не записывается вместе с сущностью (updatable = false) - только через InventoryService
+                if (data.getStockQuantity() != null
+                        && (product.getStockStripes() > 0 || !data.getStockQuantity().equals(product.getStockQuantity()))) {
+                    stockChanges.put(product.getId(), data.getStockQuantity());
+                }
+                updated++;
+            }
+            productIds.add(product.getId());
+        }
+        entityManager.flush();
+        stockChanges.forEach(inventoryService::setStock);
+        productSearchService.reindexAfterCommit(productIds);
+        return new BatchResult(created, updated, errors);
+    }
+
+    private References loadReferences() {
+        return new References(
+                index(manufacturerRepository.findAllByDeletedFalse(), Manufacturer::getName, Manufacturer::getId),
+                index(categoryRepository.findAllByDeletedFalse(), Category::getName, Category::getId),
+                index(supplierRepository.findAllByDeletedFalse(), Supplier::getName, Supplier::getId));
+    }
+
+    private static <T> Map<String, Long> index(List<T> entities, Function<T, String> name, Function<T, Long> id) {
+        Map<String, Long> result = new HashMap<>();
+        for (T entity : entities) {
+            result.putIfAbsent(key(name.apply(entity)), id.apply(entity));
+        }
+        return result;
+    }
+
+    // Справочники сопоставляются по названию без учета регистра и крайних пробелов
+    private static String key(String name) {
+        return name == null ? null : name.trim().toLowerCase();
+    }
+
+    private record References(Map<String, Long> manufacturers, Map<String, Long> categories, Map<String, Long> suppliers) {
+    }
+
+    private record Checked(long line, ProductTransferRow row, Long manufacturerId, Long categoryId,
+                           Set<Long> supplierIds, String error) {
+        static Checked failed(long line, String error) {
+            return new Checked(line, null, null, null, null, error);
+        }
+    }
+
+    private record ProductKey(String name, Long manufacturerId) {
+    }
+
+    private record BatchResult(int created, int updated, List<ProductImportReport.RowError> errors) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.soratech.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Чтение товаров из файла импорта по одной записи. Ошибка разбора записи не прерывает чтение:
+ * запись возвращается с текстом ошибки и попадает в отчет импорта.
+ */
+abstract class ProductRowReader implements Closeable {
+
+    // Разделитель поставщиков внутри поля CSV (запятая занята разделителем полей)
+    static final String SUPPLIER_SEPARATOR = "|";
+
+    /**
+     * Прочитанная запись: товар или ошибка разбора. line - номер записи в файле.
+     */
+    record ParsedRow(long line, ProductTransferRow row, String error) {
+    }
+
+    /**
+     * @return следующая запись или null в конце файла
+     */
+    abstract ParsedRow next() throws IOException;
+
+    static ProductRowReader open(InputStream in, ProductTransferFormat format, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(reader, objectMapper);
+        };
+    }
+
+    /**
+     * CSV с заголовком. Порядок колонок произвольный, названия без учета регистра,
+     * обязательны name, price, manufacturer и category.
+     */
+    private static class Csv extends ProductRowReader {
+
+        private static final List<String> REQUIRED = List.of("name", "price", "manufacturer", "category");
+
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        Csv(BufferedReader reader) throws IOException {
+            this.csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Файл пуст: нет строки заголовка");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            for (String column : REQUIRED) {
+                if (!columns.containsKey(column)) {
+                    throw new IllegalArgumentException("В заголовке нет обязательной колонки " + column);
+                }
+            }
+        }
+
+        @Override
+        ParsedRow next() throws IOException {
+            List<String> fields;
+            do {
+                fields = csv.readRecord();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            long line = csv.getRecordNumber();
+            ProductTransferRow row = new ProductTransferRow();
+            String column = "id";
+            try {
+                row.setId(number(cell(fields, "id"), Long::valueOf));
+                column = "price";
+                row.setPrice(number(cell(fields, "price"), value -> new BigDecimal(value.replace(',', '.'))));
+                column = "stockQuantity";
+                row.setStockQuantity(number(cell(fields, "stockquantity"), Integer::valueOf));
+            } catch (NumberFormatException e) {
+                return new ParsedRow(line, null, "некорректное число в колонке " + column);
+            }
+            row.setName(trim(cell(fields, "name")));
+            row.setManufacturer(trim(cell(fields, "manufacturer")));
+            row.setCategory(trim(cell(fields, "category")));
+            if (columns.containsKey("suppliers")) {
+                row.setSuppliers(Arrays.stream(cell(fields, "suppliers").split("\\" + SUPPLIER_SEPARATOR))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .toList());
+            }
+            return new ParsedRow(line, row, null);
+        }
+
+        // Отсутствующая в записи колонка (короткая строка) считается пустой
+        private String cell(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index != null && index < fields.size() ? fields.get(index) : "";
+        }
+
+        private static <T> T number(String value, Function<String, T> parser) {
+            String text = trim(value);
+            return text == null ? null : parser.apply(text);
+        }
+
+        private static String trim(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    /**
+     * NDJSON: по одному JSON-объекту товара в строке.
+     */
+    private static class Ndjson extends ProductRowReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ParsedRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            try {
+                return new ParsedRow(line, objectMapper.readValue(text, ProductTransferRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, "некорректный JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.soratech.transfer;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Форматы импорта и выгрузки товаров.
+ */
+public enum ProductTransferFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ProductTransferFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Формат по имени (csv, ndjson) или по Content-Type запроса.
+     */
+    public static ProductTransferFormat of(String value) {
+        if (value != null) {
+            String type = value.contains("/") ? MediaType.parseMediaType(value).getSubtype() : value;
+            for (ProductTransferFormat format : values()) {
+                if (format.mediaType.endsWith("/" + type.toLowerCase()) || format.name().equalsIgnoreCase(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый формат: " + value + " (допустимы csv и ndjson)");
+    }
+}
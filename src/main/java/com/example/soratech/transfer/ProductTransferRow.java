@@ -0,0 +1,64 @@
+package com.example.soratech.transfer;
+
+import com.example.soratech.validation.ValidPrice;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Товар в файле импорта/выгрузки (строка CSV или объект NDJSON).
+ * Производитель, категория и поставщики задаются названиями, как в прайс-листе поставщика.
+ * Если id не указан, товар ищется по паре название + производитель, а при отсутствии создается.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductTransferRow {
+
+    private Long id;
+
+    @NotBlank(message = "Название продукта не может быть пустым")
+    @Size(min = 3, max = 150, message = "Название должно быть от 3 до 150 символов")
+    private String name;
+
+    @NotNull(message = "Цена не может быть null")
+    @ValidPrice
+    private BigDecimal price;
+
+    // null - остаток существующего товара не меняется, новый товар создается с нулевым остатком
+    @PositiveOrZero(message = "Количество на складе не может быть отрицательным")
+    private Integer stockQuantity;
+
+    @NotBlank(message = "Производитель обязателен")
+    private String manufacturer;
+
+    @NotBlank(message = "Категория обязательна")
+    private String category;
+
+    // null - связи с поставщиками не меняются, пустой список - удаляются
+    private List<String> suppliers;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public String getManufacturer() { return manufacturer; }
+    public void setManufacturer(String manufacturer) { this.manufacturer = manufacturer; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public List<String> getSuppliers() { return suppliers; }
+    public void setSuppliers(List<String> suppliers) { this.suppliers = suppliers; }
+}
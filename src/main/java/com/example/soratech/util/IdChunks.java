@@ -0,0 +1,31 @@
+package com.example.soratech.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+public class IdChunks {
+
+    /**
+     * Размер списка id в одном запросе: IN-список ограничен числом параметров драйвера (32767 у PostgreSQL),
+     * а длинный список еще и раздувает кэш планов.
+     */
+    public static final int SIZE = 1000;
+
+    /**
+     * Выполняет массовую операцию по частям: id без повторов, по возрастанию (строки блокируются
+     * в одном порядке), не больше SIZE в запросе.
+     *
+     * @return сумма затронутых строк
+     */
+    public static int sum(Collection<Long> ids, ToIntFunction<List<Long>> action) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+        int affected = 0;
+        for (int from = 0; from < sorted.size(); from += SIZE) {
+            affected += action.applyAsInt(sorted.subList(from, Math.min(sorted.size(), from + SIZE)));
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,31 @@
+-- Сводные таблицы продаж для отчетов (SalesRollupService): итоги по дням и по товару за день
+-- обновляются приращениями по событиям заказов, отчет за период читает только их.
+-- sales_rollup_line - вклад каждого заказа, уже внесенный в сводные таблицы: по нему
+-- повторная доставка события ничего не меняет, а изменение заказа вносит только разницу.
+
+create table sales_daily (
+    sales_date date not null,
+    order_count integer default 0 not null,
+    quantity bigint default 0 not null,
+    revenue numeric(14,2) default 0 not null,
+    primary key (sales_date)
+);
+
+create table sales_daily_product (
+    sales_date date not null,
+    product_id bigint not null,
+    order_count integer default 0 not null,
+    quantity bigint default 0 not null,
+    revenue numeric(14,2) default 0 not null,
+    primary key (sales_date, product_id)
+);
+
+-- Без внешнего ключа на orders: строки удаленного заказа нужны, чтобы вычесть его вклад
+create table sales_rollup_line (
+    order_id bigint not null,
+    product_id bigint not null,
+    sales_date date not null,
+    quantity bigint not null,
+    revenue numeric(14,2) not null,
+    primary key (order_id, product_id)
+);
@@ -0,0 +1,5 @@
+-- Изменения таблицы users, которых нет в исходной схеме (V1): версия токенов для отзыва JWT
+-- и уникальный телефон для входа по email или телефону. Выполняется и на базах, принятых как baseline.
+-- Если в базе есть повторяющиеся телефоны, их нужно исправить до обновления.
+alter table users add column if not exists token_version integer default 0 not null;
+alter table users add constraint uk_users_phone unique (phone);
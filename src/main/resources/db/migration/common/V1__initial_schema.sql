@@ -0,0 +1,172 @@
+-- Исходная схема в том виде, в каком ее создавал Hibernate (ddl-auto=update) до перехода на Flyway.
+-- На существующих базах эта миграция не выполняется: схема принимается как baseline (версия 1),
+-- поэтому все последующие изменения схемы вносятся только новыми миграциями.
+
+create table category (
+    id bigint generated by default as identity,
+    deleted boolean not null,
+    description varchar(500),
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table manufacturer (
+    id bigint generated by default as identity,
+    address varchar(255),
+    country varchar(255) not null,
+    deleted boolean not null,
+    email varchar(255),
+    name varchar(255) not null,
+    phone varchar(255),
+    primary key (id)
+);
+
+create table order_item (
+    id bigint generated by default as identity,
+    price numeric(10,2) not null,
+    quantity integer not null,
+    subtotal numeric(10,2) not null,
+    order_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table orders (
+    id bigint generated by default as identity,
+    comment varchar(1000),
+    created_at timestamp(6) not null,
+    deleted boolean not null,
+    delivery_address varchar(500) not null,
+    status varchar(50) not null,
+    total_amount numeric(10,2) not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    primary key (id)
+);
+
+create table product (
+    id bigint generated by default as identity,
+    deleted boolean not null,
+    name varchar(255) not null,
+    price numeric(10,2),
+    stock_quantity integer not null,
+    category_id bigint not null,
+    manufacturer_id bigint not null,
+    primary key (id)
+);
+
+create table product_details (
+    id bigint generated by default as identity,
+    characteristic_name varchar(255) not null,
+    characteristic_value varchar(500) not null,
+    deleted boolean not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table product_supplier (
+    product_id bigint not null,
+    supplier_id bigint not null,
+    primary key (product_id, supplier_id)
+);
+
+create table review (
+    id bigint generated by default as identity,
+    comment varchar(1000) not null,
+    created_at timestamp(6) not null,
+    deleted boolean not null,
+    rating integer not null,
+    updated_at timestamp(6),
+    product_id bigint not null,
+    user_id bigint not null,
+    primary key (id)
+);
+
+create table role (
+    id bigint generated by default as identity,
+    deleted boolean not null,
+    description varchar(255),
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table supplier (
+    id bigint generated by default as identity,
+    address varchar(255) not null,
+    contact_person varchar(255) not null,
+    deleted boolean not null,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    active boolean not null,
+    address varchar(500),
+    created_at timestamp(6) not null,
+    deleted boolean not null,
+    email varchar(255) not null unique,
+    last_login_at timestamp(6),
+    name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    role_id bigint,
+    primary key (id)
+);
+
+alter table if exists order_item
+    add constraint FKt4dc2r9nbvbujrljv3e23iibt
+    foreign key (order_id)
+    references orders;
+
+alter table if exists order_item
+    add constraint FK551losx9j75ss5d6bfsqvijna
+    foreign key (product_id)
+    references product;
+
+alter table if exists orders
+    add constraint FK32ql8ubntj5uh44ph9659tiih
+    foreign key (user_id)
+    references users;
+
+alter table if exists product
+    add constraint FK1mtsbur82frn64de7balymq9s
+    foreign key (category_id)
+    references category;
+
+alter table if exists product
+    add constraint FK89igr5j06uw5ps04djxgom0l1
+    foreign key (manufacturer_id)
+    references manufacturer;
+
+alter table if exists product_details
+    add constraint FKrhahp4f26x99lqf0kybcs79rb
+    foreign key (product_id)
+    references product;
+
+alter table if exists product_supplier
+    add constraint FKojmkj7n4g02l3vj0lf10j7rer
+    foreign key (supplier_id)
+    references supplier;
+
+alter table if exists product_supplier
+    add constraint FK9ycab4fchfe9g9uxleti557pv
+    foreign key (product_id)
+    references product;
+
+alter table if exists review
+    add constraint FKiyof1sindb9qiqr9o8npj8klt
+    foreign key (product_id)
+    references product;
+
+alter table if exists review
+    add constraint FK6cpw2nlklblpvc7hyt7ko6v3e
+    foreign key (user_id)
+    references users;
+
+alter table if exists users
+    add constraint FK4qu1gr772nnf6ve5af002rwya
+    foreign key (role_id)
+    references role;
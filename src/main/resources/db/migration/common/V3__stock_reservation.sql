@@ -0,0 +1,42 @@
+-- Резервирование товара под заказы.
+-- stock_stripes > 0: остаток популярного товара разнесен по строкам product_stock_stripe,
+-- чтобы одновременные заказы не ждали блокировку одной строки product.
+
+alter table product add column stock_stripes integer default 0 not null;
+
+create table product_stock_stripe (
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    stripe integer not null,
+    quantity integer not null,
+    primary key (id),
+    constraint uk_product_stock_stripe unique (product_id, stripe),
+    constraint ck_product_stock_stripe_quantity check (quantity >= 0)
+);
+
+create table stock_reservation (
+    id bigint generated by default as identity,
+    order_id bigint not null,
+    product_id bigint not null,
+    stripe integer,
+    quantity integer not null,
+    status varchar(20) not null,
+    expires_at timestamp(6),
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+alter table if exists product_stock_stripe
+    add constraint fk_product_stock_stripe_product
+    foreign key (product_id)
+    references product;
+
+alter table if exists stock_reservation
+    add constraint fk_stock_reservation_order
+    foreign key (order_id)
+    references orders;
+
+alter table if exists stock_reservation
+    add constraint fk_stock_reservation_product
+    foreign key (product_id)
+    references product;
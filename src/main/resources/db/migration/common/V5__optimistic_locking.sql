@@ -0,0 +1,3 @@
+-- Версии для оптимистической блокировки товаров и заказов (@Version)
+alter table product add column version bigint default 0 not null;
+alter table orders add column version bigint default 0 not null;
@@ -0,0 +1,17 @@
+-- Состояние фоновых задач (TaskRegistry): записывается пачками из буфера в памяти,
+-- чтобы статус задачи был доступен и после перезапуска приложения.
+
+create table async_task (
+    id varchar(36) not null,
+    type varchar(50) not null,
+    status varchar(20) not null,
+    progress integer default 0 not null,
+    result varchar(1000),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    finished_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_async_task_status on async_task (status);
+create index idx_async_task_finished_at on async_task (finished_at);
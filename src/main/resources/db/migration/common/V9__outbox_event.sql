@@ -0,0 +1,21 @@
+-- Transactional outbox: событие пишется в одной транзакции с изменением заказа/пользователя,
+-- OutboxRelay читает ожидающие события пачками (for update skip locked) и передает подписчикам.
+
+create sequence outbox_event_seq start with 1 increment by 20;
+
+create table outbox_event (
+    id bigint not null,
+    aggregate_type varchar(30) not null,
+    aggregate_id bigint not null,
+    event_type varchar(50) not null,
+    payload varchar(4000) not null,
+    status varchar(20) not null,
+    attempts integer default 0 not null,
+    next_attempt_at timestamp(6) not null,
+    last_error varchar(1000),
+    created_at timestamp(6) not null,
+    processed_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_outbox_event_pending on outbox_event (status, next_attempt_at, id);
@@ -0,0 +1,28 @@
+-- H2 не поддерживает частичные индексы: те же пути доступа, что и в postgresql/V2,
+-- покрываются обычными составными индексами (используется в тестах на H2).
+
+create index idx_product_active_category on product (category_id, id);
+create index idx_product_active_manufacturer on product (manufacturer_id, id);
+create index idx_product_active_price on product (price, id);
+create index idx_product_active_name on product (name, id);
+create index idx_product_supplier_supplier on product_supplier (supplier_id, product_id);
+
+create index idx_product_details_active_product on product_details (product_id, id);
+create index idx_product_details_active_name on product_details (characteristic_name, id);
+
+create index idx_orders_active_user on orders (user_id, id);
+create index idx_orders_active_status on orders (status, id);
+create index idx_orders_active_created_at on orders (created_at, id);
+create index idx_order_item_order on order_item (order_id);
+
+create index idx_review_active_product on review (product_id, id);
+create index idx_review_active_user on review (user_id, id);
+create index idx_review_active_rating on review (rating, id);
+create index idx_review_active_created_at on review (created_at, id);
+
+create index idx_users_active_role on users (role_id, id);
+create index idx_users_active_name on users (name, id);
+
+create index idx_manufacturer_active_name on manufacturer (name, id);
+create index idx_manufacturer_active_country on manufacturer (country, id);
+create index idx_supplier_active_name on supplier (name, id);
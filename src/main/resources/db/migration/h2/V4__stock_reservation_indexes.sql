@@ -0,0 +1,3 @@
+-- См. postgresql/V4: в H2 без условия WHERE
+create index idx_stock_reservation_active_order on stock_reservation (order_id, status);
+create index idx_stock_reservation_held_expires on stock_reservation (status, expires_at);
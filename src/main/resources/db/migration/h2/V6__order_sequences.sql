@@ -0,0 +1,6 @@
+-- Идентификаторы заказов и позиций из последовательностей (шаг = allocationSize в сущностях)
+create sequence orders_seq start with 1 increment by 20;
+create sequence order_item_seq start with 1 increment by 20;
+
+alter sequence orders_seq restart with (select coalesce(max(id), 0) + 20 from orders);
+alter sequence order_item_seq restart with (select coalesce(max(id), 0) + 20 from order_item);
@@ -0,0 +1,25 @@
+-- Последовательности для остальных сущностей (шаг = allocationSize = hibernate.jdbc.batch_size).
+-- Оптимизатор pooled-lo: значение последовательности - начало блока id, поэтому следующий
+-- вызов должен вернуть max(id) + 1 - уже выданные id сохраняются.
+
+create sequence category_seq start with 1 increment by 20;
+create sequence manufacturer_seq start with 1 increment by 20;
+create sequence product_seq start with 1 increment by 20;
+create sequence product_details_seq start with 1 increment by 20;
+create sequence review_seq start with 1 increment by 20;
+create sequence role_seq start with 1 increment by 20;
+create sequence supplier_seq start with 1 increment by 20;
+create sequence users_seq start with 1 increment by 20;
+create sequence product_stock_stripe_seq start with 1 increment by 20;
+create sequence stock_reservation_seq start with 1 increment by 20;
+
+alter sequence category_seq restart with (select coalesce(max(id), 0) + 1 from category);
+alter sequence manufacturer_seq restart with (select coalesce(max(id), 0) + 1 from manufacturer);
+alter sequence product_seq restart with (select coalesce(max(id), 0) + 1 from product);
+alter sequence product_details_seq restart with (select coalesce(max(id), 0) + 1 from product_details);
+alter sequence review_seq restart with (select coalesce(max(id), 0) + 1 from review);
+alter sequence role_seq restart with (select coalesce(max(id), 0) + 1 from role);
+alter sequence supplier_seq restart with (select coalesce(max(id), 0) + 1 from supplier);
+alter sequence users_seq restart with (select coalesce(max(id), 0) + 1 from users);
+alter sequence product_stock_stripe_seq restart with (select coalesce(max(id), 0) + 1 from product_stock_stripe);
+alter sequence stock_reservation_seq restart with (select coalesce(max(id), 0) + 1 from stock_reservation);
@@ -0,0 +1,33 @@
+-- Индексы под запросы таблиц панелей и выборки активных записей.
+-- Почти все запросы содержат deleted = false, поэтому индексы частичные: удаленные строки
+-- в них не попадают, а id вторым ключом дает порядок для keyset-пагинации без сортировки.
+
+-- Товары: фильтры категории, производителя и цены, сортировка по имени и цене
+create index idx_product_active_category on product (category_id, id) where deleted = false;
+create index idx_product_active_manufacturer on product (manufacturer_id, id) where deleted = false;
+create index idx_product_active_price on product (price, id) where deleted = false;
+create index idx_product_active_name on product (name, id) where deleted = false;
+-- Фильтр по поставщику идет от поставщика к товарам, первичный ключ связи начинается с товара
+create index idx_product_supplier_supplier on product_supplier (supplier_id, product_id);
+
+create index idx_product_details_active_product on product_details (product_id, id) where deleted = false;
+create index idx_product_details_active_name on product_details (characteristic_name, id) where deleted = false;
+
+-- Заказы: по пользователю, статусу и периоду
+create index idx_orders_active_user on orders (user_id, id) where deleted = false;
+create index idx_orders_active_status on orders (status, id) where deleted = false;
+create index idx_orders_active_created_at on orders (created_at, id) where deleted = false;
+create index idx_order_item_order on order_item (order_id);
+
+-- Отзывы: по товару, автору, оценке и дате
+create index idx_review_active_product on review (product_id, id) where deleted = false;
+create index idx_review_active_user on review (user_id, id) where deleted = false;
+create index idx_review_active_rating on review (rating, id) where deleted = false;
+create index idx_review_active_created_at on review (created_at, id) where deleted = false;
+
+create index idx_users_active_role on users (role_id, id) where deleted = false;
+create index idx_users_active_name on users (name, id) where deleted = false;
+
+create index idx_manufacturer_active_name on manufacturer (name, id) where deleted = false;
+create index idx_manufacturer_active_country on manufacturer (country, id) where deleted = false;
+create index idx_supplier_active_name on supplier (name, id) where deleted = false;
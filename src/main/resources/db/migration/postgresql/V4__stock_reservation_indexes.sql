@@ -0,0 +1,5 @@
+-- Действующие резервы заказа и просроченные удержания для очистки
+create index idx_stock_reservation_active_order on stock_reservation (order_id)
+    where status in ('HELD', 'CONFIRMED');
+create index idx_stock_reservation_held_expires on stock_reservation (expires_at)
+    where status = 'HELD';
@@ -0,0 +1,8 @@
+-- Идентификаторы заказов и позиций из последовательностей (шаг = allocationSize в сущностях):
+-- Hibernate выдает id блоками и может объединять INSERT в пакеты (hibernate.jdbc.batch_size).
+-- Первое значение - за существующими id, чтобы блок не пересекся с уже выданными.
+create sequence orders_seq start with 1 increment by 20;
+create sequence order_item_seq start with 1 increment by 20;
+
+select setval('orders_seq', (select coalesce(max(id), 0) + 20 from orders), false);
+select setval('order_item_seq', (select coalesce(max(id), 0) + 20 from order_item), false);
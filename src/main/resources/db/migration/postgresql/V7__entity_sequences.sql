@@ -0,0 +1,25 @@
+-- Последовательности для остальных сущностей (шаг = allocationSize = hibernate.jdbc.batch_size).
+-- Оптимизатор pooled-lo: значение последовательности - начало блока id, поэтому следующий
+-- вызов должен вернуть max(id) + 1 - уже выданные id сохраняются.
+
+create sequence category_seq start with 1 increment by 20;
+create sequence manufacturer_seq start with 1 increment by 20;
+create sequence product_seq start with 1 increment by 20;
+create sequence product_details_seq start with 1 increment by 20;
+create sequence review_seq start with 1 increment by 20;
+create sequence role_seq start with 1 increment by 20;
+create sequence supplier_seq start with 1 increment by 20;
+create sequence users_seq start with 1 increment by 20;
+create sequence product_stock_stripe_seq start with 1 increment by 20;
+create sequence stock_reservation_seq start with 1 increment by 20;
+
+select setval('category_seq', (select coalesce(max(id), 0) + 1 from category), false);
+select setval('manufacturer_seq', (select coalesce(max(id), 0) + 1 from manufacturer), false);
+select setval('product_seq', (select coalesce(max(id), 0) + 1 from product), false);
+select setval('product_details_seq', (select coalesce(max(id), 0) + 1 from product_details), false);
+select setval('review_seq', (select coalesce(max(id), 0) + 1 from review), false);
+select setval('role_seq', (select coalesce(max(id), 0) + 1 from role), false);
+select setval('supplier_seq', (select coalesce(max(id), 0) + 1 from supplier), false);
+select setval('users_seq', (select coalesce(max(id), 0) + 1 from users), false);
+select setval('product_stock_stripe_seq', (select coalesce(max(id), 0) + 1 from product_stock_stripe), false);
+select setval('stock_reservation_seq', (select coalesce(max(id), 0) + 1 from stock_reservation), false);
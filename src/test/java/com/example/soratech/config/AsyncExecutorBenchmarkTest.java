@@ -0,0 +1,85 @@
+package com.example.soratech.config;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пропускная способность taskExecutor на задачах, которые в основном ждут ввода-вывода (как AsyncService):
+ * пул платформенных потоков с настройками по умолчанию (5/10/100), поток ОС на задачу и виртуальный поток
+ * на задачу (только на Java 21+, иначе вариант пропускается).
+ * Запуск: mvn test -Dtest=AsyncExecutorBenchmarkTest -Dbenchmark=true [-Dbenchmark.tasks=2000 -Dbenchmark.io-ms=50]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AsyncExecutorBenchmarkTest {
+
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 2_000);
+    private static final int IO_MILLIS = Integer.getInteger("benchmark.io-ms", 50);
+
+    @Test
+    public void platformThreadPool() throws Exception {
+        ThreadPoolTaskExecutor executor = AsyncConfig.platformThreadPool(5, 10, 100, "bench-pool-");
+        try {
+            run("platform pool 5/10/100", executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void platformThreadPerTask() throws Exception {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("bench-thread-");
+        try {
+            run("platform thread per task", executor);
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void virtualThreadPerTask() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "виртуальные потоки требуют Java 21+");
+        SimpleAsyncTaskExecutor executor = AsyncConfig.virtualThreadExecutor("bench-virtual-");
+        try {
+            run("virtual thread per task", executor);
+        } finally {
+            executor.close();
+        }
+    }
+
+    private void run(String mode, AsyncTaskExecutor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        int rejected = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        Thread.sleep(IO_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                rejected++;
+                done.countDown();
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int completed = TASKS - rejected;
+        System.out.printf("%-26s tasks=%d io=%dms completed=%d rejected=%d time=%.2fs throughput=%.0f tasks/s%n",
+                mode, TASKS, IO_MILLIS, completed, rejected, seconds, completed / seconds);
+    }
+}
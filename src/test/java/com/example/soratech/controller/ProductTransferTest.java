@@ -0,0 +1,201 @@
+package com.example.soratech.controller;
+
+import com.example.soratech.model.Category;
+import com.example.soratech.model.Manufacturer;
+import com.example.soratech.model.Product;
+import com.example.soratech.model.Supplier;
+import com.example.soratech.repository.CategoryRepository;
+import com.example.soratech.repository.ManufacturerRepository;
+import com.example.soratech.repository.ProductRepository;
+import com.example.soratech.repository.SupplierRepository;
+import com.example.soratech.service.InventoryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Импорт прайс-листа пачками (размер пачки уменьшен, чтобы файл занял несколько пачек) и выгрузка в том же формате.
+ */
+@SpringBootTest(properties = "app.product-transfer.batch-size=2")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "Администратор")
+public class ProductTransferTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String suffix;
+    private String manufacturer;
+    private String category;
+    private Supplier supplier;
+
+    @BeforeEach
+    public void setUp() {
+        suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category c = new Category();
+        c.setName("Импорт " + suffix);
+        category = categoryRepository.save(c).getName();
+
+        Manufacturer m = new Manufacturer();
+        m.setName("Производитель " + suffix);
+        m.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(m).getName();
+
+        supplier = new Supplier();
+        supplier.setName("Поставщик " + suffix);
+        supplier.setContactPerson("Иван Петров");
+        supplier.setEmail("import" + suffix + "@example.com");
+        supplier.setPhone("+7908" + suffix);
+        supplier.setAddress("Москва");
+        supplier = supplierRepository.save(supplier);
+    }
+
+    @Test
+    public void testImportCsv_CreatesValidRowsAndReportsErrorsByLine() throws Exception {
+        String csv = "name,price,stockQuantity,manufacturer,category,suppliers\r\n" +
+                "\"Ноутбук " + suffix + ", 15\"\"\",1000.50,5," + manufacturer + "," + category + "," + supplier.getName() + "\r\n" +
+                "Монитор " + suffix + ",200,3," + manufacturer.toUpperCase() + "," + category + ",\r\n" +
+                "Клавиатура " + suffix + ",abc,1," + manufacturer + "," + category + ",\r\n" +
+                "Мышь " + suffix + ",50,1,Нет такого " + suffix + "," + category + ",\r\n" +
+                "Ко,50,1," + manufacturer + "," + category + ",\r\n";
+
+        mockMvc.perform(post("/api/manager/products/import")
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].total").value(5))
+                .andExpect(jsonPath("$.content[0].created").value(2))
+                .andExpect(jsonPath("$.content[0].failed").value(3))
+                .andExpect(jsonPath("$.content[0].errors[0].line").value(4))
+                .andExpect(jsonPath("$.content[0].errors[1].line").value(5))
+                .andExpect(jsonPath("$.content[0].errors[2].line").value(6));
+
+        Product laptop = find("Ноутбук " + suffix + ", 15\"");
+        assertEquals(0, new BigDecimal("1000.50").compareTo(laptop.getPrice()));
+        assertEquals(5, inventoryService.getAvailableStock(laptop.getId()));
+        assertEquals(1, productRepository.findSupplierLinks(List.of(laptop.getId())).size());
+        assertEquals(3, inventoryService.getAvailableStock(find("Монитор " + suffix).getId()));
+    }
+
+    @Test
+    public void testImport_UpdatesExistingProductByNameAndManufacturer() throws Exception {
+        String header = "name,price,stockQuantity,manufacturer,category,suppliers\n";
+        importCsv(header + "Монитор " + suffix + ",200,3," + manufacturer + "," + category + ",\n");
+        Product created = find("Монитор " + suffix);
+
+        mockMvc.perform(post("/api/manager/products/import")
+                        .contentType("text/csv")
+                        .content((header + "Монитор " + suffix + ",250,7," + manufacturer + "," + category + "," + supplier.getName() + "\n")
+                                .getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].created").value(0))
+                .andExpect(jsonPath("$.content[0].updated").value(1));
+
+        Product updated = find("Монитор " + suffix);
+        assertEquals(created.getId(), updated.getId());
+        assertEquals(0, BigDecimal.valueOf(250).compareTo(updated.getPrice()));
+        assertEquals(7, inventoryService.getAvailableStock(updated.getId()));
+        assertEquals(1, productRepository.findSupplierLinks(List.of(updated.getId())).size());
+    }
+
+    @Test
+    public void testNdjsonImport_ExportedInBothFormats() throws Exception {
+        String ndjson = "{\"name\":\"Планшет " + suffix + "\",\"price\":300,\"stockQuantity\":2,\"manufacturer\":\"" + manufacturer +
+                "\",\"category\":\"" + category + "\",\"suppliers\":[\"" + supplier.getName() + "\"]}\n" +
+                "{\"name\":\"Сломанная строка\n" +
+                "\n" +
+                "{\"name\":\"Телефон " + suffix + "\",\"price\":150,\"manufacturer\":\"" + manufacturer +
+                "\",\"category\":\"" + category + "\"}\n";
+
+        mockMvc.perform(post("/api/manager/products/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].total").value(3))
+                .andExpect(jsonPath("$.content[0].created").value(2))
+                .andExpect(jsonPath("$.content[0].errors[0].line").value(2));
+        Product tablet = find("Планшет " + suffix);
+
+        String exportedJson = mockMvc.perform(get("/api/manager/products/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode line = exportedJson.lines()
+                .map(this::readTree)
+                .filter(node -> node.get("id").asLong() == tablet.getId())
+                .findFirst().orElseThrow();
+        assertEquals(manufacturer, line.get("manufacturer").asText());
+        assertEquals(supplier.getName(), line.get("suppliers").get(0).asText());
+
+        String exportedCsv = mockMvc.perform(get("/api/manager/products/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(exportedCsv.startsWith("id,name,price,stockQuantity,manufacturer,category,suppliers\r\n"));
+        assertTrue(exportedCsv.contains(tablet.getId() + ",Планшет " + suffix + ",300.00,2," + manufacturer + ","
+                + category + "," + supplier.getName() + "\r\n"));
+    }
+
+    @Test
+    public void testImportCsv_MissingRequiredColumnRejected() throws Exception {
+        mockMvc.perform(post("/api/manager/products/import")
+                        .contentType("text/csv")
+                        .content("name,price\nТовар,1\n".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void importCsv(String csv) throws Exception {
+        mockMvc.perform(post("/api/manager/products/import")
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].failed").value(0));
+    }
+
+    private Product find(String name) {
+        List<Product> found = productRepository.findByNameInAndDeletedFalse(List.of(name));
+        assertEquals(1, found.size(), name);
+        return found.get(0);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.soratech.controller;
+
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import com.example.soratech.service.InventoryService;
+import com.example.soratech.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Массовые операции панели администратора: один оператор на часть списка, каскад как при удалении по одной.
+ */
+// Опрос outbox отключен: его запросы в фоне попали бы в счетчик операторов
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.outbox.poll-interval=1h"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "Администратор")
+public class RestAdminControllerBulkTest {
+
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductDetailsRepository productDetailsRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category category = new Category();
+        category.setName("Массовые " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        Supplier supplier = new Supplier();
+        supplier.setName("Поставщик " + suffix);
+        supplier.setContactPerson("Иван Петров");
+        supplier.setEmail("bulk" + suffix + "@example.com");
+        supplier.setPhone("+7906" + suffix);
+        supplier.setAddress("Москва");
+        supplier = supplierRepository.save(supplier);
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("bulkbuyer" + suffix + "@example.com");
+        user.setPhone("+7907" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+
+        products.clear();
+        for (int i = 0; i < ITEMS; i++) {
+            Product p = new Product();
+            p.setName("Товар " + i + " " + suffix);
+            p.setPrice(BigDecimal.valueOf(100 + i));
+            p.setStockQuantity(10);
+            p.setCategory(category);
+            p.setManufacturer(manufacturer);
+            p.getSuppliers().add(supplier);
+            p = productRepository.save(p);
+            products.add(p);
+
+            ProductDetails details = new ProductDetails();
+            details.setProduct(p);
+            details.setCharacteristicName("Цвет");
+            details.setCharacteristicValue("Черный");
+            productDetailsRepository.save(details);
+
+            Review review = new Review();
+            review.setProduct(p);
+            review.setUser(user);
+            review.setRating(5);
+            review.setComment("Отличный товар, рекомендую");
+            reviewRepository.save(review);
+        }
+    }
+
+    @Test
+    public void testBulkLogicDeleteAndRestore_ReturnAffectedRows() throws Exception {
+        List<Long> ids = productIds();
+        perform("/api/admin/products/bulk/logic-delete", ids.subList(0, 1));
+
+        perform("/api/admin/products/bulk/logic-delete", ids)
+                .andExpect(jsonPath("$.content[0].requested").value(ITEMS))
+                .andExpect(jsonPath("$.content[0].affected").value(ITEMS - 1));
+        assertTrue(productRepository.findAllById(ids).stream().allMatch(Product::isDeleted));
+
+        perform("/api/admin/products/bulk/restore", ids)
+                .andExpect(jsonPath("$.content[0].affected").value(ITEMS));
+        assertTrue(productRepository.findAllById(ids).stream().noneMatch(Product::isDeleted));
+    }
+
+    @Test
+    public void testBulkLogicDelete_StatementCountIndependentOfSize() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> reviewIds = reviewRepository.findAll().stream()
+                .filter(r -> r.getUser().getId().equals(user.getId()))
+                .map(Review::getId)
+                .collect(Collectors.toList());
+
+        statistics.clear();
+        perform("/api/admin/reviews/bulk/logic-delete", reviewIds.subList(0, 1));
+        long single = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        perform("/api/admin/reviews/bulk/logic-delete", reviewIds)
+                .andExpect(jsonPath("$.content[0].affected").value(ITEMS - 1));
+        assertEquals(single, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBulkDeleteProducts_CascadesToDetailsReviewsAndSuppliers() throws Exception {
+        List<Long> ids = productIds();
+
+        perform("/api/admin/products/bulk/delete", ids)
+                .andExpect(jsonPath("$.content[0].affected").value(ITEMS));
+
+        assertTrue(productRepository.findAllById(ids).isEmpty());
+        assertTrue(productDetailsRepository.findAll().stream().noneMatch(d -> ids.contains(d.getProduct().getId())));
+        assertTrue(reviewRepository.findAll().stream().noneMatch(r -> ids.contains(r.getProduct().getId())));
+    }
+
+    @Test
+    public void testBulkDeleteUsers_RemovesOrdersAndReturnsStock() throws Exception {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setDeliveryAddress("Москва, ул. Тверская, 1");
+        request.getItems().add(new CheckoutRequest.Item(products.get(0).getId(), 4));
+        Long orderId = orderService.checkout(request).getId();
+        assertEquals(6, inventoryService.getAvailableStock(products.get(0).getId()));
+
+        perform("/api/admin/users/bulk/delete", List.of(user.getId()))
+                .andExpect(jsonPath("$.content[0].affected").value(1));
+
+        assertFalse(userRepository.existsById(user.getId()));
+        assertFalse(orderRepository.existsById(orderId));
+        assertEquals(10, inventoryService.getAvailableStock(products.get(0).getId()));
+    }
+
+    @Test
+    public void testBulkDeleteOrders_SkipsMissingIds() throws Exception {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setDeliveryAddress("Москва, ул. Тверская, 1");
+        request.getItems().add(new CheckoutRequest.Item(products.get(1).getId(), 3));
+        Long orderId = orderService.checkout(request).getId();
+        Long missingId = orderId + 1_000_000;
+
+        perform("/api/admin/orders/bulk/delete", List.of(orderId, missingId))
+                .andExpect(jsonPath("$.content[0].requested").value(2))
+                .andExpect(jsonPath("$.content[0].affected").value(1));
+
+        assertFalse(orderRepository.existsById(orderId));
+        assertEquals(10, inventoryService.getAvailableStock(products.get(1).getId()));
+    }
+
+    @Test
+    @WithMockUser(roles = "Менеджер")
+    public void testManagerBulkLogicDelete_UsedByPanelMultiSelect() throws Exception {
+        List<Long> ids = productIds();
+
+        perform("/api/manager/products/bulk/logic-delete", ids)
+                .andExpect(jsonPath("$.content[0].requested").value(ITEMS))
+                .andExpect(jsonPath("$.content[0].affected").value(ITEMS));
+
+        assertTrue(productRepository.findAllById(ids).stream().allMatch(Product::isDeleted));
+    }
+
+    @Test
+    public void testBulk_UnsupportedEntityRejected() throws Exception {
+        mockMvc.perform(post("/api/admin/categories/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    public void testUpdateUser_RevokesTokensOnlyWhenCredentialsChange() throws Exception {
+        String unchanged = "{\"name\":\"Покупатель 2\",\"email\":\"" + user.getEmail() + "\","
+                + "\"phone\":\"" + user.getPhone() + "\",\"address\":\"Казань\","
+                + "\"roleId\":" + user.getRole().getId() + "}";
+        mockMvc.perform(put("/api/admin/users/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content(unchanged))
+                .andExpect(status().isOk());
+        assertEquals(user.getTokenVersion(), userRepository.findById(user.getId()).orElseThrow().getTokenVersion());
+
+        String deactivated = unchanged.replace("}", ",\"active\":false}");
+        mockMvc.perform(put("/api/admin/users/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content(deactivated))
+                .andExpect(status().isOk());
+        assertEquals(user.getTokenVersion() + 1, userRepository.findById(user.getId()).orElseThrow().getTokenVersion());
+    }
+
+    private org.springframework.test.web.servlet.ResultActions perform(String url, List<Long> ids) throws Exception {
+        String body = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+    }
+
+    private List<Long> productIds() {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.soratech.controller;
+
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import com.example.soratech.search.ProductSearchService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов на эндпоинт не должно зависеть от количества строк и связей (нет N+1).
+ */
+// Опрос outbox отключен: его запросы в фоне попали бы в счетчик операторов
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.outbox.poll-interval=1h"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "Администратор")
+public class RestAdminControllerStatementCountTest {
+
+    private static final int ITEMS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductDetailsRepository productDetailsRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    private Category category;
+    private Supplier supplier;
+    private User user;
+    private Product product;
+    private List<Product> products;
+    private Order order;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        category = new Category();
+        category.setName("Категория " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        supplier = new Supplier();
+        supplier.setName("Поставщик " + suffix);
+        supplier.setContactPerson("Иван Петров");
+        supplier.setEmail("supplier" + suffix + "@example.com");
+        supplier.setPhone("+7900" + suffix);
+        supplier.setAddress("Москва");
+        supplier = supplierRepository.save(supplier);
+
+        Role role = roleRepository.findByName("Клиент").orElseThrow();
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("buyer" + suffix + "@example.com");
+        user.setPhone("+7901" + suffix);
+        user.setPassword("hash");
+        user.setRole(role);
+        user = userRepository.save(user);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Product p = new Product();
+            p.setName("Товар " + i + " " + suffix);
+            p.setPrice(BigDecimal.valueOf(100 + i));
+            p.setStockQuantity(10);
+            p.setCategory(category);
+            p.setManufacturer(manufacturer);
+            p.getSuppliers().add(supplier);
+            p = productRepository.save(p);
+            products.add(p);
+
+            ProductDetails details = new ProductDetails();
+            details.setProduct(p);
+            details.setCharacteristicName("Цвет");
+            details.setCharacteristicValue("Черный");
+            productDetailsRepository.save(details);
+
+            Review review = new Review();
+            review.setProduct(p);
+            review.setUser(user);
+            review.setRating(5);
+            review.setComment("Отличный товар, рекомендую");
+            reviewRepository.save(review);
+        }
+
+        for (int i = 0; i < ITEMS; i++) {
+            Order o = new Order();
+            o.setUser(user);
+            o.setTotalAmount(BigDecimal.valueOf(500));
+            o.setStatus("PENDING");
+            o.setDeliveryAddress("Москва, ул. Тверская, 1");
+            o = orderRepository.save(o);
+            if (i == 0) {
+                order = o;
+            }
+        }
+
+        for (Product p : products) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(p);
+            item.setQuantity(1);
+            item.setPrice(p.getPrice());
+            item.setSubtotal(p.getPrice());
+            orderItemRepository.save(item);
+        }
+        product = products.get(0);
+    }
+
+    @Test
+    public void testOrderList_SingleStatement() throws Exception {
+        assertStatementCount(1, "/api/admin/orders?userId=" + user.getId());
+    }
+
+    @Test
+    public void testProductList_SingleStatement() throws Exception {
+        assertStatementCount(1, "/api/admin/products?categoryId=" + category.getId());
+    }
+
+    @Test
+    public void testProductList_CombinedFiltersSingleStatement() throws Exception {
+        String url = "/api/admin/products?categoryId=" + category.getId() + "&supplierId=" + supplier.getId()
+                + "&minPrice=101&maxPrice=103&sortBy=price&sortDir=desc";
+        assertStatementCount(1, url);
+
+        mockMvc.perform(get(url))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].price").value(103))
+                .andExpect(jsonPath("$.content[2].price").value(101));
+    }
+
+    @Test
+    public void testProductList_SeveralSuppliersCountEachProductOnce() throws Exception {
+        Supplier other = new Supplier();
+        other.setName("Второй поставщик " + supplier.getName());
+        other.setContactPerson("Анна Смирнова");
+        other.setEmail("other." + supplier.getEmail());
+        other.setPhone(supplier.getPhone() + "1");
+        other.setAddress("Казань");
+        Supplier saved = supplierRepository.save(other);
+        for (Product p : products) {
+            p.getSuppliers().add(saved);
+            productRepository.save(p);
+        }
+
+        // Размер страницы меньше числа товаров, чтобы выполнялся COUNT
+        String url = "/api/admin/products?categoryId=" + category.getId() + "&supplierId=" + supplier.getId()
+                + "&supplierId=" + saved.getId() + "&size=2";
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(ITEMS))
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(product.getId()));
+    }
+
+    @Test
+    public void testGrid_RejectsSortOutsideWhitelist() throws Exception {
+        mockMvc.perform(get("/api/admin/products?sortBy=stockQuantity"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    public void testProductSearch_IgnoresSortOutsideFallback() throws Exception {
+        productSearchService.rebuild();
+
+        // Выдача индекса идет по релевантности: сортировка из запроса не применяется и не проверяется
+        mockMvc.perform(get("/api/admin/products?query=" + product.getName() + "&sortBy=category.name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(product.getId()));
+    }
+
+    @Test
+    public void testGrid_RejectsMalformedFilterValue() throws Exception {
+        mockMvc.perform(get("/api/admin/orders?userId=abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение фильтра 'userId': abc"));
+    }
+
+    @Test
+    public void testOrderDetail_FixedStatementCount() throws Exception {
+        assertStatementCount(1, "/api/admin/orders/" + order.getId());
+    }
+
+    @Test
+    public void testProductDetail_FixedStatementCount() throws Exception {
+        // Карточка товара одним запросом со связями, плюс по запросу на отзывы и позиции заказов
+        assertStatementCount(3, "/api/admin/products/" + product.getId());
+    }
+
+    private void assertStatementCount(long expected, String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Число SQL-запросов для " + url);
+    }
+}
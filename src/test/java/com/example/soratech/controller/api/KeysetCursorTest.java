@@ -0,0 +1,48 @@
+package com.example.soratech.controller.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testRoundTrip_PreservesKeyTypes() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", LocalDateTime.of(2024, 5, 1, 12, 30, 15));
+        keys.put("totalAmount", new BigDecimal("1999.90"));
+        keys.put("name", "Видеокарта");
+        keys.put("id", 42L);
+
+        ScrollPosition position = KeysetCursor.decode(KeysetCursor.encode(keys));
+
+        assertInstanceOf(KeysetScrollPosition.class, position);
+        assertEquals(keys, ((KeysetScrollPosition) position).getKeys());
+    }
+
+    @Test
+    public void testDecode_EmptyTokenStartsFromBeginning() {
+        assertTrue(KeysetCursor.decode("").isInitial());
+    }
+
+    @Test
+    public void testDecode_GarbageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    public void testSort_AppendsIdAsTieBreaker() {
+        Sort sort = KeysetCursor.sort("createdAt", "desc");
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")), sort);
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.sort("user.name", "asc"));
+    }
+}
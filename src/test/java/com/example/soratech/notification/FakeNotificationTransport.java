@@ -0,0 +1,37 @@
+package com.example.soratech.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Транспорт для тестов: запоминает отправленные пачки и может отказать заданное число раз подряд.
+ */
+public class FakeNotificationTransport implements NotificationTransport {
+
+    private final List<List<Notification>> batches = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    public void failNext(int times) {
+        failuresLeft.set(times);
+    }
+
+    @Override
+    public void send(Notification.Channel channel, List<Notification> batch) {
+        attempts.incrementAndGet();
+        if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            throw new IllegalStateException("Провайдер недоступен");
+        }
+        batches.add(new ArrayList<>(batch));
+    }
+
+    public List<List<Notification>> getBatches() {
+        return batches;
+    }
+
+    public int getAttempts() {
+        return attempts.get();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.soratech.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationDispatcherTest {
+
+    private final FakeNotificationTransport transport = new FakeNotificationTransport();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        dispatcher = new NotificationDispatcher(transport, meterRegistry, 100, 50, Duration.ofMillis(300),
+                3, Duration.ofMillis(10), Duration.ofMillis(40));
+        dispatcher.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    public void testEnqueue_SendsWindowAsOneBatchPerChannel() throws Exception {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(dispatcher.enqueue(email("user" + i + "@example.com", "Заказ", "Заказ #" + i + " оформлен")));
+        }
+        results.add(dispatcher.enqueue(new Notification(Notification.Channel.SMS, "+79001234567", null, "Код 1234")));
+
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, transport.getBatches().size());
+        assertEquals(10, transport.getBatches().get(0).size());
+        assertEquals(1, transport.getBatches().get(1).size());
+        assertEquals(10, meterRegistry.get("notifications.sent").tag("channel", "email").counter().count());
+        assertEquals(1, meterRegistry.get("notifications.flush").tag("outcome", "success").tag("channel", "sms").timer().count());
+    }
+
+    @Test
+    public void testEnqueue_CoalescesMessagesToSameRecipient() throws Exception {
+        CompletableFuture<Boolean> first = dispatcher.enqueue(email("buyer@example.com", "Заказ", "Заказ принят"));
+        CompletableFuture<Boolean> second = dispatcher.enqueue(email("buyer@example.com", "Заказ", "Заказ отправлен"));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        Notification sent = transport.getBatches().get(0).get(0);
+        assertEquals(1, transport.getBatches().get(0).size());
+        assertEquals("Заказ", sent.subject());
+        assertEquals("Заказ принят\n\nЗаказ отправлен", sent.message());
+        assertEquals(1, meterRegistry.get("notifications.coalesced").counter().count());
+    }
+
+    @Test
+    public void testDelivery_RetriedWithBackoffUntilTransportRecovers() throws Exception {
+        transport.failNext(2);
+
+        assertTrue(dispatcher.enqueue(email("retry@example.com", "Тема", "Текст")).get(5, TimeUnit.SECONDS));
+        assertEquals(3, transport.getAttempts());
+        assertEquals(1, transport.getBatches().size());
+    }
+
+    @Test
+    public void testDelivery_GivesUpAfterMaxAttempts() throws Exception {
+        transport.failNext(3);
+
+        assertFalse(dispatcher.enqueue(email("lost@example.com", "Тема", "Текст")).get(5, TimeUnit.SECONDS));
+        assertEquals(3, transport.getAttempts());
+        assertEquals(1, meterRegistry.get("notifications.flush").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testEnqueue_RejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Транспорт занят первой пачкой, в очереди помещается одно уведомление
+        NotificationDispatcher blocked = new NotificationDispatcher((channel, batch) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, registry, 1, 10, Duration.ZERO, 1, Duration.ofMillis(10), Duration.ofMillis(10));
+        blocked.start();
+        try {
+            CompletableFuture<Boolean> inFlight = blocked.enqueue(email("a@example.com", "Тема", "Текст"));
+            while (blocked.getQueueDepth() > 0) {
+                Thread.sleep(10);
+            }
+            CompletableFuture<Boolean> queued = blocked.enqueue(email("b@example.com", "Тема", "Текст"));
+
+            assertFalse(blocked.enqueue(email("c@example.com", "Тема", "Текст")).get(1, TimeUnit.SECONDS));
+            assertEquals(1, registry.get("notifications.rejected").counter().count());
+            assertEquals(1, registry.get("notifications.queue.depth").gauge().value());
+
+            release.countDown();
+            assertTrue(inFlight.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            blocked.stop();
+        }
+    }
+
+    private static Notification email(String to, String subject, String message) {
+        return new Notification(Notification.Channel.EMAIL, to, subject, message);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.soratech.outbox;
+
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.exception.InsufficientStockException;
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import com.example.soratech.service.OrderService;
+import com.example.soratech.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Плановый опрос отключен: релей вызывается из теста; асинхронных подписчиков ждет 5 секунд (заглушка почты отвечает за 2)
+@SpringBootTest(properties = {"app.outbox.poll-interval=1h", "app.outbox.handler-timeout=5s"})
+public class OutboxRelayTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+        final List<OutboxEvent> handled = new CopyOnWriteArrayList<>();
+        final Set<Long> failing = ConcurrentHashMap.newKeySet();
+        final Set<Long> failingLater = ConcurrentHashMap.newKeySet();
+        final Set<Long> hanging = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failing.contains(event.getAggregateId())) {
+                throw new IllegalStateException("Получатель недоступен");
+            }
+            handled.add(event);
+        }
+
+        @Override
+        public CompletableFuture<Void> handleAsync(OutboxEvent event) {
+            if (failingLater.contains(event.getAggregateId())) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Письмо не отправлено"));
+            }
+            if (hanging.contains(event.getAggregateId())) {
+                return new CompletableFuture<>();
+            }
+            return OutboxSubscriber.super.handleAsync(event);
+        }
+    }
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String suffix;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category category = new Category();
+        category.setName("Outbox " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        product = new Product();
+        product.setName("Товар " + suffix);
+        product.setPrice(BigDecimal.valueOf(500));
+        product.setStockQuantity(3);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        product = productRepository.save(product);
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("outbox" + suffix + "@example.com");
+        user.setPhone("+7905" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void testCheckout_WritesEventAndRelayDeliversIt() {
+        Order order = orderService.checkout(request(2));
+
+        OutboxEvent event = single(OutboxService.ORDER, order.getId());
+        assertEquals(OutboxService.ORDER_CREATED, event.getEventType());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertTrue(event.getPayload().contains("\"totalAmount\""));
+
+        outboxRelay.relay();
+
+        assertTrue(subscriber.handled.stream().anyMatch(e -> e.getId().equals(event.getId())));
+        OutboxEvent processed = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertEquals(OutboxEvent.Status.PROCESSED, processed.getStatus());
+        assertNotNull(processed.getProcessedAt());
+        assertEquals(1, processed.getAttempts());
+    }
+
+    @Test
+    public void testFailedCheckout_WritesNoEvent() {
+        long before = outboxEventRepository.count();
+
+        assertThrows(InsufficientStockException.class, () -> orderService.checkout(request(10)));
+
+        assertEquals(before, outboxEventRepository.count());
+    }
+
+    @Test
+    public void testStatusChange_PublishesEvent() {
+        Order order = orderService.checkout(request(1));
+
+        orderService.updateStatus(order.getId(), "CONFIRMED");
+
+        List<OutboxEvent> events = eventsOf(OutboxService.ORDER, order.getId());
+        assertEquals(2, events.size());
+        assertEquals(OutboxService.ORDER_STATUS_CHANGED, events.get(1).getEventType());
+        assertTrue(events.get(1).getPayload().contains("CONFIRMED"));
+    }
+
+    @Test
+    public void testSubscriberFailure_KeepsEventPendingWithBackoff() {
+        Order order = orderService.checkout(request(1));
+        subscriber.failing.add(order.getId());
+        try {
+            outboxRelay.relay();
+        } finally {
+            subscriber.failing.remove(order.getId());
+        }
+
+        OutboxEvent event = single(OutboxService.ORDER, order.getId());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("Получатель недоступен", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertTrue(subscriber.handled.stream().noneMatch(e -> e.getId().equals(event.getId())));
+    }
+
+    @Test
+    public void testAsyncSubscriberFailure_KeepsEventPending() {
+        Order order = orderService.checkout(request(1));
+        subscriber.failingLater.add(order.getId());
+        try {
+            outboxRelay.relay();
+        } finally {
+            subscriber.failingLater.remove(order.getId());
+        }
+
+        OutboxEvent event = single(OutboxService.ORDER, order.getId());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("Письмо не отправлено", event.getLastError());
+    }
+
+    @Test
+    public void testAsyncSubscriberTimeout_KeepsEventPending() {
+        Order order = orderService.checkout(request(1));
+        subscriber.hanging.add(order.getId());
+        try {
+            outboxRelay.relay();
+        } finally {
+            subscriber.hanging.remove(order.getId());
+        }
+
+        OutboxEvent event = single(OutboxService.ORDER, order.getId());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertTrue(event.getLastError().contains("5000 мс"), event.getLastError());
+    }
+
+    @Test
+    public void testRegister_PublishesUserRegistered() {
+        User registered = new User();
+        registered.setName("Новый покупатель");
+        registered.setEmail("registered" + suffix + "@example.com");
+        registered.setPhone("+7906" + suffix);
+        registered.setPassword("hash");
+        registered.setActive(true);
+
+        userService.register(registered);
+
+        assertEquals(roleRepository.findByName("Клиент").orElseThrow().getId(), registered.getRole().getId());
+        OutboxEvent event = single(OutboxService.USER, registered.getId());
+        assertEquals(OutboxService.USER_REGISTERED, event.getEventType());
+        assertTrue(event.getPayload().contains(registered.getEmail()));
+    }
+
+    private CheckoutRequest request(int quantity) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setDeliveryAddress("Москва, ул. Тверская, 1");
+        request.getItems().add(new CheckoutRequest.Item(product.getId(), quantity));
+        return request;
+    }
+
+    private OutboxEvent single(String aggregateType, Long aggregateId) {
+        List<OutboxEvent> events = eventsOf(aggregateType, aggregateId);
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+
+    private List<OutboxEvent> eventsOf(String aggregateType, Long aggregateId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(e -> e.getAggregateType().equals(aggregateType) && e.getAggregateId().equals(aggregateId))
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+    }
+}
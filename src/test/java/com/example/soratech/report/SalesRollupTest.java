@@ -0,0 +1,236 @@
+package com.example.soratech.report;
+
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.model.*;
+import com.example.soratech.outbox.OutboxRelay;
+import com.example.soratech.repository.*;
+import com.example.soratech.service.OrderItemService;
+import com.example.soratech.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Плановый опрос outbox отключен: сводные таблицы пересчитываются из теста
+@SpringBootTest(properties = "app.outbox.poll-interval=1h")
+public class SalesRollupTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private SalesDailyProductRepository dailyProductRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Category category;
+    private Product first;
+    private Product second;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        category = new Category();
+        category.setName("Отчеты " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        // Цены выше, чем у товаров других тестов: товары попадают в лидеры продаж за сегодня
+        first = product("Первый " + suffix, 900_000, manufacturer);
+        second = product("Второй " + suffix, 400_000, manufacturer);
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("report" + suffix + "@example.com");
+        user.setPhone("+7907" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void testRefresh_AppliesOrderOnce() {
+        Order order = checkout(first, 2, second, 1);
+
+        assertTrue(salesRollupService.refreshOrder(order.getId()));
+        assertFalse(salesRollupService.refreshOrder(order.getId()));
+
+        SalesDailyProduct row = rollupOf(first).orElseThrow();
+        assertEquals(1, row.getOrderCount());
+        assertEquals(2, row.getQuantity());
+        assertEquals(0, BigDecimal.valueOf(1_800_000).compareTo(row.getRevenue()));
+
+        SalesReport.Group group = categoryGroup(salesReportService.build(LocalDate.now(), LocalDate.now(), 10));
+        assertEquals(3, group.quantity());
+        assertEquals(0, BigDecimal.valueOf(2_200_000).compareTo(group.revenue()));
+    }
+
+    @Test
+    public void testRefresh_FollowsItemChangesAndCancellation() {
+        Order order = checkout(first, 1, null, 0);
+        salesRollupService.refreshOrder(order.getId());
+
+        OrderItem item = new OrderItem();
+        item.setQuantity(2);
+        item.setPrice(second.getPrice());
+        orderItemService.save(item, order.getId(), second.getId());
+        salesRollupService.refreshOrder(order.getId());
+
+        assertEquals(2, rollupOf(second).orElseThrow().getQuantity());
+        assertEquals(1, rollupOf(first).orElseThrow().getQuantity());
+
+        orderService.updateStatus(order.getId(), "CANCELLED");
+        salesRollupService.refreshOrder(order.getId());
+
+        assertEquals(0, rollupOf(first).orElseThrow().getQuantity());
+        assertEquals(0, rollupOf(second).orElseThrow().getOrderCount());
+        assertEquals(0, rollupOf(second).orElseThrow().getRevenue().signum());
+    }
+
+    @Test
+    public void testRefresh_DeletedOrderSubtractsContribution() {
+        Order order = checkout(first, 3, null, 0);
+        salesRollupService.refreshOrder(order.getId());
+        assertEquals(3, rollupOf(first).orElseThrow().getQuantity());
+
+        orderService.delete(order.getId());
+        assertTrue(salesRollupService.refreshOrder(order.getId()));
+
+        assertEquals(0, rollupOf(first).orElseThrow().getQuantity());
+        assertFalse(salesRollupService.refreshOrder(order.getId()));
+    }
+
+    @Test
+    public void testRefresh_ConcurrentFirstOrdersOfDayDoNotConflict() {
+        Product fresh = product("Новинка " + first.getName(), 700_000, first.getManufacturer());
+        Order one = checkout(fresh, 1, null, 0);
+        Order two = checkout(fresh, 2, null, 0);
+
+        // Строки товара за день еще нет: обе транзакции создают ее одновременно
+        CompletableFuture<Boolean> a = CompletableFuture.supplyAsync(() -> salesRollupService.refreshOrder(one.getId()));
+        CompletableFuture<Boolean> b = CompletableFuture.supplyAsync(() -> salesRollupService.refreshOrder(two.getId()));
+
+        assertTrue(a.join());
+        assertTrue(b.join());
+        SalesDailyProduct row = rollupOf(fresh).orElseThrow();
+        assertEquals(2, row.getOrderCount());
+        assertEquals(3, row.getQuantity());
+    }
+
+    @Test
+    public void testRelayedEvents_ReportTopProductsWithRatings() throws InterruptedException {
+        checkout(first, 1, second, 1);
+        review(first, 5);
+        review(first, 2);
+
+        // Событие может забрать релей другого контекста тестов с той же базой - тогда ждем его
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (rollupOf(first).map(SalesDailyProduct::getQuantity).orElse(0L) == 0
+                && System.currentTimeMillis() < deadline) {
+            outboxRelay.relay();
+            Thread.sleep(100);
+        }
+
+        SalesReport report = salesReportService.build(LocalDate.now(), LocalDate.now(), SalesReportService.MAX_TOP);
+        SalesReport.TopProduct top = report.topProducts().stream()
+                .filter(p -> p.productId().equals(first.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(1, top.quantity());
+        assertEquals(3.5, top.averageRating(), 0.001);
+        assertEquals(2, top.reviewCount());
+        assertTrue(report.orderCount() >= 1);
+        assertTrue(salesReportService.summarize(report).contains("выручка"));
+
+        // Пересчет всех заказов не меняет уже учтенный вклад
+        salesRollupService.rebuild(percent -> { });
+        assertEquals(1, rollupOf(first).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void testBuild_RejectsInvalidPeriod() {
+        assertThrows(IllegalArgumentException.class,
+                () -> salesReportService.build(LocalDate.now(), LocalDate.now().minusDays(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> salesReportService.buildForPeriod("decade"));
+    }
+
+    private Product product(String name, long price, Manufacturer manufacturer) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(price));
+        product.setStockQuantity(100);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        return productRepository.save(product);
+    }
+
+    private Order checkout(Product a, int aQuantity, Product b, int bQuantity) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setDeliveryAddress("Москва, ул. Тверская, 1");
+        request.getItems().add(new CheckoutRequest.Item(a.getId(), aQuantity));
+        if (b != null) {
+            request.getItems().add(new CheckoutRequest.Item(b.getId(), bQuantity));
+        }
+        return orderService.checkout(request);
+    }
+
+    private void review(Product product, int rating) {
+        Review review = new Review();
+        review.setProduct(product);
+        review.setUser(user);
+        review.setRating(rating);
+        review.setComment("Отзыв для отчета о продажах");
+        reviewRepository.save(review);
+    }
+
+    private Optional<SalesDailyProduct> rollupOf(Product product) {
+        return dailyProductRepository.findById(new SalesDailyProduct.Key(LocalDate.now(), product.getId()));
+    }
+
+    private SalesReport.Group categoryGroup(SalesReport report) {
+        return report.byCategory().stream()
+                .filter(g -> g.id().equals(category.getId()))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Скорость вставки позиций заказа: построчно (как при IDENTITY, который отключает пакетную вставку)
+ * и пакетами по hibernate.jdbc.batch_size с id из последовательности.
+ * Запуск: mvn test -Dtest=OrderItemInsertBenchmarkTest -Dbenchmark=true [-Dbenchmark.items=100000]
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderItemInsertBenchmarkTest {
+
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 100_000);
+    private static final int WARMUP_ITEMS = 5_000;
+    private static final int CHUNK = 1_000;
+    private static final int BATCH_SIZE = 20;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Product product;
+    private Order order;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category category = new Category();
+        category.setName("Бенчмарк " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        product = new Product();
+        product.setName("Товар " + suffix);
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStockQuantity(0);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        product = productRepository.save(product);
+
+        User user = new User();
+        user.setName("Покупатель");
+        user.setEmail("bench" + suffix + "@example.com");
+        user.setPhone("+7905" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+
+        order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setStatus("PENDING");
+        order.setDeliveryAddress("Москва, ул. Тверская, 1");
+        order = orderRepository.save(order);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.createQuery("delete from OrderItem i where i.order.id = :orderId")
+                    .setParameter("orderId", order.getId())
+                    .executeUpdate();
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Test
+    public void benchmarkInsertThroughput() {
+        insert(WARMUP_ITEMS, 1);
+        insert(WARMUP_ITEMS, BATCH_SIZE);
+
+        long rowByRow = insert(ITEMS, 1);
+        long batched = insert(ITEMS, BATCH_SIZE);
+
+        System.out.printf("Вставка %d позиций: построчно %d мс (%d строк/с), пакетами по %d - %d мс (%d строк/с), x%.1f%n",
+                ITEMS, rowByRow, rate(rowByRow), BATCH_SIZE, batched, rate(batched), (double) rowByRow / batched);
+        assertEquals(2L * (ITEMS + WARMUP_ITEMS), countItems());
+    }
+
+    /**
+     * Вставляет count позиций транзакциями по CHUNK строк.
+     *
+     * @return время в миллисекундах
+     */
+    private long insert(int count, int batchSize) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            long start = System.nanoTime();
+            for (int done = 0; done < count; done += CHUNK) {
+                entityManager.getTransaction().begin();
+                Order orderRef = entityManager.getReference(Order.class, order.getId());
+                Product productRef = entityManager.getReference(Product.class, product.getId());
+                for (int i = done; i < Math.min(count, done + CHUNK); i++) {
+                    OrderItem item = new OrderItem();
+                    item.setOrder(orderRef);
+                    item.setProduct(productRef);
+                    item.setQuantity(1 + i % 5);
+                    item.setPrice(product.getPrice());
+                    item.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                    entityManager.persist(item);
+                }
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private long countItems() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select count(i) from OrderItem i where i.order.id = :orderId", Long.class)
+                    .setParameter("orderId", order.getId())
+                    .getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static long rate(long millis) {
+        return ITEMS * 1000L / Math.max(millis, 1);
+    }
+}
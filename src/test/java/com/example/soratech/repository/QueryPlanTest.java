@@ -0,0 +1,303 @@
+package com.example.soratech.repository;
+
+import com.example.soratech.repository.spec.GridQuery;
+import com.example.soratech.service.OrderService;
+import com.example.soratech.service.ProductDetailsService;
+import com.example.soratech.service.ProductService;
+import com.example.soratech.service.ReviewService;
+import com.example.soratech.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Горячие запросы по активным записям должны обслуживаться индексами из db/migration,
+ * а не полным просмотром таблицы. Проверяется SQL, который сгенерировал Hibernate
+ * для реальных вызовов сервисов и репозиториев: источник данных в тесте записывает
+ * выполненные запросы вместе с параметрами, затем каждый из них проходит через EXPLAIN
+ * той СУБД, на которой идут тесты.
+ * В PostgreSQL последовательный просмотр для сессии запрещается (enable_seqscan = off),
+ * так что полный просмотр остается в плане только тогда, когда подходящего индекса нет совсем,
+ * и результат не зависит от объема данных в тестовой базе.
+ */
+// Кэш запросов выключен: попадание в него не дошло бы до БД, и записывать было бы нечего.
+// Опрос outbox отключен: этот контекст не должен обрабатывать события других тестов
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "app.outbox.poll-interval=1h"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+    private static final ThreadLocal<List<Executed>> RECORDED = new ThreadLocal<>();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDetailsService productDetailsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserService userService;
+
+    Stream<Arguments> hotQueries() {
+        return Stream.of(
+                call("товары по категории", "product",
+                        () -> productService.findAll(grid("categoryId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("товары по производителю", "product",
+                        () -> productService.findAll(grid("manufacturerId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("товары по поставщику", "product",
+                        () -> productService.findAll(grid("supplierId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("товары по диапазону цен", "product",
+                        () -> productService.findAll(new GridQuery(Map.of("minPrice", List.of("1000"),
+                                "maxPrice", List.of("5000")), false, "price", "asc"), ScrollPosition.keyset(), Limit.of(20))),
+                call("характеристики товара", "product_details",
+                        () -> productDetailsService.findByProductId(1L)),
+                call("заказы пользователя", "orders",
+                        () -> orderService.findAll(grid("userId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("заказы по статусу", "orders",
+                        () -> orderService.findAll(grid("status", "Новый"), ScrollPosition.keyset(), Limit.of(20))),
+                call("заказы за период", "orders",
+                        () -> orderService.findAll(new GridQuery(Map.of("from", List.of("2024-01-01T00:00:00"),
+                                "to", List.of("2024-02-01T00:00:00")), false, "createdAt", "asc"), ScrollPosition.keyset(), Limit.of(20))),
+                call("отзывы о товаре", "review",
+                        () -> reviewService.findAll(grid("productId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("отзывы пользователя", "review",
+                        () -> reviewService.findAll(grid("userId", "1"), ScrollPosition.keyset(), Limit.of(20))),
+                call("отзывы по оценке", "review",
+                        () -> reviewService.findAll(grid("rating", "5"), ScrollPosition.keyset(), Limit.of(20))),
+                call("пользователи по роли", "users",
+                        () -> userService.findAll(grid("roleId", "1"), ScrollPosition.keyset(), Limit.of(20)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    public void testHotQuery_UsesIndex(String name, String table, Runnable call) throws SQLException {
+        List<Executed> executed = record(call);
+
+        for (Executed query : executed) {
+            Plan plan = explain(query.sql(), query.params());
+            assertFalse(plan.readsWholeTable(table), () -> "Полный просмотр таблицы " + table + ":\n"
+                    + query.sql() + "\n" + plan.text());
+        }
+    }
+
+    @Test
+    public void testUnindexedQuery_DetectedAsFullScan() throws SQLException {
+        // Поиск по подстроке не может опереться на индекс
+        List<Executed> executed = record(() ->
+                userService.findAll(grid("email", "example"), ScrollPosition.keyset(), Limit.of(20)));
+
+        Plan plan = explain(executed.get(0).sql(), executed.get(0).params());
+        assertTrue(plan.readsWholeTable("users"), plan.text());
+    }
+
+    /**
+     * Выполняет вызов и возвращает запросы к таблицам, которые он отправил в БД из текущего потока.
+     */
+    private static List<Executed> record(Runnable call) {
+        List<Executed> executed = new ArrayList<>();
+        RECORDED.set(executed);
+        try {
+            call.run();
+        } finally {
+            RECORDED.remove();
+        }
+        assertFalse(executed.isEmpty(), "Вызов не выполнил ни одного запроса");
+        return executed;
+    }
+
+    private Plan explain(String sql, Map<Integer, Object> params) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres");
+            if (postgres) {
+                execute(connection, "set enable_seqscan = off");
+            }
+            try (PreparedStatement statement = connection.prepareStatement((postgres ? "explain (format json) " : "explain ") + sql)) {
+                for (Map.Entry<Integer, Object> param : params.entrySet()) {
+                    if (param.getValue() == null) {
+                        statement.setNull(param.getKey(), Types.NULL);
+                    } else {
+                        statement.setObject(param.getKey(), param.getValue());
+                    }
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                return new Plan(postgres, plan.toString());
+            } finally {
+                if (postgres) {
+                    execute(connection, "reset enable_seqscan");
+                }
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Arguments call(String name, String table, Runnable call) {
+        return Arguments.of(name, table, call);
+    }
+
+    private static GridQuery grid(String param, String value) {
+        return new GridQuery(Map.of(param, List.of(value)), false, null, null);
+    }
+
+    private record Executed(String sql, Map<Integer, Object> params) {
+    }
+
+    /**
+     * Оборачивает источник данных: подготовленные запросы, выполненные при включенной записи,
+     * сохраняются с SQL и параметрами в том виде, в каком их передал Hibernate.
+     */
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource target)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, target, (method, args, result) ->
+                            result instanceof Connection connection ? recording(connection) : result);
+                }
+            };
+        }
+
+        private static Connection recording(Connection target) {
+            return proxy(Connection.class, target, (method, args, result) ->
+                    method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                            ? recording(statement, (String) args[0])
+                            : result);
+        }
+
+        private static PreparedStatement recording(PreparedStatement target, String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            return proxy(PreparedStatement.class, target, (method, args, result) -> {
+                String name = method.getName();
+                if (name.equals("setNull")) {
+                    params.put((Integer) args[0], null);
+                } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    params.put(index, args[1]);
+                } else if (name.equals("clearParameters")) {
+                    params.clear();
+                } else if (name.startsWith("execute") && RECORDED.get() != null) {
+                    RECORDED.get().add(new Executed(sql, new HashMap<>(params)));
+                }
+                return result;
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return afterCall.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Throwable;
+        }
+    }
+
+    /**
+     * План запроса. Полным просмотром считается и обход индекса без условия по нему
+     * (например, по первичному ключу ради ORDER BY id с фильтрацией каждой строки).
+     */
+    private record Plan(boolean postgres, String text) {
+
+        // H2 пишет способ доступа комментарием после таблицы: /* public.idx_name: column = ?1 */
+        private static final Pattern H2_ACCESS = Pattern.compile("\"public\"\\.\"(\\w+)\" \"\\w+\"\\s*/\\* ([^*]*) \\*/");
+
+        boolean readsWholeTable(String table) {
+            if (postgres) {
+                try {
+                    return readsWholeTable(new ObjectMapper().readTree(text).get(0).get("Plan"), table);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Не удалось разобрать план: " + text, e);
+                }
+            }
+            Matcher matcher = H2_ACCESS.matcher(text);
+            while (matcher.find()) {
+                String access = matcher.group(2);
+                if (matcher.group(1).equalsIgnoreCase(table) && (access.endsWith(".tableScan") || !access.contains(":"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean readsWholeTable(JsonNode node, String table) {
+            if (table.equals(node.path("Relation Name").asText())) {
+                String type = node.path("Node Type").asText();
+                if (type.equals("Seq Scan") || type.startsWith("Index") && !node.has("Index Cond")) {
+                    return true;
+                }
+            }
+            for (JsonNode child : node.path("Plans")) {
+                if (readsWholeTable(child, table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.soratech.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+
+    private static final long LAPTOPS = 10;
+    private static final long PHONES = 20;
+    private static final long ASUS = 100;
+    private static final long SAMSUNG = 200;
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductFacetIndex();
+        index.index(doc(1, LAPTOPS, ASUS, Set.of(1L), "95000", 3));
+        index.index(doc(2, LAPTOPS, SAMSUNG, Set.of(1L, 2L), "45000", 0));
+        index.index(doc(3, PHONES, SAMSUNG, Set.of(2L), "30000", 5));
+        index.index(doc(4, PHONES, ASUS, Set.of(), "29999", 1));
+    }
+
+    @Test
+    public void testFilter_CombinesDimensions() {
+        ProductFacetIndex.FacetResult result = index.filter(
+                filter(Set.of(LAPTOPS, PHONES), Set.of(SAMSUNG), null, null, true), null, 0, 10);
+
+        assertEquals(List.of(3L), result.ids());
+        assertEquals(1, result.total());
+    }
+
+    @Test
+    public void testFilter_FacetCountsIgnoreOwnDimension() {
+        ProductFacetIndex.Facets facets = index.filter(filter(Set.of(LAPTOPS), Set.of(), null, null, false), null, 0, 10)
+                .facets();
+
+        assertEquals(Map.of(LAPTOPS, 2, PHONES, 2), facets.categories());
+        assertEquals(Map.of(ASUS, 1, SAMSUNG, 1), facets.manufacturers());
+        assertEquals(Map.of(1L, 2, 2L, 1), facets.suppliers());
+        assertEquals(1, facets.inStock());
+    }
+
+    @Test
+    public void testFilter_PriceRangeChecksEdgeBuckets() {
+        ProductFacetIndex.FacetResult result = index.filter(
+                filter(Set.of(), Set.of(), new BigDecimal("30000"), new BigDecimal("50000"), false), null, 0, 10);
+
+        assertEquals(List.of(2L, 3L), result.ids());
+        assertEquals(Map.of("10000-30000", 1, "30000-50000", 2, "50000-100000", 1), result.facets().prices());
+    }
+
+    @Test
+    public void testFilter_PagesByOffsetAndByLastId() {
+        ProductFilter all = filter(Set.of(), Set.of(), null, null, false);
+
+        assertEquals(List.of(2L, 3L), index.filter(all, null, 1, 2).ids());
+        assertEquals(List.of(3L, 4L), index.filter(all, 2L, 0, 2).ids());
+        assertEquals(4, index.filter(all, 2L, 0, 2).total());
+    }
+
+    @Test
+    public void testIndexAndRemove_UpdateBitmaps() {
+        index.index(doc(3, LAPTOPS, ASUS, Set.of(), "1000", 2));
+        index.remove(1);
+
+        ProductFacetIndex.FacetResult result = index.filter(filter(Set.of(LAPTOPS), Set.of(), null, null, false), null, 0, 10);
+        assertEquals(List.of(2L, 3L), result.ids());
+        assertEquals(Map.of(LAPTOPS, 2, PHONES, 1), result.facets().categories());
+        assertEquals(1, result.facets().inStock());
+        assertEquals(3, index.size());
+    }
+
+    private static ProductFilter filter(Set<Long> categories, Set<Long> manufacturers,
+                                        BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {
+        return new ProductFilter(categories, manufacturers, Set.of(), minPrice, maxPrice, inStock);
+    }
+
+    private static ProductDocument doc(long id, long categoryId, long manufacturerId, Set<Long> supplierIds,
+                                       String price, int stock) {
+        return new ProductDocument(id, "Товар " + id, categoryId, null, manufacturerId, null,
+                supplierIds, new BigDecimal(price), stock, List.of());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.soratech.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex.Builder()
+                .add(doc(1, "Игровой ноутбук ASUS ROG", "Ноутбуки", "ASUS", List.of("Цвет черный")))
+                .add(doc(2, "Смартфон Samsung Galaxy S24", "Смартфоны", "Samsung", List.of("Память 256 ГБ")))
+                .add(doc(3, "Сумка для ноутбука", "Аксессуары", "Xiaomi", List.of("Цвет черная")))
+                .add(doc(4, "Мышь Logitech G502", "Аксессуары", "Logitech", List.of("Тип игровая")))
+                .build();
+    }
+
+    @Test
+    public void testSearch_StemmingMatchesWordForms() {
+        assertEquals(List.of(1L, 3L), ids(index.search("ноутбуки", null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_NameRankedAboveCharacteristics() {
+        assertEquals(List.of(1L, 4L), ids(index.search("игровые", null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_AllWordsRequired() {
+        assertEquals(List.of(3L), ids(index.search("сумка ноутбук", null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_TypoMatchedByTrigrams() {
+        assertEquals(List.of(2L), ids(index.search("samsnug galaxy", null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_LastWordMatchedByPrefix() {
+        assertEquals(List.of(4L), ids(index.search("мышь logi", null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_PagesByOffsetAndByLastHit() {
+        ProductSearchIndex.SearchResult first = index.search("черный", null, 0, 1);
+        assertEquals(2, first.total());
+
+        SearchHit last = first.hits().get(0);
+        assertEquals(ids(index.search("черный", null, 1, 1)), ids(index.search("черный", last, 0, 1)));
+    }
+
+    @Test
+    public void testIndexAndRemove_UpdateResults() {
+        index.index(doc(3, "Рюкзак городской", "Аксессуары", "Xiaomi", List.of()));
+        index.index(doc(5, "Ноутбук Lenovo IdeaPad", "Ноутбуки", "Lenovo", List.of()));
+        index.remove(1);
+
+        assertEquals(List.of(5L), ids(index.search("ноутбук", null, 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("рюкзак", null, 0, 10)));
+        assertTrue(index.search("сумка", null, 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    public void testIndexAndRemove_AcrossPostingBlocks() {
+        // Общий терм у всех товаров: вставки делят блоки, удаления опустошают их целиком
+        int count = ProductSearchIndex.BLOCK_SIZE * 3;
+        ProductSearchIndex.Builder builder = new ProductSearchIndex.Builder();
+        for (long id = 1; id <= count; id += 2) {
+            builder.add(doc(id, "Кабель " + id, "Кабели", "Ugreen", List.of()));
+        }
+        ProductSearchIndex blocks = builder.build();
+        for (long id = 2; id <= count; id += 2) {
+            blocks.index(doc(id, "Кабель " + id, "Кабели", "Ugreen", List.of()));
+        }
+        assertEquals(count, blocks.search("кабель", null, 0, 1).total());
+
+        for (long id = 1; id <= ProductSearchIndex.BLOCK_SIZE * 2; id++) {
+            blocks.remove(id);
+        }
+        ProductSearchIndex.SearchResult result = blocks.search("кабель", null, 0, count);
+        assertEquals(ProductSearchIndex.BLOCK_SIZE, result.total());
+        assertEquals(ProductSearchIndex.BLOCK_SIZE * 2L + 1, result.hits().stream().mapToLong(SearchHit::id).min().orElseThrow());
+    }
+
+    private static ProductDocument doc(long id, String name, String category, String manufacturer,
+                                       List<String> characteristics) {
+        return new ProductDocument(id, name, null, category, null, manufacturer,
+                Set.of(), BigDecimal.ZERO, 0, characteristics);
+    }
+
+    private static List<Long> ids(ProductSearchIndex.SearchResult result) {
+        return result.hits().stream().map(SearchHit::id).toList();
+    }
+}
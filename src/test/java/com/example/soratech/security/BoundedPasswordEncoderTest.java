@@ -0,0 +1,61 @@
+package com.example.soratech.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    public void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    public void testEncodeAndMatches() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("Password123");
+
+        assertTrue(encoder.matches("Password123", hash));
+        assertFalse(encoder.matches("WrongPassword", hash));
+    }
+
+    @Test
+    public void testUpgradeEncoding_WhenCostChanges() {
+        encoder = new BoundedPasswordEncoder(5, 1, 1, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("Password123")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("Password123")));
+    }
+
+    @Test
+    public void testEncode_RejectedWhenQueueIsFull() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        // Занимаем единственный поток и единственное место в очереди
+        encoder.getExecutor().execute(() -> await(release));
+        encoder.getExecutor().execute(() -> await(release));
+
+        try {
+            assertThrows(PasswordHashingOverloadedException.class, () -> encoder.encode("Password123"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
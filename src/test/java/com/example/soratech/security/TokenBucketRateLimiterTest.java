@@ -0,0 +1,50 @@
+package com.example.soratech.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+            3, Duration.ofSeconds(3), Duration.ofMinutes(1), 100, clock::get);
+
+    @Test
+    public void testBurstUpToCapacityThenRejected() {
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+
+        long wait = limiter.tryAcquire("ip:1");
+
+        assertEquals(Duration.ofSeconds(1).toNanos(), wait);
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user:a");
+        }
+        assertTrue(limiter.tryAcquire("user:a") > 0);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertEquals(0, limiter.tryAcquire("user:a"));
+        assertTrue(limiter.tryAcquire("user:a") > 0);
+    }
+
+    @Test
+    public void testKeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("ip:1");
+        }
+
+        assertTrue(limiter.tryAcquire("ip:1") > 0);
+        assertEquals(0, limiter.tryAcquire("ip:2"));
+    }
+}
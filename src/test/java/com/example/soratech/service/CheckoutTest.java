@@ -0,0 +1,154 @@
+package com.example.soratech.service;
+
+import com.example.soratech.dto.CheckoutRequest;
+import com.example.soratech.exception.InsufficientStockException;
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CheckoutTest {
+
+    private static final int PRODUCTS = 25;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category category = new Category();
+        category.setName("Корзина " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        products.clear();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Товар " + i + " " + suffix);
+            product.setPrice(BigDecimal.valueOf(100 + i));
+            product.setStockQuantity(5);
+            product.setCategory(category);
+            product.setManufacturer(manufacturer);
+            products.add(productRepository.save(product));
+        }
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("checkout" + suffix + "@example.com");
+        user.setPhone("+7904" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void testCheckout_PricesAndTotalComputedOnServer() {
+        CheckoutRequest request = request();
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        for (Product product : products) {
+            request.getItems().add(new CheckoutRequest.Item(product.getId(), 2));
+            expectedTotal = expectedTotal.add(product.getPrice().multiply(BigDecimal.valueOf(2)));
+        }
+
+        Order order = orderService.checkout(request);
+
+        Order stored = orderService.findById(order.getId());
+        assertEquals("PENDING", stored.getStatus());
+        assertEquals(0, expectedTotal.compareTo(stored.getTotalAmount()));
+        List<OrderItem> items = orderItemService.findByOrderId(order.getId());
+        assertEquals(PRODUCTS, items.size());
+        for (OrderItem item : items) {
+            assertEquals(0, item.getPrice().multiply(BigDecimal.valueOf(2)).compareTo(item.getSubtotal()));
+        }
+        for (Product product : products) {
+            assertEquals(3, inventoryService.getAvailableStock(product.getId()));
+        }
+    }
+
+    @Test
+    public void testCheckout_SameProductLinesMerged() {
+        Product product = products.get(0);
+        CheckoutRequest request = request();
+        request.getItems().add(new CheckoutRequest.Item(product.getId(), 1));
+        request.getItems().add(new CheckoutRequest.Item(product.getId(), 2));
+
+        Order order = orderService.checkout(request);
+
+        List<OrderItem> items = orderItemService.findByOrderId(order.getId());
+        assertEquals(1, items.size());
+        assertEquals(3, items.get(0).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(orderService.findById(order.getId()).getTotalAmount()));
+    }
+
+    @Test
+    public void testCheckout_InsufficientStockCreatesNothing() {
+        CheckoutRequest request = request();
+        request.getItems().add(new CheckoutRequest.Item(products.get(0).getId(), 1));
+        request.getItems().add(new CheckoutRequest.Item(products.get(1).getId(), 6));
+        long ordersBefore = orderRepository.count();
+
+        assertThrows(InsufficientStockException.class, () -> orderService.checkout(request));
+
+        assertEquals(ordersBefore, orderRepository.count());
+        assertEquals(5, inventoryService.getAvailableStock(products.get(0).getId()));
+        assertEquals(5, inventoryService.getAvailableStock(products.get(1).getId()));
+    }
+
+    @Test
+    public void testCheckout_UnknownProductRejected() {
+        CheckoutRequest request = request();
+        request.getItems().add(new CheckoutRequest.Item(-1L, 1));
+
+        assertThrows(EntityNotFoundException.class, () -> orderService.checkout(request));
+    }
+
+    private CheckoutRequest request() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setDeliveryAddress("Москва, ул. Тверская, 1");
+        return request;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.soratech.service;
+
+import com.example.soratech.exception.InsufficientStockException;
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import com.example.soratech.search.ProductFilter;
+import com.example.soratech.search.ProductSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class InventoryServiceTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductStockStripeRepository stripeRepository;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        Category category = new Category();
+        category.setName("Склад " + suffix);
+        category = categoryRepository.save(category);
+
+        Manufacturer manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        product = new Product();
+        product.setName("Товар " + suffix);
+        product.setPrice(BigDecimal.valueOf(1000));
+        product.setStockQuantity(10);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        product = productRepository.save(product);
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("stock" + suffix + "@example.com");
+        user.setPhone("+7902" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void testAddItem_HoldsStockAndCancelReturnsIt() {
+        Long orderId = createOrder();
+
+        addItem(orderId, 3);
+
+        assertEquals(7, inventoryService.getAvailableStock(product.getId()));
+        StockReservation hold = reservationsOf(orderId).get(0);
+        assertEquals(StockReservation.Status.HELD, hold.getStatus());
+        assertNotNull(hold.getExpiresAt());
+
+        orderService.updateStatus(orderId, "CANCELLED");
+
+        assertEquals(10, inventoryService.getAvailableStock(product.getId()));
+        assertEquals(StockReservation.Status.RELEASED, reservationsOf(orderId).get(0).getStatus());
+    }
+
+    @Test
+    public void testAddItem_InsufficientStockRollsBack() {
+        Long orderId = createOrder();
+
+        assertThrows(InsufficientStockException.class, () -> addItem(orderId, 11));
+
+        assertEquals(10, inventoryService.getAvailableStock(product.getId()));
+        assertTrue(orderItemService.findByOrderId(orderId).isEmpty());
+    }
+
+    @Test
+    public void testConfirm_TurnsHoldIntoReservationWithoutExpiry() {
+        Long orderId = createOrder();
+        addItem(orderId, 2);
+
+        orderService.updateStatus(orderId, "CONFIRMED");
+
+        StockReservation reservation = reservationsOf(orderId).get(0);
+        assertEquals(StockReservation.Status.CONFIRMED, reservation.getStatus());
+        assertNull(reservation.getExpiresAt());
+        assertEquals(8, inventoryService.getAvailableStock(product.getId()));
+    }
+
+    @Test
+    public void testExpireHolds_ReturnsExpiredHoldToStock() {
+        Long orderId = createOrder();
+        addItem(orderId, 4);
+        StockReservation hold = reservationsOf(orderId).get(0);
+        hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        reservationRepository.save(hold);
+
+        inventoryService.expireHolds();
+
+        assertEquals(StockReservation.Status.EXPIRED, reservationsOf(orderId).get(0).getStatus());
+        assertEquals(10, inventoryService.getAvailableStock(product.getId()));
+    }
+
+    @Test
+    public void testReserveLastUnits_UpdatesInStockFacet() {
+        productSearchService.rebuild();
+        assertTrue(inStockInCatalog());
+
+        Long orderId = createOrder();
+        addItem(orderId, 10);
+        assertFalse(inStockInCatalog());
+
+        orderService.updateStatus(orderId, "CANCELLED");
+        assertTrue(inStockInCatalog());
+    }
+
+    @Test
+    public void testStripedStock_ConcurrentOrdersNeverOversell() throws Exception {
+        inventoryService.setStockStripes(product.getId(), 4);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            orderIds.add(createOrder());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            results.add(executor.submit(() -> {
+                try {
+                    addItem(orderId, 1);
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        int placed = 0;
+        for (Future<Boolean> result : results) {
+            placed += result.get() ? 1 : 0;
+        }
+        assertEquals(10, placed);
+        assertEquals(0, inventoryService.getAvailableStock(product.getId()));
+    }
+
+    @Test
+    public void testSetStockStripes_DisableFoldsStripesBack() {
+        inventoryService.setStockStripes(product.getId(), 3);
+        Long orderId = createOrder();
+        addItem(orderId, 4);
+        assertEquals(6, inventoryService.getAvailableStock(product.getId()));
+
+        inventoryService.setStockStripes(product.getId(), 0);
+        orderService.updateStatus(orderId, "CANCELLED");
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, stored.getStockStripes());
+        assertEquals(10, stored.getStockQuantity());
+    }
+
+    @Test
+    public void testDelete_RemovesStockStripes() {
+        inventoryService.setStockStripes(product.getId(), 3);
+
+        productService.delete(product.getId());
+
+        assertFalse(productRepository.existsById(product.getId()));
+        assertEquals(0, stripeRepository.sumQuantityByProductId(product.getId()));
+    }
+
+    private boolean inStockInCatalog() {
+        ProductFilter filter = ProductFilter.of(List.of(product.getCategory().getId()), null, null, null, null, true);
+        return productSearchService.filter(filter, null, 0, 10).ids().contains(product.getId());
+    }
+
+    private Long createOrder() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.valueOf(1000));
+        order.setStatus("PENDING");
+        order.setDeliveryAddress("Москва, ул. Тверская, 1");
+        return orderRepository.save(order).getId();
+    }
+
+    private void addItem(Long orderId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setQuantity(quantity);
+        item.setPrice(product.getPrice());
+        orderItemService.save(item, orderId, product.getId());
+    }
+
+    private List<StockReservation> reservationsOf(Long orderId) {
+        return reservationRepository.findAll().stream()
+                .filter(r -> r.getOrder().getId().equals(orderId))
+                .toList();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.soratech.service;
+
+import com.example.soratech.exception.ConcurrentUpdateException;
+import com.example.soratech.model.*;
+import com.example.soratech.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OptimisticLockingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ManufacturerRepository manufacturerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Category category;
+    private Manufacturer manufacturer;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        String suffix = String.valueOf(System.nanoTime() % 1_000_000_000L);
+
+        category = new Category();
+        category.setName("Версии " + suffix);
+        category = categoryRepository.save(category);
+
+        manufacturer = new Manufacturer();
+        manufacturer.setName("Производитель " + suffix);
+        manufacturer.setCountry("Россия");
+        manufacturer = manufacturerRepository.save(manufacturer);
+
+        product = new Product();
+        product.setName("Товар " + suffix);
+        product.setPrice(BigDecimal.valueOf(1000));
+        product.setStockQuantity(10);
+        product.setCategory(category);
+        product.setManufacturer(manufacturer);
+        product = productRepository.save(product);
+
+        user = new User();
+        user.setName("Покупатель");
+        user.setEmail("version" + suffix + "@example.com");
+        user.setPhone("+7903" + suffix);
+        user.setPassword("hash");
+        user.setRole(roleRepository.findByName("Клиент").orElseThrow());
+        user = userRepository.save(user);
+    }
+
+    @Test
+    public void testUpdateProduct_StaleVersionRejected() {
+        Long seen = product.getVersion();
+        productService.update(product.getId(), productChange("Новое имя", seen),
+                manufacturer.getId(), category.getId(), null);
+
+        assertThrows(ConcurrentUpdateException.class, () -> productService.update(product.getId(),
+                productChange("Устаревшее имя", seen), manufacturer.getId(), category.getId(), null));
+
+        Product stored = productService.findById(product.getId());
+        assertEquals("Новое имя", stored.getName());
+        assertEquals(seen + 1, stored.getVersion());
+    }
+
+    @Test
+    public void testUpdateProduct_ConcurrentEditsAllApplied() throws Exception {
+        Long initial = product.getVersion();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = "Правка " + i;
+            results.add(executor.submit(() -> productService.update(product.getId(), productChange(name, null),
+                    manufacturer.getId(), category.getId(), null)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> result : results) {
+            result.get();
+        }
+
+        assertEquals(initial + 3, productService.findById(product.getId()).getVersion());
+    }
+
+    @Test
+    public void testStockReservation_DoesNotChangeProductVersion() {
+        Long seen = product.getVersion();
+        Long orderId = createOrder();
+        OrderItem item = new OrderItem();
+        item.setQuantity(2);
+        item.setPrice(product.getPrice());
+        orderItemService.save(item, orderId, product.getId());
+
+        productService.update(product.getId(), productChange("После резерва", seen),
+                manufacturer.getId(), category.getId(), null);
+
+        Product stored = productService.findById(product.getId());
+        assertEquals("После резерва", stored.getName());
+        assertEquals(8, stored.getStockQuantity());
+    }
+
+    @Test
+    public void testUpdateStatus_BumpsVersionAndStaleOrderEditRejected() {
+        Long orderId = createOrder();
+        Long seen = orderService.findById(orderId).getVersion();
+
+        orderService.updateStatus(orderId, "CONFIRMED");
+        orderService.updateStatus(orderId, "CONFIRMED");
+
+        Order stored = orderService.findById(orderId);
+        assertEquals("CONFIRMED", stored.getStatus());
+        assertEquals(seen + 1, stored.getVersion());
+
+        Order change = new Order();
+        change.setVersion(seen);
+        change.setStatus("PENDING");
+        change.setTotalAmount(BigDecimal.valueOf(500));
+        change.setDeliveryAddress("Москва, ул. Арбат, 2");
+        assertThrows(ConcurrentUpdateException.class, () -> orderService.update(orderId, change));
+        assertEquals("CONFIRMED", orderService.findById(orderId).getStatus());
+    }
+
+    private Product productChange(String name, Long version) {
+        Product change = new Product();
+        change.setVersion(version);
+        change.setName(name);
+        change.setPrice(BigDecimal.valueOf(1200));
+        return change;
+    }
+
+    private Long createOrder() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalAmount(BigDecimal.valueOf(1000));
+        order.setStatus("PENDING");
+        order.setDeliveryAddress("Москва, ул. Тверская, 1");
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.soratech.service;
+
+import com.example.soratech.model.Category;
+import com.example.soratech.repository.projection.CategoryRow;
+import com.example.soratech.repository.spec.GridQuery;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ReferenceDataCacheTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = new Category();
+        category.setName("Кэш " + System.nanoTime());
+        categoryService.save(category);
+    }
+
+    @Test
+    public void testFindAllActive_SecondCallServedFromCache() {
+        categoryService.findAllActive();
+        statistics.clear();
+
+        List<Category> categories = categoryService.findAllActive();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(containsCategory(categories));
+    }
+
+    @Test
+    public void testUnfilteredGrid_SecondCallServedFromCache() {
+        // Так панель загружает справочник для выпадающего списка
+        GridQuery dropdown = new GridQuery(Map.of("size", List.of("1000")), false, "name", "asc");
+        categoryService.findAll(dropdown, PageRequest.of(0, 1000));
+        statistics.clear();
+
+        Page<CategoryRow> page = categoryService.findAll(dropdown, PageRequest.of(0, 1000));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(page.getContent().stream().anyMatch(row -> row.getId().equals(category.getId())));
+
+        // С фильтром запрос идет через спецификацию мимо кэша
+        GridQuery filtered = new GridQuery(Map.of("name", List.of(category.getName())), false, "name", "asc");
+        assertEquals(1, categoryService.findAll(filtered, PageRequest.of(0, 1000)).getTotalElements());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+
+    @Test
+    public void testLogicDelete_InvalidatesCachedList() {
+        assertTrue(containsCategory(categoryService.findAllActive()));
+
+        categoryService.logicDelete(category.getId());
+
+        assertFalse(containsCategory(categoryService.findAllActive()));
+        assertTrue(categoryService.findById(category.getId()).isDeleted());
+    }
+
+    @Test
+    public void testUpdate_RefreshesCachedEntity() {
+        categoryService.findById(category.getId());
+
+        Category changes = new Category();
+        changes.setName("Переименована");
+        categoryService.update(category.getId(), changes);
+
+        assertEquals("Переименована", categoryService.findById(category.getId()).getName());
+    }
+
+    private boolean containsCategory(List<Category> categories) {
+        return categories.stream().anyMatch(c -> c.getId().equals(category.getId()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.soratech.task;
+
+import com.example.soratech.model.AsyncTask;
+import com.example.soratech.repository.AsyncTaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "Администратор")
+public class TaskRegistryTest {
+
+    @Autowired
+    private TaskRegistry taskRegistry;
+
+    @Autowired
+    private AsyncTaskRepository taskRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testLaunch_TracksStatesProgressAndResult() {
+        CompletableFuture<String> job = new CompletableFuture<>();
+        String taskId = taskRegistry.launch("test", id -> job);
+        assertEquals(AsyncTask.Status.QUEUED, stateOf(taskId).status());
+
+        taskRegistry.start(taskId);
+        taskRegistry.progress(taskId, 40);
+        assertEquals(AsyncTask.Status.RUNNING, stateOf(taskId).status());
+        assertEquals(40, stateOf(taskId).progress());
+
+        job.complete("готово");
+        TaskStatus done = stateOf(taskId);
+        assertEquals(AsyncTask.Status.DONE, done.status());
+        assertEquals(100, done.progress());
+        assertEquals("готово", done.result());
+        assertNotNull(done.finishedAt());
+
+        // Завершенная задача не возвращается в работу
+        taskRegistry.start(taskId);
+        assertEquals(AsyncTask.Status.DONE, stateOf(taskId).status());
+    }
+
+    @Test
+    public void testLaunch_FailedFutureMarksTaskFailed() {
+        String taskId = taskRegistry.launch("test",
+                id -> CompletableFuture.failedFuture(new IllegalStateException("Заказ не найден")));
+
+        TaskStatus failed = stateOf(taskId);
+        assertEquals(AsyncTask.Status.FAILED, failed.status());
+        assertEquals("Заказ не найден", failed.result());
+    }
+
+    @Test
+    public void testFlush_StatusSurvivesRestartAndUnfinishedTasksFail() {
+        String doneId = taskRegistry.launch("test", id -> CompletableFuture.completedFuture("ok"));
+        String runningId = taskRegistry.launch("test", id -> new CompletableFuture<>());
+        taskRegistry.start(runningId);
+        taskRegistry.flush();
+
+        assertEquals(AsyncTask.Status.DONE, taskRepository.findById(doneId).orElseThrow().getStatus());
+
+        // Новый экземпляр реестра с пустой памятью - как после перезапуска приложения
+        TaskRegistry restarted = new TaskRegistry(taskRepository, transactionManager, true,
+                Duration.ofHours(1), 100, Duration.ofDays(7));
+        restarted.failInterrupted();
+
+        assertEquals(AsyncTask.Status.DONE, restarted.find(doneId).orElseThrow().status());
+        TaskStatus interrupted = restarted.find(runningId).orElseThrow();
+        assertEquals(AsyncTask.Status.FAILED, interrupted.status());
+        assertEquals(TaskRegistry.INTERRUPTED, interrupted.result());
+    }
+
+    @Test
+    public void testCheckStatus_ReportsAsyncFailureAndUnknownTask() throws Exception {
+        String body = mockMvc.perform(post("/api/async/process-order/{orderId}", -1L))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String taskId = objectMapper.readTree(body).get("taskId").asText();
+
+        String state = null;
+        for (int i = 0; i < 100 && !"FAILED".equals(state); i++) {
+            Thread.sleep(100);
+            String json = mockMvc.perform(get("/api/async/status/{taskId}", taskId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            state = objectMapper.readTree(json).get("status").asText();
+        }
+        assertEquals("FAILED", state);
+
+        mockMvc.perform(get("/api/async/status/{taskId}", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    private TaskStatus stateOf(String taskId) {
+        return taskRegistry.find(taskId).orElseThrow();
+    }
+}